@@ -101,6 +101,9 @@ public class PortfolioAgents {
                                 - queryProjects: semantic search for project descriptions and technical details
                                   → Searches in projects/* category (portfolio projects)
                                   → Returns top 5 most relevant chunks with similarity scores
+                                - queryGitHubDocs: semantic search over my repositories' README and docs files
+                                  → Searches in github/* category (indexed in the background, refreshed on push)
+                                  → Returns top 5 most relevant chunks with similarity scores
 
                                 Utility:
                                 - getContactCard: get contact information
@@ -109,8 +112,9 @@ public class PortfolioAgents {
                                 1. For GitHub/code questions -> use GitHub tools (getGitHubStats, listAllRepos, getRepoDetails, etc.)
                                 2. For personal info (experience, skills, education) -> use queryPersonalInfo
                                 3. For project details -> use queryProjects combined with GitHub tools
-                                4. Cite real numbers from tools (stars, forks, languages)
-                                5. Show code by reading files when relevant
+                                4. For what a repo does, setup, or architecture -> use queryGitHubDocs before readRepoFile
+                                5. Cite real numbers from tools (stars, forks, languages)
+                                6. Show code by reading files when relevant
 
                                 RULES:
                                 - Be data-driven and cite real numbers from tools
@@ -138,6 +142,7 @@ public class PortfolioAgents {
                         // Profile RAG Tools
                         FunctionTool.create(UnifiedRAGTools.class, "queryPersonalInfo"),
                         FunctionTool.create(UnifiedRAGTools.class, "queryProjects"),
+                        FunctionTool.create(UnifiedRAGTools.class, "queryGitHubDocs"),
                         // Utility
                         FunctionTool.create(UtilityTools.class, "getContactCard"))
                 .build();
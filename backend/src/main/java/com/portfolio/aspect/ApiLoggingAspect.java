@@ -200,7 +200,7 @@ public class ApiLoggingAspect {
             if (body instanceof byte[]) {
                 return "<binary data>";
             }
-            if (body instanceof org.springframework.web.servlet.mvc.method.annotation.SseEmitter) {
+            if (body instanceof org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter) {
                 return "<SseEmitter>";
             }
 
@@ -5,10 +5,14 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Configuration for asynchronous task execution
  * Used by API logging service to avoid blocking API responses
+ * and by the RAG sync job API to run syncs in the background
+ * and by chat streaming for deadline flushes of coalesced deltas
  */
 @Configuration
 public class AsyncConfig {
@@ -42,4 +46,32 @@ public class AsyncConfig {
 
         return executor;
     }
+
+    /**
+     * Single-thread executor for RAG sync jobs
+     * SyncJobService admits one job at a time; the queue slot only absorbs
+     * the hand-off while a finishing job's thread is being released
+     */
+    @Bean(name = "ragSyncExecutor")
+    public Executor ragSyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("rag-sync-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Scheduler for SSE delta coalescing deadlines, watchdog ticks and resume grace periods
+     * Tasks never write to a client (writes are handed to virtual threads), so one
+     * daemon thread is enough
+     */
+    @Bean(name = "sseFlushScheduler", destroyMethod = "shutdownNow")
+    public ScheduledExecutorService sseFlushScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("sse-flush-", 0).daemon(true).factory());
+    }
 }
@@ -0,0 +1,127 @@
+package com.portfolio.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the recorded chat response cache
+ */
+@Component
+@ConfigurationProperties(prefix = "chat.response-cache")
+public class ChatResponseCacheProperties {
+
+    /**
+     * Replay recorded streams for repeated first-turn questions
+     * Default: true
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long a recorded response is replayed (in minutes)
+     * Default: 60
+     */
+    private long ttlMinutes = 60;
+
+    /**
+     * Maximum number of recorded responses
+     * Default: 500
+     */
+    private int maxEntries = 500;
+
+    /**
+     * Maximum estimated size of all recorded responses (in bytes)
+     * Default: 16MB
+     */
+    private long maxBytes = 16L * 1024 * 1024;
+
+    /**
+     * Responses larger than this are not recorded (in bytes)
+     * Default: 256KB
+     */
+    private long maxEntryBytes = 256L * 1024;
+
+    /**
+     * Also replay answers to paraphrased questions (query embedding similarity)
+     * Off by default: every first-turn exact miss then waits on an embedding call
+     * Default: false
+     */
+    private boolean semanticEnabled = false;
+
+    /**
+     * Longest a first turn waits for its question embedding before the semantic
+     * lookup counts as a miss and the agent runs, and longest a commit waits
+     * before storing the answer without one (in milliseconds)
+     * Default: 300ms
+     */
+    private long semanticTimeoutMs = 300;
+
+    /**
+     * Minimum cosine similarity between question embeddings for a semantic hit
+     * Default: 0.9
+     */
+    private double semanticThreshold = 0.9;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getTtlMinutes() {
+        return ttlMinutes;
+    }
+
+    public void setTtlMinutes(long ttlMinutes) {
+        this.ttlMinutes = ttlMinutes;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public void setMaxEntryBytes(long maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public boolean isSemanticEnabled() {
+        return semanticEnabled;
+    }
+
+    public void setSemanticEnabled(boolean semanticEnabled) {
+        this.semanticEnabled = semanticEnabled;
+    }
+
+    public double getSemanticThreshold() {
+        return semanticThreshold;
+    }
+
+    public void setSemanticThreshold(double semanticThreshold) {
+        this.semanticThreshold = semanticThreshold;
+    }
+
+    public long getSemanticTimeoutMs() {
+        return semanticTimeoutMs;
+    }
+
+    public void setSemanticTimeoutMs(long semanticTimeoutMs) {
+        this.semanticTimeoutMs = semanticTimeoutMs;
+    }
+}
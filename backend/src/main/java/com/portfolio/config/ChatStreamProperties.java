@@ -0,0 +1,358 @@
+package com.portfolio.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for chat SSE streaming
+ */
+@Component
+@ConfigurationProperties(prefix = "chat.stream")
+public class ChatStreamProperties {
+
+    /**
+     * Max time consecutive deltas of one phase are held before being sent
+     * as a single frame (in milliseconds, 0 disables coalescing)
+     * Default: 40ms
+     */
+    private long coalesceIntervalMs = 40;
+
+    /**
+     * Buffered delta size that triggers an immediate flush (UTF-8 bytes)
+     * Default: 1KB (1024 bytes)
+     */
+    private int coalesceMaxBytes = 1024;
+
+    /**
+     * Time from request to the agent's first output (thinking, tool call or
+     * response) before the stream is ended (in milliseconds, 0 disables)
+     * Default: 30s
+     */
+    private long firstEventTimeoutMs = 30_000;
+
+    /**
+     * Longest gap between frames while no tool call is running
+     * (in milliseconds, 0 disables)
+     * Default: 30s
+     */
+    private long idleTimeoutMs = 30_000;
+
+    /**
+     * Longest single tool call (in milliseconds, 0 disables)
+     * Default: 60s
+     */
+    private long toolCallTimeoutMs = 60_000;
+
+    /**
+     * Longest agent run; connections are closed this long plus
+     * resume-grace-ms after they start (in milliseconds, 0 falls back to a
+     * 30 minute connection timeout)
+     * Default: 5min
+     */
+    private long maxDurationMs = 300_000;
+
+    /**
+     * How long a dropped stream keeps running (and a finished one keeps its
+     * replay buffer) waiting for a Last-Event-ID reconnect (in milliseconds)
+     * Default: 15s
+     */
+    private long resumeGraceMs = 15_000;
+
+    /**
+     * Frames kept per stream for resuming
+     * Default: 1024
+     */
+    private int resumeBufferFrames = 1024;
+
+    /**
+     * Bytes kept per stream for resuming
+     * Default: 512KB (524288 bytes)
+     */
+    private long resumeBufferBytes = 512L * 1024;
+
+    /**
+     * Bytes queued for one client before it is dropped as too slow (keep it
+     * above resume-buffer-bytes so a full replay fits)
+     * Default: 1MB (1048576 bytes)
+     */
+    private long outboundMaxBytes = 1024L * 1024;
+
+    /**
+     * Merge frames queued behind a slow write into one write
+     * Default: true
+     */
+    private boolean outboundCoalesce = true;
+
+    /**
+     * How long one write may block before the client is dropped as stalled
+     * (in milliseconds)
+     * Default: 30s
+     */
+    private long outboundStallTimeoutMs = 30_000;
+
+    /**
+     * Gzip /chat/stream responses for clients sending Accept-Encoding: gzip
+     * (each frame is sync-flushed, so streaming latency is unchanged)
+     * Default: false
+     */
+    private boolean compressionEnabled = false;
+
+    /**
+     * Deflate level for compressed streams (1 = fastest .. 9 = smallest)
+     * Default: 1
+     */
+    private int compressionLevel = 1;
+
+    /**
+     * Chat streams one WebSocket connection may run at the same time
+     * Default: 4
+     */
+    private int wsMaxStreams = 4;
+
+    /**
+     * Chat streams allowed to run at the same time (the starting point when
+     * the adaptive limit is enabled)
+     * Default: 8
+     */
+    private int maxConcurrent = 8;
+
+    /**
+     * Adjust the concurrency limit from observed stream latency (AIMD)
+     * Default: true
+     */
+    private boolean adaptiveLimitEnabled = true;
+
+    /**
+     * Lowest adaptive limit
+     * Default: 2
+     */
+    private int adaptiveMinConcurrent = 2;
+
+    /**
+     * Highest adaptive limit
+     * Default: 32
+     */
+    private int adaptiveMaxConcurrent = 32;
+
+    /**
+     * Recent/baseline latency ratio above which the limit is cut
+     * Default: 2.0
+     */
+    private double adaptiveLatencyTolerance = 2.0;
+
+    /**
+     * Factor the limit is multiplied by when latency degrades
+     * Default: 0.8
+     */
+    private double adaptiveBackoffRatio = 0.8;
+
+    /**
+     * Requests that may wait for a free slot before new ones get 503
+     * Default: 16
+     */
+    private int queueCapacity = 16;
+
+    /**
+     * How long a queued request waits for a slot (in milliseconds)
+     * Default: 2s
+     */
+    private long queueTimeoutMs = 2_000;
+
+    /**
+     * Retry-After sent with 503 responses (in seconds)
+     * Default: 5
+     */
+    private int retryAfterSeconds = 5;
+
+    public long getCoalesceIntervalMs() {
+        return coalesceIntervalMs;
+    }
+
+    public void setCoalesceIntervalMs(long coalesceIntervalMs) {
+        this.coalesceIntervalMs = coalesceIntervalMs;
+    }
+
+    public int getCoalesceMaxBytes() {
+        return coalesceMaxBytes;
+    }
+
+    public void setCoalesceMaxBytes(int coalesceMaxBytes) {
+        this.coalesceMaxBytes = coalesceMaxBytes;
+    }
+
+    public long getFirstEventTimeoutMs() {
+        return firstEventTimeoutMs;
+    }
+
+    public void setFirstEventTimeoutMs(long firstEventTimeoutMs) {
+        this.firstEventTimeoutMs = firstEventTimeoutMs;
+    }
+
+    public long getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+
+    public void setIdleTimeoutMs(long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    public long getToolCallTimeoutMs() {
+        return toolCallTimeoutMs;
+    }
+
+    public void setToolCallTimeoutMs(long toolCallTimeoutMs) {
+        this.toolCallTimeoutMs = toolCallTimeoutMs;
+    }
+
+    public long getMaxDurationMs() {
+        return maxDurationMs;
+    }
+
+    public void setMaxDurationMs(long maxDurationMs) {
+        this.maxDurationMs = maxDurationMs;
+    }
+
+    public long getResumeGraceMs() {
+        return resumeGraceMs;
+    }
+
+    public void setResumeGraceMs(long resumeGraceMs) {
+        this.resumeGraceMs = resumeGraceMs;
+    }
+
+    public int getResumeBufferFrames() {
+        return resumeBufferFrames;
+    }
+
+    public void setResumeBufferFrames(int resumeBufferFrames) {
+        this.resumeBufferFrames = resumeBufferFrames;
+    }
+
+    public long getResumeBufferBytes() {
+        return resumeBufferBytes;
+    }
+
+    public void setResumeBufferBytes(long resumeBufferBytes) {
+        this.resumeBufferBytes = resumeBufferBytes;
+    }
+
+    public long getOutboundMaxBytes() {
+        return outboundMaxBytes;
+    }
+
+    public void setOutboundMaxBytes(long outboundMaxBytes) {
+        this.outboundMaxBytes = outboundMaxBytes;
+    }
+
+    public boolean isOutboundCoalesce() {
+        return outboundCoalesce;
+    }
+
+    public void setOutboundCoalesce(boolean outboundCoalesce) {
+        this.outboundCoalesce = outboundCoalesce;
+    }
+
+    public long getOutboundStallTimeoutMs() {
+        return outboundStallTimeoutMs;
+    }
+
+    public void setOutboundStallTimeoutMs(long outboundStallTimeoutMs) {
+        this.outboundStallTimeoutMs = outboundStallTimeoutMs;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    public int getWsMaxStreams() {
+        return wsMaxStreams;
+    }
+
+    public void setWsMaxStreams(int wsMaxStreams) {
+        this.wsMaxStreams = wsMaxStreams;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public boolean isAdaptiveLimitEnabled() {
+        return adaptiveLimitEnabled;
+    }
+
+    public void setAdaptiveLimitEnabled(boolean adaptiveLimitEnabled) {
+        this.adaptiveLimitEnabled = adaptiveLimitEnabled;
+    }
+
+    public int getAdaptiveMinConcurrent() {
+        return adaptiveMinConcurrent;
+    }
+
+    public void setAdaptiveMinConcurrent(int adaptiveMinConcurrent) {
+        this.adaptiveMinConcurrent = adaptiveMinConcurrent;
+    }
+
+    public int getAdaptiveMaxConcurrent() {
+        return adaptiveMaxConcurrent;
+    }
+
+    public void setAdaptiveMaxConcurrent(int adaptiveMaxConcurrent) {
+        this.adaptiveMaxConcurrent = adaptiveMaxConcurrent;
+    }
+
+    public double getAdaptiveLatencyTolerance() {
+        return adaptiveLatencyTolerance;
+    }
+
+    public void setAdaptiveLatencyTolerance(double adaptiveLatencyTolerance) {
+        this.adaptiveLatencyTolerance = adaptiveLatencyTolerance;
+    }
+
+    public double getAdaptiveBackoffRatio() {
+        return adaptiveBackoffRatio;
+    }
+
+    public void setAdaptiveBackoffRatio(double adaptiveBackoffRatio) {
+        this.adaptiveBackoffRatio = adaptiveBackoffRatio;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getQueueTimeoutMs() {
+        return queueTimeoutMs;
+    }
+
+    public void setQueueTimeoutMs(long queueTimeoutMs) {
+        this.queueTimeoutMs = queueTimeoutMs;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
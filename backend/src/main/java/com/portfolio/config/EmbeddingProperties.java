@@ -0,0 +1,184 @@
+package com.portfolio.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the shared Gemini embedding client
+ * Limits should be sized to the project's embedding quota
+ */
+@Component
+@ConfigurationProperties(prefix = "rag.embedding")
+public class EmbeddingProperties {
+
+    /**
+     * Sustained embedding requests allowed per minute (token bucket refill rate)
+     * Default: 100
+     */
+    private int requestsPerMinute = 100;
+
+    /**
+     * Maximum burst of requests (token bucket capacity)
+     * Default: 10
+     */
+    private int burstCapacity = 10;
+
+    /**
+     * Tokens that background (sync) traffic may never consume,
+     * kept free for interactive query embeddings
+     * Default: 2
+     */
+    private int interactiveReserve = 2;
+
+    /**
+     * Maximum retries for 429/5xx responses before giving up
+     * Default: 5
+     */
+    private int maxRetries = 5;
+
+    /**
+     * Base delay for exponential backoff (in milliseconds)
+     * Default: 500ms
+     */
+    private long initialBackoffMs = 500;
+
+    /**
+     * Upper bound for a single backoff delay (in milliseconds)
+     * Default: 30s
+     */
+    private long maxBackoffMs = 30_000;
+
+    /**
+     * Longest 429 Retry-After waited out (in milliseconds); a longer one fails
+     * the request. Not capped by max-backoff-ms
+     * Default: 10min
+     */
+    private long maxRetryAfterMs = 600_000;
+
+    /**
+     * HTTP request timeout (in milliseconds)
+     * Default: 30s
+     */
+    private long requestTimeoutMs = 30_000;
+
+    /**
+     * Micro-batch concurrent query embeddings into one batchEmbedContents call
+     * Default: true
+     */
+    private boolean queryBatchingEnabled = true;
+
+    /**
+     * How long the first query in a batch waits for others to join (in milliseconds)
+     * Default: 8ms
+     */
+    private long queryBatchWindowMs = 8;
+
+    /**
+     * Batch is sent immediately once this many queries are queued
+     * Default: 16
+     */
+    private int queryMaxBatchSize = 16;
+
+    /**
+     * Longest a chat query waits for its embedding before the search is skipped
+     * (in milliseconds)
+     * Default: 10s
+     */
+    private long queryTimeoutMs = 10_000;
+
+    public int getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    public void setRequestsPerMinute(int requestsPerMinute) {
+        this.requestsPerMinute = requestsPerMinute;
+    }
+
+    public int getBurstCapacity() {
+        return burstCapacity;
+    }
+
+    public void setBurstCapacity(int burstCapacity) {
+        this.burstCapacity = burstCapacity;
+    }
+
+    public int getInteractiveReserve() {
+        return interactiveReserve;
+    }
+
+    public void setInteractiveReserve(int interactiveReserve) {
+        this.interactiveReserve = interactiveReserve;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public long getInitialBackoffMs() {
+        return initialBackoffMs;
+    }
+
+    public void setInitialBackoffMs(long initialBackoffMs) {
+        this.initialBackoffMs = initialBackoffMs;
+    }
+
+    public long getMaxBackoffMs() {
+        return maxBackoffMs;
+    }
+
+    public void setMaxBackoffMs(long maxBackoffMs) {
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    public long getMaxRetryAfterMs() {
+        return maxRetryAfterMs;
+    }
+
+    public void setMaxRetryAfterMs(long maxRetryAfterMs) {
+        this.maxRetryAfterMs = maxRetryAfterMs;
+    }
+
+    public long getRequestTimeoutMs() {
+        return requestTimeoutMs;
+    }
+
+    public void setRequestTimeoutMs(long requestTimeoutMs) {
+        this.requestTimeoutMs = requestTimeoutMs;
+    }
+
+    public boolean isQueryBatchingEnabled() {
+        return queryBatchingEnabled;
+    }
+
+    public void setQueryBatchingEnabled(boolean queryBatchingEnabled) {
+        this.queryBatchingEnabled = queryBatchingEnabled;
+    }
+
+    public long getQueryBatchWindowMs() {
+        return queryBatchWindowMs;
+    }
+
+    public void setQueryBatchWindowMs(long queryBatchWindowMs) {
+        this.queryBatchWindowMs = queryBatchWindowMs;
+    }
+
+    public int getQueryMaxBatchSize() {
+        return queryMaxBatchSize;
+    }
+
+    public void setQueryMaxBatchSize(int queryMaxBatchSize) {
+        this.queryMaxBatchSize = queryMaxBatchSize;
+    }
+
+    public long getQueryTimeoutMs() {
+        return queryTimeoutMs;
+    }
+
+    public void setQueryTimeoutMs(long queryTimeoutMs) {
+        this.queryTimeoutMs = queryTimeoutMs;
+    }
+}
@@ -1,5 +1,7 @@
 package com.portfolio.config;
 
+import com.portfolio.model.SyncMetrics;
+import com.portfolio.service.EmbeddingSnapshot;
 import com.portfolio.service.ProfileSyncService;
 import com.portfolio.service.VectorQueryService;
 import com.portfolio.tools.UnifiedRAGTools;
@@ -38,11 +40,18 @@ public class RagConfig {
         UnifiedRAGTools.setVectorQueryService(vectorQueryService);
 
         // Load profile.json from resources and sync on startup
+        // Vectors come from the bundled snapshot where chunk hashes match; only changed chunks hit the API
         try {
             log.info("[RagConfig] Loading profile.json and generating embeddings...");
             String profileJson = profileSyncService.loadProfileFromResources();
-            int chunksStored = profileSyncService.syncProfile(profileJson);
-            log.info("[RagConfig] ✅ Profile synced successfully: {} chunks", chunksStored);
+            EmbeddingSnapshot snapshot = profileSyncService.loadSnapshotFromResources().orElse(null);
+            if (snapshot != null && !snapshot.matchesProfile(profileJson)) {
+                log.info("[RagConfig] profile.json changed since snapshot export, re-embedding changed chunks only");
+            }
+            SyncMetrics metrics = new SyncMetrics();
+            int chunksStored = profileSyncService.syncProfile(profileJson, metrics, snapshot);
+            log.info("[RagConfig] ✅ Profile synced successfully: {} chunks ({} from snapshot) in {} ms",
+                    chunksStored, metrics.getSnapshotHits(), metrics.getTotalMillis());
         } catch (Exception e) {
             log.error("[RagConfig] ❌ Failed to sync profile on startup", e);
             // Don't prevent application from starting - RAG unavailable but other features work
@@ -0,0 +1,113 @@
+package com.portfolio.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for agent conversation sessions
+ */
+@Component
+@ConfigurationProperties(prefix = "chat.sessions")
+public class SessionStoreProperties {
+
+    /**
+     * Maximum number of sessions kept in memory (least recently used are
+     * evicted first)
+     * Default: 500
+     */
+    private int maxSessions = 500;
+
+    /**
+     * Sessions unused for this long are evicted (in minutes)
+     * Default: 30
+     */
+    private long idleTimeoutMinutes = 30;
+
+    /**
+     * Persist sessions in Postgres so every instance can serve every session
+     * (otherwise they live in this instance's memory only)
+     * Default: false
+     */
+    private boolean durable = false;
+
+    /**
+     * Durable sessions unused for this many days are deleted
+     * Default: 30
+     */
+    private int retentionDays = 30;
+
+    /**
+     * Estimated history tokens per turn beyond which old tool results and
+     * turns are compacted (0 disables compaction)
+     * Default: 8000
+     */
+    private long historyTokenBudget = 8000;
+
+    /**
+     * Most recent turns always sent in full
+     * Default: 2
+     */
+    private int historyKeepTurns = 2;
+
+    /**
+     * Older tool results are cut to this many characters when compacting
+     * Default: 400
+     */
+    private int historyToolResultChars = 400;
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    public long getIdleTimeoutMinutes() {
+        return idleTimeoutMinutes;
+    }
+
+    public void setIdleTimeoutMinutes(long idleTimeoutMinutes) {
+        this.idleTimeoutMinutes = idleTimeoutMinutes;
+    }
+
+    public boolean isDurable() {
+        return durable;
+    }
+
+    public void setDurable(boolean durable) {
+        this.durable = durable;
+    }
+
+    public int getRetentionDays() {
+        return retentionDays;
+    }
+
+    public void setRetentionDays(int retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+
+    public long getHistoryTokenBudget() {
+        return historyTokenBudget;
+    }
+
+    public void setHistoryTokenBudget(long historyTokenBudget) {
+        this.historyTokenBudget = historyTokenBudget;
+    }
+
+    public int getHistoryKeepTurns() {
+        return historyKeepTurns;
+    }
+
+    public void setHistoryKeepTurns(int historyKeepTurns) {
+        this.historyKeepTurns = historyKeepTurns;
+    }
+
+    public int getHistoryToolResultChars() {
+        return historyToolResultChars;
+    }
+
+    public void setHistoryToolResultChars(int historyToolResultChars) {
+        this.historyToolResultChars = historyToolResultChars;
+    }
+}
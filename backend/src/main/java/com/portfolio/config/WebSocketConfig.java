@@ -0,0 +1,34 @@
+package com.portfolio.config;
+
+import com.portfolio.controller.ChatWebSocketHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * WebSocket endpoint for chat streaming (/api/v1/chat/ws)
+ * Allowed origins follow the CORS configuration
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final ChatWebSocketHandler chatWebSocketHandler;
+
+    public WebSocketConfig(ChatWebSocketHandler chatWebSocketHandler) {
+        this.chatWebSocketHandler = chatWebSocketHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        String origins = EnvConfig.get("CORS_ALLOWED_ORIGINS", EnvConfig.get("cors.allowed-origins", ""));
+        String[] originList = java.util.Arrays.stream(origins.split(","))
+                .map(String::trim)
+                .filter(v -> !v.isEmpty())
+                .toArray(String[]::new);
+
+        registry.addHandler(chatWebSocketHandler, "/chat/ws")
+                .setAllowedOrigins(originList);
+    }
+}
@@ -1,26 +1,50 @@
 package com.portfolio.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.adk.events.Event;
+import com.portfolio.config.ChatStreamProperties;
+import com.portfolio.filter.ChatAdmissionFilter;
 import com.portfolio.model.StreamEvents;
 import com.portfolio.service.AgentService;
 import com.portfolio.service.RateLimitService;
-import io.reactivex.rxjava3.core.Flowable;
+import com.portfolio.stream.AgentEventTranslator;
+import com.portfolio.stream.BufferedClient;
+import com.portfolio.stream.ChatAdmissionController;
+import com.portfolio.stream.ChatResponseCache;
+import com.portfolio.stream.ChatStreamMetrics;
+import com.portfolio.stream.ChatStreamRunner;
+import com.portfolio.stream.GzipFrameClient;
+import com.portfolio.stream.ResumableStream;
+import com.portfolio.stream.ResumableStreamRegistry;
+import com.portfolio.stream.SseEventEncoder;
+import com.portfolio.stream.SseFrameEmitter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Enhanced streaming chat controller with real SSE streaming
- * Uses SseEmitter (Spring MVC) instead of Sinks.Many (WebFlux)
+ * - /stream: Spring MVC emitter fed by a virtual thread; frames are
+ *   pre-encoded by SseEventEncoder, numbered and buffered by ResumableStream
+ *   (reconnects with Last-Event-ID continue the run) and written as raw bytes;
+ *   identical first-turn questions asked while a run is in flight join it;
+ *   the run itself (coalescing, watchdog, timings) is ChatStreamRunner
+ * - /stream/reactive: Flux with end-to-end backpressure; reduced-feature (see
+ *   streamChatReactive)
+ * Both share the AgentEventTranslator state machine, and both answer repeated
+ * first-turn questions from ChatResponseCache without running the agent.
  */
 @RestController
 @RequestMapping("/chat")
@@ -29,288 +53,396 @@ public class ChatController {
     private static final Logger log = LoggerFactory.getLogger(ChatController.class);
     private final AgentService agentService;
     private final RateLimitService rateLimitService;
+    private final ChatStreamProperties streamProperties;
+    private final ChatStreamRunner streamRunner;
+    private final ChatStreamMetrics streamMetrics;
+    private final ChatAdmissionController admissionController;
+    private final ChatResponseCache responseCache;
+    private final ResumableStreamRegistry streamRegistry;
     private final ObjectMapper objectMapper;
 
-    public ChatController(AgentService agentService, RateLimitService rateLimitService) {
+    public ChatController(
+            AgentService agentService,
+            RateLimitService rateLimitService,
+            ChatStreamProperties streamProperties,
+            ChatStreamRunner streamRunner,
+            ChatStreamMetrics streamMetrics,
+            ChatAdmissionController admissionController,
+            ChatResponseCache responseCache,
+            ResumableStreamRegistry streamRegistry) {
         this.agentService = agentService;
         this.rateLimitService = rateLimitService;
+        this.streamProperties = streamProperties;
+        this.streamRunner = streamRunner;
+        this.streamMetrics = streamMetrics;
+        this.admissionController = admissionController;
+        this.responseCache = responseCache;
+        this.streamRegistry = streamRegistry;
         this.objectMapper = new ObjectMapper();
     }
 
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter streamChatGet(
+    public SseFrameEmitter streamChatGet(
             @RequestParam("message") String message,
-            @RequestParam(value = "sessionId", required = false) String sessionId) {
+            @RequestParam(value = "sessionId", required = false) String sessionId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         String resolvedSessionId = sessionId != null ? sessionId : "session-" + System.currentTimeMillis();
         String truncatedMessage = truncateMessage(message);
-        return streamChatInternal(resolvedSessionId, truncatedMessage);
+        return streamChatInternal(resolvedSessionId, truncatedMessage, lastEventId, compress(acceptEncoding));
     }
 
     @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter streamChatPost(@RequestBody ChatRequest request) {
+    public SseFrameEmitter streamChatPost(
+            @RequestBody ChatRequest request,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         String sessionId = request.getSessionId() != null ? request.getSessionId() : "session-" + System.currentTimeMillis();
         String message = truncateMessage(request.getMessage());
-        return streamChatInternal(sessionId, message);
+        return streamChatInternal(sessionId, message, lastEventId, compress(acceptEncoding));
     }
 
-    private SseEmitter streamChatInternal(String sessionId, String message) {
-        // Create SSE emitter with 30 minute timeout
-        SseEmitter emitter = new SseEmitter(30 * 60 * 1000L);
+    /**
+     * Reactive variant of /stream
+     *
+     * The ADK Flowable is adapted into a Flux, so Spring requests the next
+     * event only after the previous frame was written; slow clients hold back
+     * the upstream instead of growing a server-side buffer, and no thread is
+     * parked per stream.
+     *
+     * Reduced-feature by design: one frame per agent event, serialized by
+     * Spring's codec. The /stream pipeline (SseEventEncoder, DeltaCoalescer,
+     * ResumableStream ids and shared runs, gzip, StreamWatchdog deadlines and
+     * StreamTimings) buffers and writes on its own threads, which is what this
+     * endpoint exists to avoid. Only completion/cancel metrics, the response
+     * cache and the adaptive latency feedback are shared.
+     */
+    @GetMapping(value = "/stream/reactive", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamChatReactiveGet(
+            @RequestParam("message") String message,
+            @RequestParam(value = "sessionId", required = false) String sessionId) {
+        String resolvedSessionId = sessionId != null ? sessionId : "session-" + System.currentTimeMillis();
+        return streamChatReactive(resolvedSessionId, truncateMessage(message));
+    }
 
-        // Phase tracking
-        AtomicBoolean thinkingPhaseSent = new AtomicBoolean(false);
-        AtomicBoolean thinkingContentSent = new AtomicBoolean(false);
-        AtomicBoolean responsePhaseStarted = new AtomicBoolean(false);
-        AtomicBoolean responseCompleteSent = new AtomicBoolean(false);
+    @PostMapping(value = "/stream/reactive", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamChatReactivePost(@RequestBody ChatRequest request) {
+        String sessionId = request.getSessionId() != null ? request.getSessionId() : "session-" + System.currentTimeMillis();
+        return streamChatReactive(sessionId, truncateMessage(request.getMessage()));
+    }
 
-        // Content tracking
-        StringBuilder thinkingContent = new StringBuilder();
-        StringBuilder responseContent = new StringBuilder();
+    private SseFrameEmitter streamChatInternal(String sessionId, String message, String lastEventId, boolean gzip) {
+        // Reconnect of a dropped stream: follow the existing run, no new agent call
+        SseFrameEmitter resumed = resumeStream(sessionId, lastEventId, gzip);
+        if (resumed != null) {
+            return resumed;
+        }
 
-        // Tool tracking
-        Map<String, ToolCallState> activeTools = new ConcurrentHashMap<>();
-        AtomicInteger toolCallCounter = new AtomicInteger(0);
+        // Only first turns are cached: later answers depend on the conversation.
+        // An exact hit is replayed by the runner like any other stream.
+        boolean firstTurn = !agentService.hasSession(sessionId);
+        List<StreamEvents.StreamEvent> cached = firstTurn ? responseCache.lookup(message) : null;
+        boolean live = firstTurn && cached == null;
+
+        // Same question already streaming for someone else: follow that run
+        String question = live ? ChatResponseCache.normalize(message) : "";
+        if (!question.isEmpty()) {
+            SseFrameEmitter follower = joinSharedRun(question, sessionId, gzip);
+            if (follower != null) {
+                return follower;
+            }
+        }
+        ChatResponseCache.Recording recording = live ? responseCache.record(message) : null;
+
+        SseFrameEmitter emitter = newEmitter(gzip);
+        SseEventEncoder encoder = new SseEventEncoder();
+        ChatStreamRunner.Run run = streamRunner.open(sessionId, message);
+
+        // Client gone and not back within the grace period: stop the agent run
+        // instead of consuming it to the end
+        ResumableStream resumable = streamRegistry.open(sessionId, run::cancel);
+        BufferedClient client = outbound(emitter);
+        resumable.attach(client);
 
         // Error handler
         emitter.onError((ex) -> {
-            log.error("SSE emitter error for session: {}", sessionId, ex);
+            log.warn("SSE emitter error for session: {}: {}", sessionId, ex.getMessage());
+            resumable.detach(client);
         });
 
         // Completion handler
         emitter.onCompletion(() -> {
             log.debug("SSE emitter completed for session: {}", sessionId);
+            resumable.detach(client);
         });
 
         // Timeout handler
         emitter.onTimeout(() -> {
             log.warn("SSE emitter timeout for session: {}", sessionId);
+            resumable.detach(client);
         });
 
-        // Start async processing in a separate thread
-        Thread.ofVirtual().start(() -> {
-            try {
-                // Send session start
-                sendEvent(emitter, new StreamEvents.SessionStartEvent(sessionId));
-
-                // Get event stream from agent
-                Flowable<Event> events = agentService.processMessageStream(sessionId, message);
-
-                // Subscribe to events and send to emitter
-                events.blockingForEach(event -> {
-                    try {
-                        // PHASE 1: THINKING
-                        if (event.partial().orElse(false)) {
-                            if (thinkingPhaseSent.compareAndSet(false, true)) {
-                                sendEvent(emitter, new StreamEvents.ThinkingStartEvent());
-                            }
-
-                            String content = extractTextContent(event);
-                            if (content != null && !content.isEmpty()) {
-                                String delta = diffFromLast(thinkingContent, content);
-                                if (!delta.isEmpty()) {
-                                    sendEvent(emitter, new StreamEvents.ThinkingDeltaEvent(delta));
-                                    thinkingContentSent.set(true);
-                                }
-                            }
-                        }
-
-                        // PHASE 2: TOOL CALLS
-                        if (event.functionCalls() != null && !event.functionCalls().isEmpty()) {
-                            if (thinkingContentSent.get() && thinkingPhaseSent.get()) {
-                                sendEvent(emitter, new StreamEvents.ThinkingEndEvent());
-                                thinkingPhaseSent.set(false);
-                            }
-
-                            event.functionCalls().forEach(call -> {
-                                try {
-                                    String toolId = "tool_" + toolCallCounter.incrementAndGet();
-                                    String toolName = call.name().orElse("unknown");
-                                    String args = call.args().map(Object::toString).orElse("{}");
-
-                                    activeTools.put(toolId, new ToolCallState(toolId, toolName));
-                                    sendEvent(emitter, new StreamEvents.ToolCallStartEvent(toolId, toolName, args));
-                                } catch (Exception e) {
-                                    log.error("Error sending tool start event", e);
-                                }
-                            });
-                        }
-
-                        // PHASE 3: TOOL RESULTS
-                        if (event.functionResponses() != null && !event.functionResponses().isEmpty()) {
-                            event.functionResponses().forEach(response -> {
-                                String toolName = response.name().orElse("unknown");
-                                String result = response.response().map(Object::toString).orElse("Success");
-
-                                activeTools.entrySet().stream()
-                                        .filter(entry -> entry.getValue().toolName.equals(toolName))
-                                        .filter(entry -> !entry.getValue().completed)
-                                        .findFirst()
-                                        .ifPresent(entry -> {
-                                            try {
-                                                entry.getValue().completed = true;
-                                                sendEvent(emitter, new StreamEvents.ToolCallEndEvent(
-                                                        entry.getKey(),
-                                                        toolName,
-                                                        truncateResult(result),
-                                                        true
-                                                ));
-                                            } catch (Exception e) {
-                                                log.error("Error sending tool end event", e);
-                                            }
-                                        });
-                            });
-                        }
-
-                        // PHASE 4: FINAL RESPONSE
-                        if (!event.partial().orElse(false)) {
-                            String content = extractTextContent(event);
-                            if (content != null && !content.isEmpty()) {
-                                if (thinkingPhaseSent.get()) {
-                                    sendEvent(emitter, new StreamEvents.ThinkingEndEvent());
-                                    thinkingPhaseSent.set(false);
-                                }
-
-                                if (responsePhaseStarted.compareAndSet(false, true)) {
-                                    sendEvent(emitter, new StreamEvents.ResponseStartEvent());
-                                }
-
-                                String delta = diffFromLast(responseContent, content);
-                                if (!delta.isEmpty()) {
-                                    sendEvent(emitter, new StreamEvents.ResponseDeltaEvent(delta));
-                                }
-                            }
-                        }
+        // Frames are numbered and buffered for resume; identical questions may join
+        ChatStreamRunner.Transport transport = new ChatStreamRunner.Transport() {
+            private volatile Set<String> followers = Set.of();
 
-                        // Check if turn is complete
-                        if (event.turnComplete().orElse(false)) {
-                            if (thinkingPhaseSent.get()) {
-                                sendEvent(emitter, new StreamEvents.ThinkingEndEvent());
-                                thinkingPhaseSent.set(false);
-                            }
-
-                            if (responsePhaseStarted.get() && responseCompleteSent.compareAndSet(false, true)) {
-                                sendEvent(emitter, new StreamEvents.ResponseEndEvent());
-                            }
-                        }
-
-                    } catch (Exception e) {
-                        log.error("Error processing streaming event", e);
-                        try {
-                            sendEvent(emitter, new StreamEvents.ErrorEvent(
-                                    e.getMessage(),
-                                    "STREAM_ERROR"
-                            ));
-                        } catch (IOException ioException) {
-                            log.error("Failed to send error event", ioException);
-                        }
-                    }
-                });
+            @Override
+            public int send(StreamEvents.StreamEvent event) throws IOException {
+                byte[] frame = encoder.encode(event);
+                resumable.write(frame);
+                return frame.length;
+            }
 
-                // Stream completed
-                if (thinkingPhaseSent.get()) {
-                    sendEvent(emitter, new StreamEvents.ThinkingEndEvent());
+            @Override
+            public void started() {
+                if (!question.isEmpty()) {
+                    streamRegistry.share(question, resumable);
                 }
-                if (responsePhaseStarted.get() && !responseCompleteSent.get()) {
-                    sendEvent(emitter, new StreamEvents.ResponseEndEvent());
+            }
+
+            @Override
+            public void ending() {
+                Set<String> joined = streamRegistry.unshare(question, resumable);
+                if (!joined.isEmpty()) {
+                    followers = joined;
                 }
+            }
 
-                sendEvent(emitter, new StreamEvents.CompleteEvent());
-                emitter.complete();
-
-            } catch (Exception e) {
-                log.error("Error in stream processing", e);
-                try {
-                    sendEvent(emitter, new StreamEvents.ErrorEvent(
-                            e.getMessage(),
-                            "PROCESSING_ERROR"
-                    ));
-                    emitter.completeWithError(e);
-                } catch (IOException ioException) {
-                    log.error("Failed to send error and complete", ioException);
+            @Override
+            public void ended(String response, Throwable error) {
+                if (error != null) {
+                    resumable.completeWithError(error);
+                    return;
+                }
+                resumable.complete();
+                if (response != null) {
+                    appendFollowerTurns(followers, message, response);
                 }
             }
-        });
+        };
+
+        Thread worker = Thread.ofVirtual().unstarted(() -> run.run(transport, cached, recording));
+        run.bindWorker(worker);
+        worker.start();
 
         return emitter;
     }
 
-    /**
-     * Send event to SSE emitter
-     */
-    private void sendEvent(SseEmitter emitter, StreamEvents.StreamEvent event) throws IOException {
-        String json = objectMapper.writeValueAsString(event);
+    private Flux<ServerSentEvent<String>> streamChatReactive(String sessionId, String message) {
+        return Flux.defer(() -> {
+            boolean firstTurn = !agentService.hasSession(sessionId);
+            List<StreamEvents.StreamEvent> cached = firstTurn ? responseCache.lookup(message) : null;
+            if (cached != null) {
+                return replay(sessionId, message, cached);
+            }
+            ChatResponseCache.Recording recording = firstTurn ? responseCache.record(message) : null;
+            List<StreamEvents.StreamEvent> similar = responseCache.lookupSimilar(recording);
+            if (similar != null) {
+                return replay(sessionId, message, similar);
+            }
 
-        // Build SSE event with name and data
-        SseEmitter.SseEventBuilder builder = SseEmitter.event()
-                .name(event.getType())
-                .data(json);
+            long startNanos = System.nanoTime();
+            AgentEventTranslator translator = new AgentEventTranslator();
+            // onErrorResume ends a failed stream normally: only clean runs count as completed
+            AtomicBoolean failed = new AtomicBoolean();
 
-        emitter.send(builder);
+            Flux<StreamEvents.StreamEvent> events = Flux.from(agentService.processMessageStream(sessionId, message))
+                    .concatMapIterable(event -> {
+                        try {
+                            return translator.translate(event);
+                        } catch (Exception e) {
+                            log.error("Error processing streaming event", e);
+                            return List.of(new StreamEvents.ErrorEvent(e.getMessage(), "STREAM_ERROR"));
+                        }
+                    }, 1);
+
+            // Cancelling the Flux (client disconnect) disposes the agent Flowable
+            return Flux.<StreamEvents.StreamEvent>just(new StreamEvents.SessionStartEvent(sessionId))
+                    .concatWith(events)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(finishEvents(translator))))
+                    .onErrorResume(e -> {
+                        failed.set(true);
+                        streamMetrics.streamFailed();
+                        log.error("Error in reactive stream processing", e);
+                        return Flux.just(new StreamEvents.ErrorEvent(e.getMessage(), "PROCESSING_ERROR"));
+                    })
+                    .doOnNext(event -> {
+                        if (recording != null) {
+                            recording.add(event);
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if (failed.get()) {
+                            return;
+                        }
+                        streamMetrics.streamCompleted(translator.outputChars());
+                        recordLatency(translator, startNanos);
+                        if (recording != null) {
+                            recording.commit();
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        long saved = streamMetrics.streamCancelled(translator.outputChars());
+                        log.info("Cancelled reactive agent run for session: {} (~{} tokens saved)", sessionId, saved);
+                    });
+        })
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(this::toServerSentEvent);
     }
 
     /**
-     * Extract text content from event
+     * Attach a reconnecting client (Last-Event-ID) to the session's run
+     *
+     * @return Emitter continuing after that event, or null to start a new run
      */
-    private String extractTextContent(Event event) {
-        return event.content()
-                .map(content -> {
-                    String text = content.text();
-                    return text != null && !text.isBlank() ? text : null;
-                })
-                .orElse(null);
+    private SseFrameEmitter resumeStream(String sessionId, String lastEventId, boolean gzip) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        long lastId;
+        try {
+            lastId = Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        SseFrameEmitter emitter = newEmitter(gzip);
+        BufferedClient client = outbound(emitter);
+        ResumableStream stream = streamRegistry.resume(sessionId, lastId, client);
+        if (stream == null) {
+            log.debug("Nothing to resume for session: {} after event {}", sessionId, lastId);
+            return null;
+        }
+        emitter.onError(ex -> stream.detach(client));
+        emitter.onCompletion(() -> stream.detach(client));
+        emitter.onTimeout(() -> stream.detach(client));
+        log.info("Resumed stream for session: {} after event {}", sessionId, lastId);
+        return emitter;
     }
 
     /**
-     * Calculate delta from last emitted content
+     * Follow the in-flight run of an identical first-turn question
+     *
+     * The client gets its own session_start, then the run's frames so far and
+     * the rest live. It does not need an admission slot of its own.
+     *
+     * @return Emitter following that run, or null if none is in flight
      */
-    private String diffFromLast(StringBuilder emitted, String content) {
-        if (content == null || content.isEmpty()) {
-            return "";
+    private SseFrameEmitter joinSharedRun(String question, String sessionId, boolean gzip) {
+        SseFrameEmitter emitter = newEmitter(gzip);
+        byte[] sessionStart;
+        try {
+            sessionStart = new SseEventEncoder().encode(new StreamEvents.SessionStartEvent(sessionId));
+        } catch (IOException e) {
+            return null;
         }
 
-        String previous = emitted.toString();
-        if (previous.isEmpty()) {
-            emitted.append(content);
-            return content;
+        BufferedClient client = outbound(emitter);
+        ResumableStream stream = streamRegistry.join(question, sessionId, client, sessionStart);
+        if (stream == null) {
+            return null;
         }
-
-        if (content.startsWith(previous)) {
-            String delta = content.substring(previous.length());
-            if (!delta.isEmpty()) {
-                emitted.append(delta);
-            }
-            return delta;
+        emitter.onError(ex -> stream.detach(client));
+        emitter.onCompletion(() -> stream.detach(client));
+        emitter.onTimeout(() -> stream.detach(client));
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(ChatAdmissionFilter.PERMIT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                instanceof ChatAdmissionController.Permit permit) {
+            permit.release();
         }
+        log.info("Session {} joined the in-flight run of an identical question", sessionId);
+        return emitter;
+    }
 
-        // Handle non-cumulative chunks
-        int commonPrefix = 0;
-        int maxLen = Math.min(previous.length(), content.length());
-        while (commonPrefix < maxLen && previous.charAt(commonPrefix) == content.charAt(commonPrefix)) {
-            commonPrefix++;
+    /**
+     * Emitter for one connection: open for the longest run plus the time a
+     * dropped client has to reconnect (the watchdog ends runs before that)
+     */
+    private SseFrameEmitter newEmitter(boolean gzip) {
+        long maxDurationMs = streamProperties.getMaxDurationMs();
+        return new SseFrameEmitter(maxDurationMs > 0
+                ? maxDurationMs + streamProperties.getResumeGraceMs()
+                : 30 * 60 * 1000L, gzip);
+    }
+
+    /**
+     * Gzip the stream if enabled and the client accepts it
+     */
+    private boolean compress(String acceptEncoding) {
+        return streamProperties.isCompressionEnabled() && GzipFrameClient.accepts(acceptEncoding);
+    }
+
+    /**
+     * Connection as a frame client: frames of a compressed emitter go
+     * through one gzip stream
+     */
+    private ResumableStream.Client encoded(SseFrameEmitter emitter) {
+        if (!emitter.isCompressed()) {
+            return emitter;
         }
+        return new GzipFrameClient(emitter, streamProperties.getCompressionLevel(), streamMetrics::recordCompression);
+    }
 
-        String actualDelta;
-        if (commonPrefix > 0) {
-            actualDelta = content.substring(commonPrefix);
-            emitted.setLength(0);
-            emitted.append(content);
-        } else {
-            actualDelta = content;
-            emitted.setLength(0);
-            emitted.append(content);
+    /**
+     * Bounded outbound queue for one connection, so a slow reader cannot
+     * stall the run it follows or pin its frames in memory
+     */
+    private BufferedClient outbound(SseFrameEmitter emitter) {
+        return new BufferedClient(
+                encoded(emitter),
+                streamProperties.getOutboundMaxBytes(),
+                streamProperties.isOutboundCoalesce(),
+                streamProperties.getOutboundStallTimeoutMs(),
+                streamMetrics::slowClientDropped);
+    }
+
+    /**
+     * Give sessions that followed a shared run the turn in their history
+     */
+    private void appendFollowerTurns(Set<String> followers, String message, String response) {
+        for (String follower : followers) {
+            agentService.appendTurn(follower, message, response);
         }
+    }
 
-        return actualDelta;
+    /**
+     * Reactive answer from a recorded stream; the turn is added to the
+     * session so follow-up questions keep their context
+     */
+    private Flux<StreamEvents.StreamEvent> replay(String sessionId, String message, List<StreamEvents.StreamEvent> events) {
+        agentService.appendTurn(sessionId, message, ChatResponseCache.responseText(events));
+        return Flux.<StreamEvents.StreamEvent>just(new StreamEvents.SessionStartEvent(sessionId))
+                .concatWith(Flux.fromIterable(events));
     }
 
     /**
-     * Truncate tool result
+     * Completed reactive streams drive the adaptive concurrency limit
      */
-    private String truncateResult(String result) {
-        if (result == null) return "";
-        int maxLen = 1000;
-        if (result.length() <= maxLen) return result;
-        return result.substring(0, maxLen) + "... (truncated)";
+    private void recordLatency(AgentEventTranslator translator, long startNanos) {
+        long firstOutput = translator.firstOutputNanos();
+        long ttftMs = firstOutput != 0 ? (firstOutput - startNanos) / 1_000_000 : -1;
+        admissionController.recordLatency(ttftMs, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private List<StreamEvents.StreamEvent> finishEvents(AgentEventTranslator translator) {
+        try {
+            return translator.finish();
+        } catch (IOException e) {
+            return List.of(new StreamEvents.ErrorEvent(e.getMessage(), "PROCESSING_ERROR"));
+        }
+    }
+
+    private ServerSentEvent<String> toServerSentEvent(StreamEvents.StreamEvent event) {
+        try {
+            return ServerSentEvent.<String>builder()
+                    .event(event.getType())
+                    .data(objectMapper.writeValueAsString(event))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + event.getType(), e);
+        }
     }
 
     /**
@@ -323,20 +455,6 @@ public class ChatController {
         return message.substring(0, 500);
     }
 
-    /**
-     * Track tool call state
-     */
-    private static class ToolCallState {
-        final String toolId;
-        final String toolName;
-        boolean completed = false;
-
-        ToolCallState(String toolId, String toolName) {
-            this.toolId = toolId;
-            this.toolName = toolName;
-        }
-    }
-
     public static class ChatRequest {
         private String sessionId;
         private String message;
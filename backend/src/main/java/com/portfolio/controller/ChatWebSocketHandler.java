@@ -0,0 +1,300 @@
+package com.portfolio.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.portfolio.config.ChatStreamProperties;
+import com.portfolio.model.StreamEvents;
+import com.portfolio.service.AgentService;
+import com.portfolio.service.RateLimitService;
+import com.portfolio.stream.BufferedClient;
+import com.portfolio.stream.ChatAdmissionController;
+import com.portfolio.stream.ChatResponseCache;
+import com.portfolio.stream.ChatStreamMetrics;
+import com.portfolio.stream.ChatStreamRunner;
+import com.portfolio.stream.ResumableStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chat WebSocket handler - Many chat streams over one connection
+ *
+ * Client messages (JSON text frames):
+ * - {"type":"chat","stream_id":"q1","session_id":"...","message":"..."}
+ * - {"type":"cancel","stream_id":"q1"}
+ *
+ * Every StreamEvents event goes out as {"stream_id":"q1","event":{...}}, with
+ * the same event JSON as the SSE data lines. Streams of one connection run
+ * concurrently (up to ws-max-streams) and are told apart by stream_id; each
+ * may use any session, so one connection serves a whole conversation.
+ *
+ * Each stream takes an admission slot and then runs through ChatStreamRunner
+ * like /chat/stream: first-turn response cache, delta coalescing, watchdog
+ * deadlines, cancellation. A stream ends when the connection closes; there is
+ * no Last-Event-ID resume.
+ * Sends share one BufferedClient per connection: streams and the flush
+ * scheduler only enqueue, a virtual thread does the socket writes, and a
+ * connection that falls too far behind is closed.
+ */
+@Component
+public class ChatWebSocketHandler extends TextWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatWebSocketHandler.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int MAX_MESSAGE_LENGTH = 500;
+
+    private final AgentService agentService;
+    private final RateLimitService rateLimitService;
+    private final ChatStreamProperties streamProperties;
+    private final ChatStreamRunner streamRunner;
+    private final ChatStreamMetrics streamMetrics;
+    private final ChatAdmissionController admissionController;
+    private final ChatResponseCache responseCache;
+
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+
+    public ChatWebSocketHandler(
+            AgentService agentService,
+            RateLimitService rateLimitService,
+            ChatStreamProperties streamProperties,
+            ChatStreamRunner streamRunner,
+            ChatStreamMetrics streamMetrics,
+            ChatAdmissionController admissionController,
+            ChatResponseCache responseCache) {
+        this.agentService = agentService;
+        this.rateLimitService = rateLimitService;
+        this.streamProperties = streamProperties;
+        this.streamRunner = streamRunner;
+        this.streamMetrics = streamMetrics;
+        this.admissionController = admissionController;
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * One WebSocket connection and its running streams
+     */
+    private static final class Connection {
+        final String id;
+        final String clientIp;
+        final BufferedClient outbound;
+        final Map<String, ChatStreamRunner.Run> streams = new ConcurrentHashMap<>();
+
+        Connection(String id, String clientIp, BufferedClient outbound) {
+            this.id = id;
+            this.clientIp = clientIp;
+            this.outbound = outbound;
+        }
+
+        /**
+         * Queue one event for the writer
+         *
+         * @return Bytes queued
+         */
+        int send(String streamId, StreamEvents.StreamEvent event) throws IOException {
+            ObjectNode envelope = OBJECT_MAPPER.createObjectNode();
+            envelope.put("stream_id", streamId);
+            envelope.set("event", OBJECT_MAPPER.valueToTree(event));
+            byte[] frame = OBJECT_MAPPER.writeValueAsBytes(envelope);
+            outbound.sendFrame(frame);
+            return frame.length;
+        }
+
+        void sendError(String streamId, String message, String code) {
+            try {
+                send(streamId, new StreamEvents.ErrorEvent(message, code));
+            } catch (IOException e) {
+                log.debug("Failed to send error to WebSocket {}: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        // Frames of concurrent streams are queued (bounded) and written by one
+        // writer thread, one text message each
+        BufferedClient outbound = new BufferedClient(
+                messages(session),
+                streamProperties.getOutboundMaxBytes(),
+                false,
+                streamProperties.getOutboundStallTimeoutMs(),
+                streamMetrics::slowClientDropped);
+        connections.put(session.getId(), new Connection(session.getId(), clientIp(session), outbound));
+        log.debug("WebSocket connected: {}", session.getId());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage textMessage) {
+        Connection connection = connections.get(session.getId());
+        if (connection == null) {
+            return;
+        }
+
+        JsonNode request;
+        try {
+            request = OBJECT_MAPPER.readTree(textMessage.getPayload());
+        } catch (IOException e) {
+            connection.sendError(null, "Invalid JSON", "BAD_REQUEST");
+            return;
+        }
+        String type = request.path("type").asText("");
+        String streamId = request.path("stream_id").asText("");
+        if (streamId.isBlank()) {
+            connection.sendError(null, "stream_id is required", "BAD_REQUEST");
+            return;
+        }
+
+        switch (type) {
+            case "chat" -> startStream(connection, streamId, request);
+            case "cancel" -> {
+                ChatStreamRunner.Run run = connection.streams.get(streamId);
+                if (run != null && run.cancel()) {
+                    log.info("WebSocket stream {} cancelled by client", streamId);
+                }
+            }
+            default -> connection.sendError(streamId, "Unknown message type: " + type, "BAD_REQUEST");
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Connection connection = connections.remove(session.getId());
+        if (connection == null) {
+            return;
+        }
+        // Nobody left to read the answers: stop the agent runs
+        connection.streams.values().forEach(ChatStreamRunner.Run::cancel);
+        log.debug("WebSocket closed: {} ({})", session.getId(), status);
+    }
+
+    private void startStream(Connection connection, String streamId, JsonNode request) {
+        String message = truncateMessage(request.path("message").asText(""));
+        if (message.isBlank()) {
+            connection.sendError(streamId, "message is required", "BAD_REQUEST");
+            return;
+        }
+        String sessionId = request.path("session_id").asText("");
+        if (sessionId.isBlank()) {
+            sessionId = "session-" + System.currentTimeMillis();
+        }
+        if (!rateLimitService.allowRequest(connection.clientIp)) {
+            connection.sendError(streamId, "Rate limit exceeded. Please try again later.", "RATE_LIMITED");
+            return;
+        }
+        if (connection.streams.size() >= streamProperties.getWsMaxStreams()) {
+            connection.sendError(streamId, "Too many concurrent streams on this connection", "TOO_MANY_STREAMS");
+            return;
+        }
+
+        ChatStreamRunner.Run run = streamRunner.open(sessionId, message);
+        if (connection.streams.putIfAbsent(streamId, run) != null) {
+            connection.sendError(streamId, "stream_id already in use", "DUPLICATE_STREAM");
+            return;
+        }
+
+        String resolvedSessionId = sessionId;
+        Thread worker = Thread.ofVirtual().unstarted(() -> {
+            try {
+                runStream(connection, streamId, resolvedSessionId, message, run);
+            } finally {
+                connection.streams.remove(streamId, run);
+            }
+        });
+        run.bindWorker(worker);
+        worker.start();
+    }
+
+    /**
+     * One question, on its own virtual thread
+     */
+    private void runStream(
+            Connection connection,
+            String streamId,
+            String sessionId,
+            String message,
+            ChatStreamRunner.Run run) {
+        ChatAdmissionController.Permit permit;
+        try {
+            permit = admissionController.acquire();
+        } catch (InterruptedException e) {
+            return;
+        }
+        if (permit == null) {
+            connection.sendError(streamId, "Server busy. Please try again later.", "OVERLOADED");
+            return;
+        }
+
+        try {
+            boolean firstTurn = !agentService.hasSession(sessionId);
+            List<StreamEvents.StreamEvent> cached = firstTurn ? responseCache.lookup(message) : null;
+            ChatResponseCache.Recording recording = firstTurn && cached == null ? responseCache.record(message) : null;
+            run.run(event -> connection.send(streamId, event), cached, recording);
+        } finally {
+            permit.release();
+        }
+    }
+
+    /**
+     * WebSocket session as a frame client: one text message per frame
+     */
+    private static ResumableStream.Client messages(WebSocketSession session) {
+        return new ResumableStream.Client() {
+            @Override
+            public void sendFrame(byte[] frame) throws IOException {
+                session.sendMessage(new TextMessage(frame));
+            }
+
+            @Override
+            public void complete() {
+                close(session, CloseStatus.NORMAL);
+            }
+
+            @Override
+            public void completeWithError(Throwable ex) {
+                close(session, CloseStatus.SESSION_NOT_RELIABLE);
+            }
+        };
+    }
+
+    private static void close(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            log.debug("Failed to close WebSocket {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Client IP for rate limiting (same rules as RateLimitFilter)
+     */
+    private static String clientIp(WebSocketSession session) {
+        String forwarded = session.getHandshakeHeaders().getFirst("X-Forwarded-For");
+        if (forwarded != null && !forwarded.isEmpty()) {
+            return forwarded.split(",")[0].trim();
+        }
+        String realIp = session.getHandshakeHeaders().getFirst("X-Real-IP");
+        if (realIp != null && !realIp.isEmpty()) {
+            return realIp.split(",")[0].trim();
+        }
+        InetSocketAddress remote = session.getRemoteAddress();
+        return remote != null ? remote.getAddress().getHostAddress() : "unknown";
+    }
+
+    private static String truncateMessage(String message) {
+        if (message.length() <= MAX_MESSAGE_LENGTH) {
+            return message;
+        }
+        log.warn("Message truncated from {} to {} characters", message.length(), MAX_MESSAGE_LENGTH);
+        return message.substring(0, MAX_MESSAGE_LENGTH);
+    }
+}
@@ -1,23 +1,42 @@
 package com.portfolio.controller;
 
+import com.portfolio.model.SyncJob;
+import com.portfolio.service.EmbeddingSnapshot;
+import com.portfolio.service.ProfileSyncService;
+import com.portfolio.service.SyncJobService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 
 /**
- * Profile RAG Health Check Controller
+ * Profile RAG Controller
  *
- * Profile sync now happens automatically on backend startup via RagConfig.
- * This controller only provides health check endpoint for monitoring.
+ * Profile sync happens automatically on backend startup via RagConfig.
+ * Resyncs can be triggered at runtime as background jobs (key-protected).
  */
 @RestController
 @RequestMapping("/rag")
 public class RagSyncController {
 
     private static final Logger log = LoggerFactory.getLogger(RagSyncController.class);
+    private static final String SYNC_KEY_HEADER = "X-RAG-Sync-Key";
+
+    private final ProfileSyncService profileSyncService;
+    private final SyncJobService syncJobService;
+
+    public RagSyncController(ProfileSyncService profileSyncService, SyncJobService syncJobService) {
+        this.profileSyncService = profileSyncService;
+        this.syncJobService = syncJobService;
+    }
 
     /**
      * GET /api/rag/health
@@ -33,4 +52,112 @@ public class RagSyncController {
                 "dimensions", 3072,
                 "synced", "startup"));
     }
+
+    /**
+     * POST /api/rag/sync
+     *
+     * Submit a background sync job. Body is an optional profile.json;
+     * when empty the classpath copy is re-synced.
+     * Returns 202 with the job id, or 409 if a sync is already running.
+     */
+    @PostMapping("/sync")
+    public ResponseEntity<Map<String, Object>> submitSync(
+            @RequestHeader(value = SYNC_KEY_HEADER, required = false) String syncKey,
+            @RequestBody(required = false) String profileJson) {
+        if (!profileSyncService.validateSyncKey(syncKey)) {
+            log.warn("Rejected sync request with invalid key");
+            return unauthorized();
+        }
+
+        Optional<SyncJob> submitted = syncJobService.submit(profileJson);
+        if (submitted.isEmpty()) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("error", "Sync already running");
+            syncJobService.getActiveJob().ifPresent(job -> body.put("job_id", job.getId()));
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+        }
+
+        SyncJob job = submitted.get();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("job_id", job.getId());
+        body.put("status", job.getStatus().name().toLowerCase());
+        body.put("status_url", "/rag/sync/" + job.getId());
+        return ResponseEntity.accepted().body(body);
+    }
+
+    /**
+     * GET /api/rag/sync/{jobId}
+     *
+     * Poll job status with per-stage timings (parse, chunk, embed, store) and throughput
+     */
+    @GetMapping("/sync/{jobId}")
+    public ResponseEntity<Map<String, Object>> getSyncJob(
+            @RequestHeader(value = SYNC_KEY_HEADER, required = false) String syncKey,
+            @PathVariable String jobId) {
+        if (!profileSyncService.validateSyncKey(syncKey)) {
+            return unauthorized();
+        }
+
+        return syncJobService.getJob(jobId)
+                .map(job -> ResponseEntity.ok(job.toMap()))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "Unknown job id", "job_id", jobId)));
+    }
+
+    /**
+     * GET /api/rag/sync
+     *
+     * Recent sync jobs, newest first
+     */
+    @GetMapping("/sync")
+    public ResponseEntity<Map<String, Object>> listSyncJobs(
+            @RequestHeader(value = SYNC_KEY_HEADER, required = false) String syncKey) {
+        if (!profileSyncService.validateSyncKey(syncKey)) {
+            return unauthorized();
+        }
+
+        return ResponseEntity.ok(Map.of(
+                "jobs", syncJobService.recentJobs().stream().map(SyncJob::toMap).toList()));
+    }
+
+    /**
+     * POST /api/rag/snapshot
+     *
+     * Export all profile chunk texts and vectors as a binary embedding snapshot.
+     * Save the response as src/main/resources/profile-embeddings.bin (next to
+     * profile.json) so startup can skip the embedding API for unchanged chunks.
+     */
+    @PostMapping("/snapshot")
+    public ResponseEntity<byte[]> exportSnapshot(
+            @RequestHeader(value = SYNC_KEY_HEADER, required = false) String syncKey,
+            @RequestBody(required = false) String profileJson) {
+        if (!profileSyncService.validateSyncKey(syncKey)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            String json = profileJson != null && !profileJson.isBlank()
+                    ? profileJson
+                    : profileSyncService.loadProfileFromResources();
+            EmbeddingSnapshot snapshot = profileSyncService.exportSnapshot(json);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            snapshot.write(out);
+            log.info("Exported embedding snapshot: {} chunks, {} bytes", snapshot.entries().size(), out.size());
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"" + EmbeddingSnapshot.RESOURCE_NAME + "\"")
+                    .body(out.toByteArray());
+        } catch (Exception e) {
+            log.error("Failed to export embedding snapshot", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> unauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("error", "Invalid or missing " + SYNC_KEY_HEADER));
+    }
 }
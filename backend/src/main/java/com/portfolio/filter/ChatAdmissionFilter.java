@@ -0,0 +1,101 @@
+package com.portfolio.filter;
+
+import com.portfolio.config.ChatStreamProperties;
+import com.portfolio.stream.ChatAdmissionController;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+
+/**
+ * Admission filter for chat streams (/api/v1/chat/stream*)
+ * Holds a ChatAdmissionController slot for the whole (async) stream and
+ * answers 503 with Retry-After when no slot frees up in time.
+ * The permit is exposed as a request attribute so handlers that turn out not
+ * to need a slot (clients joining another run) can release it early.
+ */
+@Component
+public class ChatAdmissionFilter implements Filter {
+    private static final Logger log = LoggerFactory.getLogger(ChatAdmissionFilter.class);
+    private static final String STREAM_PATH_PREFIX = "/api/v1/chat/stream";
+    public static final String PERMIT_ATTRIBUTE = ChatAdmissionFilter.class.getName() + ".permit";
+
+    private final ChatAdmissionController admissionController;
+    private final ChatStreamProperties properties;
+
+    public ChatAdmissionFilter(ChatAdmissionController admissionController, ChatStreamProperties properties) {
+        this.admissionController = admissionController;
+        this.properties = properties;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest req = (HttpServletRequest) request;
+        HttpServletResponse res = (HttpServletResponse) response;
+
+        if (!req.getRequestURI().startsWith(STREAM_PATH_PREFIX)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ChatAdmissionController.Permit permit;
+        try {
+            permit = admissionController.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permit = null;
+        }
+
+        if (permit == null) {
+            log.warn("Chat stream rejected: {} active, {} queued", admissionController.active(), admissionController.queued());
+            res.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            res.setHeader("Retry-After", String.valueOf(properties.getRetryAfterSeconds()));
+            res.setContentType("application/json");
+            res.getWriter().write("{\"error\":\"Server busy\",\"message\":\"Too many conversations in progress. Please try again shortly.\"}");
+            return;
+        }
+
+        req.setAttribute(PERMIT_ATTRIBUTE, permit);
+        boolean releaseNow = true;
+        try {
+            chain.doFilter(request, response);
+
+            // Streaming responses finish after this thread returns
+            if (req.isAsyncStarted()) {
+                req.getAsyncContext().addListener(new ReleaseOnCompleteListener(permit));
+                releaseNow = false;
+            }
+        } finally {
+            if (releaseNow) {
+                permit.release();
+            }
+        }
+    }
+
+    private record ReleaseOnCompleteListener(ChatAdmissionController.Permit permit) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Re-register for the next async cycle, if any
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.portfolio.model;
+
+/**
+ * Published after the RAG vector store content changed
+ *
+ * @param scope Path prefix that changed (e.g. "github/my-repo/"), or "profile"
+ *              for a full profile.json sync
+ * @param chunks Chunks stored or deleted
+ */
+public record ProfileSyncedEvent(String scope, int chunks) {
+}
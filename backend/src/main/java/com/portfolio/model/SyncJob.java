@@ -0,0 +1,79 @@
+package com.portfolio.model;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Asynchronous profile sync job submitted via POST /rag/sync
+ */
+public class SyncJob {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private final String id;
+    private final String source;
+    private final Instant submittedAt;
+    private final SyncMetrics metrics = new SyncMetrics();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public SyncJob(String source) {
+        this.id = UUID.randomUUID().toString();
+        this.source = source;
+        this.submittedAt = Instant.now();
+    }
+
+    public void markRunning() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    public void markSucceeded() {
+        finishedAt = Instant.now();
+        status = Status.SUCCEEDED;
+    }
+
+    public void markFailed(String error) {
+        this.error = error;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public SyncMetrics getMetrics() {
+        return metrics;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("job_id", id);
+        map.put("status", status.name().toLowerCase());
+        map.put("source", source);
+        map.put("submitted_at", submittedAt.toString());
+        map.put("started_at", startedAt != null ? startedAt.toString() : null);
+        map.put("finished_at", finishedAt != null ? finishedAt.toString() : null);
+        map.put("metrics", metrics.toMap());
+        if (error != null) {
+            map.put("error", error);
+        }
+        return map;
+    }
+}
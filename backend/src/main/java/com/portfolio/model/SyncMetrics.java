@@ -0,0 +1,114 @@
+package com.portfolio.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage timings and counters for a profile sync run
+ * Written by the sync thread, read concurrently by status polling
+ */
+public class SyncMetrics {
+
+    public enum Stage {
+        PARSE, CHUNK, EMBED, STORE
+    }
+
+    private final Map<Stage, Long> stageMillis = new LinkedHashMap<>();
+    private volatile Stage currentStage;
+    private volatile int documents;
+    private volatile int chunks;
+    private volatile int snapshotHits;
+    private volatile int embedded;
+    private volatile int stored;
+
+    /**
+     * Mark the start of a stage
+     *
+     * @return start timestamp to pass to {@link #endStage(Stage, long)}
+     */
+    public long startStage(Stage stage) {
+        currentStage = stage;
+        return System.nanoTime();
+    }
+
+    public void endStage(Stage stage, long startNanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        synchronized (stageMillis) {
+            stageMillis.put(stage, millis);
+        }
+        currentStage = null;
+    }
+
+    public void setDocuments(int documents) {
+        this.documents = documents;
+    }
+
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+
+    public void setSnapshotHits(int snapshotHits) {
+        this.snapshotHits = snapshotHits;
+    }
+
+    public void setEmbedded(int embedded) {
+        this.embedded = embedded;
+    }
+
+    public void setStored(int stored) {
+        this.stored = stored;
+    }
+
+    public int getSnapshotHits() {
+        return snapshotHits;
+    }
+
+    public int getStored() {
+        return stored;
+    }
+
+    public Stage getCurrentStage() {
+        return currentStage;
+    }
+
+    public long getStageMillis(Stage stage) {
+        synchronized (stageMillis) {
+            return stageMillis.getOrDefault(stage, 0L);
+        }
+    }
+
+    public long getTotalMillis() {
+        synchronized (stageMillis) {
+            return stageMillis.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> stages = new LinkedHashMap<>();
+        synchronized (stageMillis) {
+            stageMillis.forEach((stage, ms) -> stages.put(stage.name().toLowerCase(), ms));
+        }
+
+        long embedMs = getStageMillis(Stage.EMBED);
+        long totalMs = getTotalMillis();
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("current_stage", currentStage != null ? currentStage.name().toLowerCase() : null);
+        map.put("stage_ms", stages);
+        map.put("total_ms", totalMs);
+        map.put("documents", documents);
+        map.put("chunks", chunks);
+        map.put("snapshot_hits", snapshotHits);
+        map.put("embedded", embedded);
+        map.put("stored", stored);
+        map.put("embed_chunks_per_sec", perSecond(embedded, embedMs));
+        map.put("chunks_per_sec", perSecond(stored, totalMs));
+        return map;
+    }
+
+    private static double perSecond(int count, long millis) {
+        if (millis <= 0) return 0.0;
+        return Math.round(count * 100_000.0 / millis) / 100.0;
+    }
+}
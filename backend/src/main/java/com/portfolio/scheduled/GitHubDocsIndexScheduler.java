@@ -0,0 +1,47 @@
+package com.portfolio.scheduled;
+
+import com.portfolio.service.GitHubDocsIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled task for indexing GitHub READMEs and docs into the vector store
+ * Runs shortly after startup, then every 6 hours by default
+ */
+@Component
+public class GitHubDocsIndexScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(GitHubDocsIndexScheduler.class);
+
+    private final GitHubDocsIndexService gitHubDocsIndexService;
+
+    public GitHubDocsIndexScheduler(GitHubDocsIndexService gitHubDocsIndexService) {
+        this.gitHubDocsIndexService = gitHubDocsIndexService;
+    }
+
+    /**
+     * Refresh repos whose pushed_at changed since the last run
+     */
+    @Scheduled(
+            initialDelayString = "${github.index.initial-delay-ms:120000}",
+            fixedDelayString = "${github.index.refresh-interval-ms:21600000}")
+    public void refreshGitHubDocs() {
+        if (!gitHubDocsIndexService.isEnabled()) {
+            return;
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            int refreshed = gitHubDocsIndexService.refresh();
+            log.info("GitHub docs index refresh completed: {} repos re-indexed in {} ms",
+                    refreshed, System.currentTimeMillis() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("GitHub docs index refresh interrupted");
+        } catch (Exception e) {
+            log.error("Failed to refresh GitHub docs index", e);
+        }
+    }
+}
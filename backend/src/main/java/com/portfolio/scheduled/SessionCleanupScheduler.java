@@ -0,0 +1,58 @@
+package com.portfolio.scheduled;
+
+import com.portfolio.config.SessionStoreProperties;
+import com.portfolio.service.AgentService;
+import com.portfolio.service.PostgresSessionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Scheduled task for deleting durable chat sessions past their retention
+ * Runs daily at 3 AM
+ */
+@Component
+public class SessionCleanupScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionCleanupScheduler.class);
+
+    private final PostgresSessionService sessionService;
+    private final AgentService agentService;
+    private final SessionStoreProperties properties;
+
+    public SessionCleanupScheduler(
+        PostgresSessionService sessionService,
+        AgentService agentService,
+        SessionStoreProperties properties
+    ) {
+        this.sessionService = sessionService;
+        this.agentService = agentService;
+        this.properties = properties;
+    }
+
+    /**
+     * Cleanup sessions unused for longer than the retention
+     * Cron expression: seconds minutes hours day month weekday
+     */
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void cleanupOldSessions() {
+        if (!properties.isDurable()) {
+            return;
+        }
+
+        try {
+            int retentionDays = properties.getRetentionDays();
+            List<String> deleted = sessionService.deleteSessionsOlderThan(retentionDays);
+            // Sessions this instance still holds would point the runner at missing rows
+            agentService.forgetSessions(deleted);
+            log.info("Chat session cleanup completed. Deleted {} sessions unused for {} days",
+                deleted.size(), retentionDays);
+
+        } catch (Exception e) {
+            log.error("Failed to cleanup old chat sessions", e);
+        }
+    }
+}
@@ -1,46 +1,274 @@
 package com.portfolio.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.google.adk.agents.BaseAgent;
 import com.google.adk.agents.RunConfig;
+import com.google.adk.artifacts.InMemoryArtifactService;
 import com.google.adk.events.Event;
-import com.google.adk.runner.InMemoryRunner;
+import com.google.adk.runner.Runner;
+import com.google.adk.sessions.BaseSessionService;
+import com.google.adk.sessions.InMemorySessionService;
 import com.google.adk.sessions.Session;
 import com.google.genai.types.Content;
 import com.google.genai.types.Part;
 import com.portfolio.agent.PortfolioAgents;
+import com.portfolio.config.SessionStoreProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.reactivex.rxjava3.core.Flowable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Agent Service - Runs the ADK agent for chat sessions
+ *
+ * Sessions (and the history the runner keeps for them) are bounded by
+ * chat.sessions.max-sessions and expire after idle-timeout-minutes without a
+ * message; an evicted session is also deleted from the runner's session
+ * service, so its history can be collected. A later message with the same id
+ * starts a fresh conversation.
+ *
+ * With chat.sessions.durable the runner uses PostgresSessionService instead:
+ * the bounds above only limit what this instance keeps cached, eviction keeps
+ * the stored history, and a session unknown here is loaded from the database.
+ *
+ * The runner sees the store through CompactingSessionService: beyond
+ * chat.sessions.history-token-budget, old tool results and turns are
+ * compacted in the history sent to the model (the store keeps all of it).
+ *
+ * Gauges: chat.sessions.live, chat.sessions.retained.bytes (estimated from
+ * the text, tool arguments and tool results of the stored events);
+ * counter: chat.sessions.evicted tagged by cause (size, expired, explicit).
+ */
 @Service
 public class AgentService {
 
-    private InMemoryRunner runner;
-    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(AgentService.class);
+
+    // Per-event bookkeeping (ids, author, timestamps, actions) on top of content
+    private static final int EVENT_OVERHEAD_BYTES = 512;
+
+    private Runner runner;
+    private BaseSessionService sessionStore;
+    private final Cache<String, SessionEntry> sessions;
+    private final HistoryCompactor compactor;
+    private final PostgresSessionService durableSessions;
+    private final MeterRegistry meterRegistry;
+
+    public AgentService(
+            SessionStoreProperties properties,
+            PostgresSessionService postgresSessionService,
+            MeterRegistry meterRegistry) {
+        this.durableSessions = properties.isDurable() ? postgresSessionService : null;
+        this.meterRegistry = meterRegistry;
+        this.compactor = new HistoryCompactor(
+                properties.getHistoryTokenBudget(),
+                properties.getHistoryKeepTurns(),
+                properties.getHistoryToolResultChars());
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSessions())
+                .expireAfterAccess(properties.getIdleTimeoutMinutes(), TimeUnit.MINUTES)
+                // Expire idle sessions even when no new chat touches the cache
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener((String id, SessionEntry entry, RemovalCause cause) -> onRemoval(id, entry, cause))
+                .build();
+
+        Gauge.builder("chat.sessions.live", sessions, Cache::estimatedSize)
+                .description("Chat sessions held in memory")
+                .register(meterRegistry);
+        Gauge.builder("chat.sessions.retained.bytes", this, AgentService::retainedBytes)
+                .description("Approximate heap held by chat session histories")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
 
     @PostConstruct
     public void init() {
-        runner = new InMemoryRunner(PortfolioAgents.getRootAgent());
-        System.out.println("[AgentService] InMemoryRunner initialized");
+        BaseAgent agent = PortfolioAgents.getRootAgent();
+        sessionStore = durableSessions != null ? durableSessions : new InMemorySessionService();
+        // Same app name as InMemoryRunner: the root agent's name
+        runner = Runner.builder()
+                .appName(agent.name())
+                .agent(agent)
+                .artifactService(new InMemoryArtifactService())
+                .sessionService(new CompactingSessionService(sessionStore, compactor, meterRegistry))
+                .build();
+        log.info("Runner initialized with {} sessions", durableSessions != null ? "Postgres" : "in-memory");
     }
 
 
     public Flowable<Event> processMessageStream(String sessionId, String message) {
         try {
-            Session session = sessions.computeIfAbsent(sessionId, id ->
-                    runner.sessionService().createSession(runner.appName(), id).blockingGet()
-            );
+            SessionEntry entry = session(sessionId);
+            Session session = entry.session;
 
             Content userMsg = Content.fromParts(Part.fromText(message));
             RunConfig config = RunConfig.builder()
                     .setStreamingMode(RunConfig.StreamingMode.SSE)
                     .build();
-            return runner.runAsync(session.userId(), session.id(), userMsg, config);
+            entry.retain(estimateBytes(userMsg));
+            // Partial events are not stored in the session history
+            return runner.runAsync(session.userId(), session.id(), userMsg, config)
+                    .doOnNext(event -> {
+                        if (!event.partial().orElse(false)) {
+                            entry.retain(estimateBytes(event));
+                        }
+                    });
         } catch (Exception e) {
             return Flowable.error(e);
         }
     }
 
+    /**
+     * Whether the session already has conversation history
+     */
+    public boolean hasSession(String sessionId) {
+        if (sessions.getIfPresent(sessionId) != null) {
+            return true;
+        }
+        // Another instance may have served it
+        return durableSessions != null && find(sessionId) != null;
+    }
+
+    /**
+     * Add a turn answered without running the agent (e.g. a replayed cached
+     * response) so follow-up questions in the session have its context
+     */
+    public void appendTurn(String sessionId, String message, String response) {
+        try {
+            SessionEntry entry = session(sessionId);
+            String invocationId = "replay-" + Event.generateEventId();
+            Event question = Event.builder()
+                    .id(Event.generateEventId())
+                    .invocationId(invocationId)
+                    .author("user")
+                    .content(Content.builder().role("user").parts(List.of(Part.fromText(message))).build())
+                    .build();
+            Event answer = Event.builder()
+                    .id(Event.generateEventId())
+                    .invocationId(invocationId)
+                    .author(runner.agent().name())
+                    .content(Content.builder().role("model").parts(List.of(Part.fromText(response))).build())
+                    .build();
+            // The store's current session, not the copy cached here: the
+            // in-memory store keeps the session object it is given
+            Session session = Optional.ofNullable(find(sessionId)).orElse(entry.session);
+            sessionStore.appendEvent(session, question).blockingGet();
+            sessionStore.appendEvent(session, answer).blockingGet();
+            entry.retain(estimateBytes(question) + estimateBytes(answer));
+        } catch (Exception e) {
+            log.warn("Failed to append replayed turn to session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    /**
+     * Drop sessions deleted from the durable store (retention cleanup), so
+     * the runner does not look up a row that is gone; a later message with
+     * the same id starts a fresh conversation
+     */
+    public void forgetSessions(Collection<String> sessionIds) {
+        sessions.invalidateAll(sessionIds);
+    }
+
+    private SessionEntry session(String sessionId) {
+        return sessions.get(sessionId, id -> new SessionEntry(findOrCreate(id)));
+    }
+
+    /**
+     * The client's session id is both the ADK user id and session id, so
+     * every instance resolves it to the same stored session
+     */
+    private Session findOrCreate(String sessionId) {
+        Session session = find(sessionId);
+        if (session != null) {
+            return session;
+        }
+        try {
+            return sessionStore.createSession(runner.appName(), sessionId, null, sessionId).blockingGet();
+        } catch (RuntimeException e) {
+            // Created concurrently (e.g. by another instance)
+            Session created = find(sessionId);
+            if (created == null) {
+                throw e;
+            }
+            return created;
+        }
+    }
+
+    private Session find(String sessionId) {
+        return sessionStore
+                .getSession(runner.appName(), sessionId, sessionId, Optional.empty())
+                .blockingGet();
+    }
+
+    private void onRemoval(String sessionId, SessionEntry entry, RemovalCause cause) {
+        if (entry == null || cause == RemovalCause.REPLACED) {
+            return;
+        }
+        if (durableSessions != null) {
+            // Only the local copy goes; the history stays in the database
+            durableSessions.evict(sessionId);
+        } else {
+            Session session = entry.session;
+            try {
+                sessionStore.deleteSession(runner.appName(), session.userId(), session.id()).blockingAwait();
+            } catch (Exception e) {
+                log.warn("Failed to delete evicted session {}: {}", sessionId, e.getMessage());
+            }
+        }
+        Counter.builder("chat.sessions.evicted")
+                .description("Chat sessions dropped from memory")
+                .tag("cause", cause.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private double retainedBytes() {
+        long total = 0;
+        for (SessionEntry entry : sessions.asMap().values()) {
+            total += entry.bytes.get();
+        }
+        return total;
+    }
+
+    private static long estimateBytes(Event event) {
+        return EVENT_OVERHEAD_BYTES + event.content().map(AgentService::estimateBytes).orElse(0L);
+    }
+
+    /**
+     * Two bytes per char of text, tool arguments and tool results
+     */
+    private static long estimateBytes(Content content) {
+        return 2 * HistoryCompactor.chars(content);
+    }
+
+    private static class SessionEntry {
+        final Session session;
+        final AtomicLong bytes = new AtomicLong();
+
+        SessionEntry(Session session) {
+            this.session = session;
+            // History loaded from a durable store
+            for (Event event : session.events()) {
+                bytes.addAndGet(estimateBytes(event));
+            }
+        }
+
+        void retain(long estimate) {
+            bytes.addAndGet(estimate);
+        }
+    }
+
 }
@@ -0,0 +1,133 @@
+package com.portfolio.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.adk.events.Event;
+import com.google.adk.sessions.BaseSessionService;
+import com.google.adk.sessions.GetSessionConfig;
+import com.google.adk.sessions.ListEventsResponse;
+import com.google.adk.sessions.ListSessionsResponse;
+import com.google.adk.sessions.Session;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Compacting Session Service - Hands the runner a compacted history
+ *
+ * Wraps the session store given to the ADK runner. The runner loads the
+ * session once per turn and builds the model prompt from its events, so the
+ * session returned by getSession carries the HistoryCompactor result; the
+ * store keeps the full history, and new events are appended to it as usual.
+ * A compacted history is handed over as a new Session (same id and state).
+ * Events the runner appends to it go to the store's own copy of the session:
+ * InMemorySessionService keeps the session object it is given, so passing
+ * the compacted one would replace the stored history with it.
+ *
+ * Per turn: chat.history.prompt.tokens (estimated, tagged stage=before|after)
+ * and chat.history.compacted when the history was cut.
+ */
+public class CompactingSessionService implements BaseSessionService {
+
+    private final BaseSessionService delegate;
+    private final HistoryCompactor compactor;
+    private final DistributionSummary tokensBefore;
+    private final DistributionSummary tokensAfter;
+    private final Counter compactedTurns;
+    // Compacted sessions handed to the runner (by identity, dropped after the turn)
+    private final Cache<Session, Boolean> compactedViews = Caffeine.newBuilder().weakKeys().build();
+
+    public CompactingSessionService(BaseSessionService delegate, HistoryCompactor compactor, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.compactor = compactor;
+        this.tokensBefore = promptTokens(meterRegistry, "before");
+        this.tokensAfter = promptTokens(meterRegistry, "after");
+        this.compactedTurns = Counter.builder("chat.history.compacted")
+                .description("Turns whose history was compacted to fit the token budget")
+                .register(meterRegistry);
+    }
+
+    private static DistributionSummary promptTokens(MeterRegistry meterRegistry, String stage) {
+        return DistributionSummary.builder("chat.history.prompt.tokens")
+                .description("Estimated history tokens sent to the model per turn")
+                .baseUnit("tokens")
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Maybe<Session> getSession(
+            String appName,
+            String userId,
+            String sessionId,
+            Optional<GetSessionConfig> config) {
+        return delegate.getSession(appName, userId, sessionId, config).map(this::compact);
+    }
+
+    private Session compact(Session session) {
+        HistoryCompactor.Result result = compactor.compact(session.events());
+        tokensBefore.record(result.tokensBefore());
+        tokensAfter.record(result.tokensAfter());
+        if (!result.compacted()) {
+            return session;
+        }
+        compactedTurns.increment();
+        // The runner appends this turn's events to it: mutable list
+        Session view = Session.builder(session.id())
+                .appName(session.appName())
+                .userId(session.userId())
+                .state(session.state())
+                .events(new ArrayList<>(result.events()))
+                .lastUpdateTime(session.lastUpdateTime())
+                .build();
+        compactedViews.put(view, Boolean.TRUE);
+        return view;
+    }
+
+    @Override
+    public Single<Session> createSession(
+            String appName,
+            String userId,
+            ConcurrentMap<String, Object> state,
+            String sessionId) {
+        return delegate.createSession(appName, userId, state, sessionId);
+    }
+
+    @Override
+    public Single<ListSessionsResponse> listSessions(String appName, String userId) {
+        return delegate.listSessions(appName, userId);
+    }
+
+    @Override
+    public Completable deleteSession(String appName, String userId, String sessionId) {
+        return delegate.deleteSession(appName, userId, sessionId);
+    }
+
+    @Override
+    public Single<ListEventsResponse> listEvents(String appName, String userId, String sessionId) {
+        return delegate.listEvents(appName, userId, sessionId);
+    }
+
+    @Override
+    public Single<Event> appendEvent(Session session, Event event) {
+        if (compactedViews.getIfPresent(session) == null) {
+            return delegate.appendEvent(session, event);
+        }
+        if (event.partial().orElse(false)) {
+            return BaseSessionService.super.appendEvent(session, event);
+        }
+        // Store the event on the full history, then show it to the runner's view
+        return delegate.getSession(session.appName(), session.userId(), session.id(), Optional.empty())
+                .switchIfEmpty(Single.error(() -> new IllegalStateException("Session not found: " + session.id())))
+                .flatMap(stored -> delegate.appendEvent(stored, event))
+                .flatMap(appended -> BaseSessionService.super.appendEvent(session, appended));
+    }
+}
@@ -0,0 +1,240 @@
+package com.portfolio.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.portfolio.config.EmbeddingProperties;
+import com.portfolio.service.EmbeddingRateLimiter.Priority;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Embedding Client - Shared, quota-aware access to the Gemini embedding API
+ *
+ * Both profile sync (background) and query embedding (interactive) go through
+ * this client so they draw from one token bucket sized to our quota:
+ * 1. Every request takes a token from {@link EmbeddingRateLimiter}
+ * 2. 429 and 5xx responses are retried with jittered exponential backoff
+ * 3. A 429 {@code Retry-After} is honored as given and pauses the whole
+ *    bucket, not just the caller; one beyond max-retry-after-ms fails
+ *    immediately instead of retrying before the server allows it
+ * 4. Other 4xx responses fail immediately
+ *
+ * {@link #embedBatch} sends several texts in one batchEmbedContents call,
+ * which costs a single token from the bucket.
+ */
+@Service
+public class EmbeddingClient {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddingClient.class);
+
+    public static final String EMBEDDING_MODEL = "gemini-embedding-001";
+    public static final int EMBEDDING_DIMENSIONS = 3072;
+
+    private static final String API_BASE = "https://generativelanguage.googleapis.com/v1beta/models/";
+
+    private final String apiKey;
+    private final EmbeddingProperties properties;
+    private final EmbeddingRateLimiter rateLimiter;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    public EmbeddingClient(
+            @Value("${google.api.key}") String apiKey,
+            EmbeddingProperties properties) {
+        this.apiKey = apiKey;
+        this.properties = properties;
+        this.rateLimiter = new EmbeddingRateLimiter(
+                properties.getRequestsPerMinute(),
+                properties.getBurstCapacity(),
+                properties.getInteractiveReserve());
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.objectMapper = new ObjectMapper();
+        log.info("EmbeddingClient initialized: model={}, {} req/min, burst={}, interactiveReserve={}",
+                EMBEDDING_MODEL, properties.getRequestsPerMinute(),
+                properties.getBurstCapacity(), properties.getInteractiveReserve());
+    }
+
+    /**
+     * Embed a single text
+     *
+     * @param text     Text to embed
+     * @param priority INTERACTIVE for chat queries, BACKGROUND for sync jobs
+     * @return Embedding vector
+     * @throws IOException if the API keeps failing after all retries
+     */
+    public float[] embed(String text, Priority priority) throws IOException, InterruptedException {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.putObject("content").putArray("parts").addObject().put("text", text);
+
+        JsonNode root = execute(":embedContent", objectMapper.writeValueAsString(body), priority);
+
+        JsonNode values = root.path("embedding").path("values");
+        if (!values.isArray() || values.isEmpty()) {
+            throw new IOException("Invalid embedding response format");
+        }
+        return toVector(values);
+    }
+
+    /**
+     * Embed several texts in one batchEmbedContents request
+     *
+     * @param texts    Texts to embed (order is preserved)
+     * @param priority INTERACTIVE for chat queries, BACKGROUND for sync jobs
+     * @return One vector per input text, in the same order
+     * @throws IOException if the API keeps failing after all retries
+     */
+    public List<float[]> embedBatch(List<String> texts, Priority priority) throws IOException, InterruptedException {
+        if (texts.isEmpty()) {
+            return List.of();
+        }
+
+        ObjectNode body = objectMapper.createObjectNode();
+        ArrayNode requests = body.putArray("requests");
+        for (String text : texts) {
+            ObjectNode request = requests.addObject();
+            request.put("model", "models/" + EMBEDDING_MODEL);
+            request.putObject("content").putArray("parts").addObject().put("text", text);
+        }
+
+        JsonNode root = execute(":batchEmbedContents", objectMapper.writeValueAsString(body), priority);
+
+        JsonNode embeddings = root.path("embeddings");
+        if (!embeddings.isArray() || embeddings.size() != texts.size()) {
+            throw new IOException("Invalid batch embedding response: expected " + texts.size()
+                    + " embeddings, got " + embeddings.size());
+        }
+
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        for (JsonNode embedding : embeddings) {
+            JsonNode values = embedding.path("values");
+            if (!values.isArray() || values.isEmpty()) {
+                throw new IOException("Invalid batch embedding response format");
+            }
+            vectors.add(toVector(values));
+        }
+        return vectors;
+    }
+
+    /**
+     * Send a request, retrying 429/5xx responses with backoff
+     */
+    private JsonNode execute(String method, String requestBody, Priority priority)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(API_BASE + EMBEDDING_MODEL + method + "?key=" + apiKey))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofMillis(properties.getRequestTimeoutMs()))
+                .POST(HttpRequest.BodyPublishers.ofString(requestBody))
+                .build();
+
+        int maxRetries = Math.max(0, properties.getMaxRetries());
+        for (int attempt = 0; ; attempt++) {
+            rateLimiter.acquire(priority);
+
+            HttpResponse<String> response;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (IOException e) {
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+                long delay = backoffMillis(attempt);
+                log.warn("Embedding request failed ({}), retrying in {} ms (attempt {}/{})",
+                        e.getMessage(), delay, attempt + 1, maxRetries);
+                Thread.sleep(delay);
+                continue;
+            }
+
+            int status = response.statusCode();
+            if (status == 200) {
+                return objectMapper.readTree(response.body());
+            }
+
+            boolean retryable = status == 429 || status >= 500;
+            if (!retryable || attempt >= maxRetries) {
+                throw new IOException("Embedding API returned status " + status + ": " + abbreviate(response.body()));
+            }
+
+            long delay = backoffMillis(attempt);
+            if (status == 429) {
+                Optional<Long> retryAfter = parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null));
+                if (retryAfter.isPresent()) {
+                    delay = retryAfter.get();
+                    if (delay > properties.getMaxRetryAfterMs()) {
+                        throw new IOException("Embedding API returned 429 with Retry-After " + delay
+                                + " ms, over the " + properties.getMaxRetryAfterMs() + " ms limit");
+                    }
+                }
+                // Quota is shared, so everyone waits - not just this caller
+                rateLimiter.pause(delay);
+            }
+
+            log.warn("Embedding API returned {} ({} priority), retrying in {} ms (attempt {}/{})",
+                    status, priority, delay, attempt + 1, maxRetries);
+            Thread.sleep(delay);
+        }
+    }
+
+    /**
+     * Exponential backoff with jitter: random(cap/2, cap) where cap = min(max, base * 2^attempt)
+     */
+    private long backoffMillis(int attempt) {
+        long cap = properties.getMaxBackoffMs();
+        long exp = properties.getInitialBackoffMs() << Math.min(attempt, 20);
+        long bound = Math.max(1, Math.min(cap, exp));
+        return ThreadLocalRandom.current().nextLong(bound / 2, bound + 1);
+    }
+
+    /**
+     * Parse Retry-After as delta-seconds or HTTP-date
+     */
+    static Optional<Long> parseRetryAfter(String header) {
+        if (header == null || header.isBlank()) {
+            return Optional.empty();
+        }
+        String value = header.trim();
+        try {
+            return Optional.of(Math.max(0, Long.parseLong(value)) * 1000);
+        } catch (NumberFormatException ignored) {
+            // Fall through to HTTP-date
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Optional.of(Math.max(0, Duration.between(ZonedDateTime.now(at.getZone()), at).toMillis()));
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    private float[] toVector(JsonNode values) {
+        float[] vector = new float[values.size()];
+        for (int i = 0; i < values.size(); i++) {
+            vector[i] = (float) values.get(i).asDouble();
+        }
+        return vector;
+    }
+
+    private String abbreviate(String body) {
+        if (body == null) return "";
+        return body.length() <= 200 ? body : body.substring(0, 200) + "...";
+    }
+}
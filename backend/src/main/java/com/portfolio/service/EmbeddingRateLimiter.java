@@ -0,0 +1,174 @@
+package com.portfolio.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket shared by all embedding callers
+ *
+ * - Refills continuously at the configured rate up to the burst capacity
+ * - Interactive callers may take any available token
+ * - Background callers leave {@code interactiveReserve} tokens untouched and
+ *   yield while any interactive caller is waiting
+ * - {@link #pause(long)} freezes the bucket for everyone after a 429
+ *
+ * Uses a ReentrantLock rather than synchronized so waiting virtual threads
+ * do not pin their carrier thread.
+ */
+public class EmbeddingRateLimiter {
+
+    public enum Priority {
+        INTERACTIVE,
+        BACKGROUND
+    }
+
+    private static final long MIN_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private final double interactiveReserve;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+    private int interactiveWaiting;
+
+    public EmbeddingRateLimiter(int requestsPerMinute, int burstCapacity, int interactiveReserve) {
+        this(requestsPerMinute, burstCapacity, interactiveReserve, System::nanoTime);
+    }
+
+    EmbeddingRateLimiter(int requestsPerMinute, int burstCapacity, int interactiveReserve, LongSupplier nanoClock) {
+        if (requestsPerMinute <= 0 || burstCapacity <= 0) {
+            throw new IllegalArgumentException("requestsPerMinute and burstCapacity must be positive");
+        }
+        this.tokensPerNano = requestsPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.capacity = burstCapacity;
+        this.interactiveReserve = Math.max(0, Math.min(interactiveReserve, burstCapacity - 1));
+        this.nanoClock = nanoClock;
+        this.tokens = burstCapacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+        this.pausedUntilNanos = lastRefillNanos;
+    }
+
+    /**
+     * Block until a token is available for the given priority
+     */
+    public void acquire(Priority priority) throws InterruptedException {
+        lock.lock();
+        try {
+            boolean interactive = priority == Priority.INTERACTIVE;
+            if (interactive) {
+                interactiveWaiting++;
+            }
+            try {
+                while (true) {
+                    long waitNanos = tryTake(priority);
+                    if (waitNanos <= 0) {
+                        return;
+                    }
+                    changed.awaitNanos(waitNanos);
+                }
+            } finally {
+                if (interactive) {
+                    interactiveWaiting--;
+                    changed.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take a token without waiting
+     *
+     * @return true if a token was taken
+     */
+    public boolean tryAcquire(Priority priority) {
+        lock.lock();
+        try {
+            return tryTake(priority) <= 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop handing out tokens for the given delay (e.g. a 429 Retry-After)
+     * and drain the bucket so the quota window can recover
+     */
+    public void pause(long delayMillis) {
+        if (delayMillis <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            long until = nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+            if (until - pausedUntilNanos > 0) {
+                pausedUntilNanos = until;
+            }
+            tokens = 0;
+            // Nothing accrues while paused
+            lastRefillNanos = pausedUntilNanos;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tokens currently available (for stats/logging)
+     */
+    public double availableTokens() {
+        lock.lock();
+        try {
+            refill(nanoClock.getAsLong());
+            return tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Try to consume one token. Must hold the lock.
+     *
+     * @return 0 if a token was consumed, otherwise nanos to wait before retrying
+     */
+    private long tryTake(Priority priority) {
+        long now = nanoClock.getAsLong();
+        if (pausedUntilNanos - now > 0) {
+            return pausedUntilNanos - now;
+        }
+        refill(now);
+
+        double floor = priority == Priority.INTERACTIVE ? 0 : interactiveReserve;
+        if (priority == Priority.BACKGROUND && interactiveWaiting > 0) {
+            // Interactive waiters get the next tokens; re-check once they have been handed out
+            return Math.max(MIN_WAIT_NANOS, nanosUntil(floor + 1 + interactiveWaiting));
+        }
+        if (tokens >= floor + 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return nanosUntil(floor + 1);
+    }
+
+    private long nanosUntil(double target) {
+        double missing = Math.max(target - tokens, 0.0);
+        return Math.max(1L, (long) Math.ceil(missing / tokensPerNano));
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.portfolio.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Embedding Snapshot - Compact binary copy of the profile chunk embeddings
+ *
+ * Bundled next to profile.json so startup can skip the embedding API for
+ * chunks whose text has not changed. All numbers are little-endian.
+ *
+ * <pre>
+ * header:  magic "PFES" | u16 version | u16 len + model (UTF-8) | u32 dimension
+ *          | 32-byte SHA-256 of profile.json | u32 entry count
+ * entry:   u16 len + path (UTF-8) | u32 chunk index | u32 start | u32 end
+ *          | 32-byte SHA-256 of chunk text | u32 len + text (UTF-8)
+ *          | dimension x f32 vector
+ * </pre>
+ */
+public class EmbeddingSnapshot {
+
+    public static final String RESOURCE_NAME = "profile-embeddings.bin";
+
+    private static final byte[] MAGIC = {'P', 'F', 'E', 'S'};
+    private static final int VERSION = 1;
+    private static final int HASH_BYTES = 32;
+
+    private final String model;
+    private final int dimension;
+    private final byte[] profileHash;
+    private final List<Entry> entries;
+    private final Map<String, Entry> byKey;
+
+    public EmbeddingSnapshot(String model, int dimension, byte[] profileHash, List<Entry> entries) {
+        this.model = model;
+        this.dimension = dimension;
+        this.profileHash = profileHash;
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+        this.byKey = new HashMap<>();
+        for (Entry entry : entries) {
+            byKey.put(key(entry.path(), entry.chunkIndex()), entry);
+        }
+    }
+
+    public String model() {
+        return model;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    public List<Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * Whether the snapshot was exported from exactly this profile.json
+     */
+    public boolean matchesProfile(String profileJson) {
+        return Arrays.equals(profileHash, sha256(profileJson));
+    }
+
+    /**
+     * Whether vectors in this snapshot are usable with the given model
+     */
+    public boolean isCompatible(String expectedModel, int expectedDimension) {
+        return model.equals(expectedModel) && dimension == expectedDimension;
+    }
+
+    /**
+     * Stored vector for a chunk, only if its text hash still matches
+     *
+     * @return Vector, or null if the chunk is missing or its text changed
+     */
+    public float[] lookup(String path, int chunkIndex, String text) {
+        Entry entry = byKey.get(key(path, chunkIndex));
+        if (entry == null || !Arrays.equals(entry.textHash(), sha256(text))) {
+            return null;
+        }
+        return entry.vector();
+    }
+
+    // ========== Encoding ==========
+
+    public void write(OutputStream out) throws IOException {
+        byte[] modelBytes = model.getBytes(StandardCharsets.UTF_8);
+        int size = MAGIC.length + 2 + 2 + modelBytes.length + 4 + HASH_BYTES + 4;
+
+        List<byte[]> paths = new ArrayList<>(entries.size());
+        List<byte[]> texts = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            if (entry.vector().length != dimension) {
+                throw new IllegalArgumentException("Vector for " + entry.path() + "[" + entry.chunkIndex()
+                        + "] has " + entry.vector().length + " dimensions, expected " + dimension);
+            }
+            byte[] path = entry.path().getBytes(StandardCharsets.UTF_8);
+            byte[] text = entry.text().getBytes(StandardCharsets.UTF_8);
+            paths.add(path);
+            texts.add(text);
+            size += 2 + path.length + 4 + 4 + 4 + HASH_BYTES + 4 + text.length + dimension * Float.BYTES;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC);
+        buffer.putShort((short) VERSION);
+        putShortString(buffer, modelBytes);
+        buffer.putInt(dimension);
+        buffer.put(profileHash);
+        buffer.putInt(entries.size());
+
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            putShortString(buffer, paths.get(i));
+            buffer.putInt(entry.chunkIndex());
+            buffer.putInt(entry.startPos());
+            buffer.putInt(entry.endPos());
+            buffer.put(entry.textHash());
+            buffer.putInt(texts.get(i).length);
+            buffer.put(texts.get(i));
+            buffer.asFloatBuffer().put(entry.vector());
+            buffer.position(buffer.position() + dimension * Float.BYTES);
+        }
+
+        out.write(buffer.array());
+        out.flush();
+    }
+
+    public static EmbeddingSnapshot read(InputStream in) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(in.readAllBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not an embedding snapshot (bad magic)");
+            }
+            int version = buffer.getShort() & 0xFFFF;
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+
+            String model = getShortString(buffer);
+            int dimension = buffer.getInt();
+            byte[] profileHash = new byte[HASH_BYTES];
+            buffer.get(profileHash);
+            int count = buffer.getInt();
+
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String path = getShortString(buffer);
+                int chunkIndex = buffer.getInt();
+                int startPos = buffer.getInt();
+                int endPos = buffer.getInt();
+                byte[] textHash = new byte[HASH_BYTES];
+                buffer.get(textHash);
+                byte[] textBytes = new byte[buffer.getInt()];
+                buffer.get(textBytes);
+
+                float[] vector = new float[dimension];
+                buffer.asFloatBuffer().get(vector);
+                buffer.position(buffer.position() + dimension * Float.BYTES);
+
+                entries.add(new Entry(path, chunkIndex, startPos, endPos, textHash,
+                        new String(textBytes, StandardCharsets.UTF_8), vector));
+            }
+            return new EmbeddingSnapshot(model, dimension, profileHash, entries);
+
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated embedding snapshot", e);
+        }
+    }
+
+    // ========== Helpers ==========
+
+    public static byte[] sha256(String text) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String key(String path, int chunkIndex) {
+        return path + "#" + chunkIndex;
+    }
+
+    private static void putShortString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getShortString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * One embedded chunk
+     */
+    public record Entry(
+            String path,        // Document path (e.g., "personal/education.md")
+            int chunkIndex,     // Chunk index within document
+            int startPos,       // Start position in original text
+            int endPos,         // End position in original text
+            byte[] textHash,    // SHA-256 of chunk text
+            String text,        // Chunk text
+            float[] vector      // Embedding vector
+    ) {}
+}
@@ -0,0 +1,267 @@
+package com.portfolio.service;
+
+import com.portfolio.config.EnvConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * GitHub Docs Index Service - Indexes repository READMEs and docs into vector_store
+ *
+ * This service:
+ * 1. Lists the user's own (non-fork) repositories, following every page
+ * 2. Skips repos whose pushed_at matches github_index_state
+ * 3. Fetches README and configured doc paths for changed repos
+ * 4. Chunks, embeds (background priority) and stores them under github/{repo}/
+ * 5. Removes repos that no longer exist from the index
+ *
+ * Lets agents answer project questions with UnifiedRAGTools.queryGitHubDocs
+ * instead of live readRepoFile round trips.
+ */
+@Service
+public class GitHubDocsIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(GitHubDocsIndexService.class);
+    private static final String GITHUB_API = "https://api.github.com";
+    private static final String CATEGORY = "github";
+
+    /**
+     * The GitHub REST calls the index needs
+     */
+    interface GitHubApi {
+        /**
+         * All repositories owned by the user (every page)
+         */
+        List<Map> listRepos();
+
+        /**
+         * Contents-style object for a file (the README when path is null),
+         * or null on 404
+         */
+        Map fetch(String repo, String path);
+    }
+
+    private final ProfileSyncService profileSyncService;
+    private final JdbcTemplate jdbcTemplate;
+    private final GitHubApi github;
+
+    @Value("${github.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${github.index.doc-paths:docs/README.md,ARCHITECTURE.md,docs/ARCHITECTURE.md}")
+    private List<String> docPaths;
+
+    @Value("${github.index.max-doc-chars:20000}")
+    private int maxDocChars;
+
+    @Autowired
+    public GitHubDocsIndexService(ProfileSyncService profileSyncService, JdbcTemplate jdbcTemplate) {
+        this(profileSyncService, jdbcTemplate, EnvConfig.get("GITHUB_USERNAME") != null && EnvConfig.get("GITHUB_TOKEN") != null
+                ? new WebClientGitHubApi(EnvConfig.get("GITHUB_USERNAME"), EnvConfig.get("GITHUB_TOKEN"))
+                : null);
+    }
+
+    GitHubDocsIndexService(ProfileSyncService profileSyncService, JdbcTemplate jdbcTemplate, GitHubApi github) {
+        this.profileSyncService = profileSyncService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.github = github;
+    }
+
+    public boolean isEnabled() {
+        return enabled && github != null;
+    }
+
+    /**
+     * Index READMEs/docs for repos pushed since the last run
+     *
+     * @return Number of repos (re)indexed
+     */
+    public int refresh() throws InterruptedException {
+        if (!isEnabled()) {
+            log.debug("GitHub docs indexing disabled or GITHUB_USERNAME/GITHUB_TOKEN missing");
+            return 0;
+        }
+
+        // Every page: a repo missing from the listing is treated as deleted below
+        List<Map> repos = github.listRepos();
+
+        Map<String, String> indexed = new HashMap<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList("SELECT repo, pushed_at FROM github_index_state")) {
+            indexed.put((String) row.get("repo"), (String) row.get("pushed_at"));
+        }
+
+        Set<String> current = new HashSet<>();
+        int refreshed = 0;
+
+        for (Map repo : repos) {
+            if (Boolean.TRUE.equals(repo.get("fork"))) {
+                continue;
+            }
+            String name = String.valueOf(repo.get("name"));
+            String pushedAt = String.valueOf(repo.get("pushed_at"));
+            current.add(name);
+
+            if (pushedAt.equals(indexed.get(name))) {
+                continue;
+            }
+
+            try {
+                int chunks = indexRepo(name, repo);
+                jdbcTemplate.update(
+                        "INSERT INTO github_index_state (repo, pushed_at, chunks, indexed_at) VALUES (?, ?, ?, NOW()) " +
+                                "ON CONFLICT (repo) DO UPDATE SET pushed_at = EXCLUDED.pushed_at, " +
+                                "chunks = EXCLUDED.chunks, indexed_at = NOW()",
+                        name, pushedAt, chunks);
+                refreshed++;
+                log.info("Indexed GitHub docs for {}: {} chunks", name, chunks);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                // Leave state untouched so the repo is retried next run
+                log.error("Failed to index GitHub docs for {}", name, e);
+            }
+        }
+
+        // Repos deleted or renamed on GitHub
+        for (String stale : indexed.keySet()) {
+            if (!current.contains(stale)) {
+                profileSyncService.deleteDocuments(CATEGORY + "/" + stale + "/");
+                jdbcTemplate.update("DELETE FROM github_index_state WHERE repo = ?", stale);
+                log.info("Removed GitHub docs for deleted repo {}", stale);
+            }
+        }
+
+        return refreshed;
+    }
+
+    private int indexRepo(String name, Map repo) throws IOException, InterruptedException {
+        String prefix = CATEGORY + "/" + name + "/";
+        String header = String.format("# %s%n%n**Repository:** %s%n**Description:** %s%n**Language:** %s%n%n",
+                name,
+                repo.getOrDefault("html_url", ""),
+                Objects.toString(repo.get("description"), "No description"),
+                Objects.toString(repo.get("language"), "N/A"));
+
+        Map<String, String> documents = new LinkedHashMap<>();
+
+        Map readme = github.fetch(name, null);
+        if (readme != null) {
+            String readmePath = String.valueOf(readme.getOrDefault("path", "README.md"));
+            documents.put(prefix + readmePath, header + decode(readme));
+        }
+
+        for (String docPath : docPaths) {
+            String path = docPath.trim();
+            if (path.isEmpty() || documents.containsKey(prefix + path)) {
+                continue;
+            }
+            Map doc = github.fetch(name, path);
+            if (doc != null && "file".equals(doc.get("type"))) {
+                documents.put(prefix + path, header + decode(doc));
+            }
+        }
+
+        if (documents.isEmpty()) {
+            profileSyncService.deleteDocuments(prefix);
+            return 0;
+        }
+        return profileSyncService.replaceDocuments(prefix, documents);
+    }
+
+    private String decode(Map content) {
+        Object encoded = content.get("content");
+        if (encoded == null) {
+            return "";
+        }
+        String text = new String(Base64.getMimeDecoder().decode(String.valueOf(encoded)), StandardCharsets.UTF_8);
+        if (text.length() > maxDocChars) {
+            text = text.substring(0, maxDocChars) + "\n\n...[truncated]";
+        }
+        return text;
+    }
+
+    /**
+     * URL of the rel="next" page in a Link header, or null on the last page
+     */
+    static String nextPage(String linkHeader) {
+        if (linkHeader == null) {
+            return null;
+        }
+        for (String link : linkHeader.split(",")) {
+            String[] parts = link.split(";");
+            for (int i = 1; i < parts.length; i++) {
+                if (parts[i].trim().equals("rel=\"next\"")) {
+                    String url = parts[0].trim();
+                    return url.startsWith("<") && url.endsWith(">") ? url.substring(1, url.length() - 1) : url;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static class WebClientGitHubApi implements GitHubApi {
+        private final WebClient client;
+        private final String username;
+
+        WebClientGitHubApi(String username, String token) {
+            this.username = username;
+            this.client = WebClient.builder()
+                    .baseUrl(GITHUB_API)
+                    .defaultHeader("Authorization", "Bearer " + token)
+                    .defaultHeader("Accept", "application/vnd.github.v3+json")
+                    .codecs(c -> c.defaultCodecs().maxInMemorySize(2 * 1024 * 1024))
+                    .build();
+        }
+
+        @Override
+        public List<Map> listRepos() {
+            List<Map> repos = new ArrayList<>();
+            ResponseEntity<List<Map>> page = client.get()
+                    .uri("/users/{username}/repos?per_page=100&type=owner&sort=pushed", username)
+                    .retrieve()
+                    .toEntityList(Map.class)
+                    .block();
+            while (page != null) {
+                if (page.getBody() != null) {
+                    repos.addAll(page.getBody());
+                }
+                String next = nextPage(page.getHeaders().getFirst(HttpHeaders.LINK));
+                if (next == null) {
+                    break;
+                }
+                page = client.get()
+                        .uri(URI.create(next))
+                        .retrieve()
+                        .toEntityList(Map.class)
+                        .block();
+            }
+            return repos;
+        }
+
+        @Override
+        public Map fetch(String repo, String path) {
+            try {
+                return client.get()
+                        .uri(path == null ? "/repos/{owner}/{repo}/readme" : "/repos/{owner}/{repo}/contents/{path}",
+                                path == null ? new Object[]{username, repo} : new Object[]{username, repo, path})
+                        .retrieve()
+                        .bodyToMono(Map.class)
+                        .block();
+            } catch (WebClientResponseException.NotFound e) {
+                return null;
+            }
+        }
+    }
+}
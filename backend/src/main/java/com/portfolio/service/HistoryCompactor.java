@@ -0,0 +1,236 @@
+package com.portfolio.service;
+
+import com.google.adk.events.Event;
+import com.google.genai.types.Content;
+import com.google.genai.types.FunctionResponse;
+import com.google.genai.types.Part;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * History Compactor - Caps the conversation history sent to the model
+ *
+ * Every turn resends the whole session history, including large tool results
+ * (listAllRepos, readRepoFile). Beyond the token budget:
+ * 1. Tool results older than the last keepTurns turns are cut to
+ *    toolResultChars
+ * 2. If still over budget, the oldest turns are dropped (whole turns, so a
+ *    tool call never loses its result) and replaced by one summary event
+ *    listing the questions asked in them
+ *
+ * The last keepTurns turns are always kept verbatim. Tokens are estimated as
+ * one per CHARS_PER_TOKEN characters of text, tool arguments and results.
+ */
+public class HistoryCompactor {
+
+    static final int CHARS_PER_TOKEN = 4;
+    private static final int SUMMARY_QUESTION_CHARS = 160;
+
+    /**
+     * Events to send and the estimated prompt tokens of the history before
+     * and after compaction
+     */
+    public record Result(List<Event> events, long tokensBefore, long tokensAfter) {
+        public boolean compacted() {
+            return tokensAfter < tokensBefore;
+        }
+    }
+
+    private final long tokenBudget;
+    private final int keepTurns;
+    private final int toolResultChars;
+
+    /**
+     * @param tokenBudget     history tokens allowed before compacting (0 = off)
+     * @param keepTurns       most recent turns never compacted
+     * @param toolResultChars size older tool results are cut to
+     */
+    public HistoryCompactor(long tokenBudget, int keepTurns, int toolResultChars) {
+        this.tokenBudget = tokenBudget;
+        this.keepTurns = Math.max(0, keepTurns);
+        this.toolResultChars = Math.max(0, toolResultChars);
+    }
+
+    public Result compact(List<Event> events) {
+        long before = tokens(events);
+        if (tokenBudget <= 0 || before <= tokenBudget) {
+            return new Result(events, before, before);
+        }
+
+        List<Integer> turnStarts = turnStarts(events);
+        int recentStart;
+        if (keepTurns == 0) {
+            recentStart = events.size();
+        } else if (turnStarts.size() <= keepTurns) {
+            recentStart = 0;
+        } else {
+            recentStart = turnStarts.get(turnStarts.size() - keepTurns);
+        }
+        if (recentStart == 0) {
+            return new Result(events, before, before);
+        }
+
+        // 1. Cut old tool results
+        List<Event> compacted = new ArrayList<>(events.size());
+        for (int i = 0; i < recentStart; i++) {
+            compacted.add(shrinkToolResults(events.get(i)));
+        }
+        compacted.addAll(events.subList(recentStart, events.size()));
+        long tokens = tokens(compacted);
+        if (tokens <= tokenBudget) {
+            return new Result(compacted, before, tokens);
+        }
+
+        // 2. Drop the oldest turns: the shortest prefix (ending at a turn
+        // start) that brings the history within budget, or all old turns
+        long droppedTokens = 0;
+        int cut = 0;
+        for (int next : cutPoints(turnStarts, recentStart)) {
+            for (int i = cut; i < next; i++) {
+                droppedTokens += tokens(compacted.get(i));
+            }
+            cut = next;
+            if (tokens - droppedTokens + tokens(summaryText(compacted, cut)) <= tokenBudget) {
+                break;
+            }
+        }
+
+        List<Event> result = new ArrayList<>(compacted.size() - cut + 1);
+        Event first = compacted.get(0);
+        result.add(Event.builder()
+                .id(Event.generateEventId())
+                .invocationId(first.invocationId())
+                .author("user")
+                .content(Content.builder().role("user").parts(List.of(Part.fromText(summaryText(compacted, cut)))).build())
+                .timestamp(first.timestamp())
+                .build());
+        result.addAll(compacted.subList(cut, compacted.size()));
+        return new Result(result, before, tokens(result));
+    }
+
+    /**
+     * Characters of text, tool arguments and tool results in a content
+     */
+    public static long chars(Content content) {
+        long chars = 0;
+        for (Part part : content.parts().orElse(List.of())) {
+            chars += part.text().map(String::length).orElse(0);
+            chars += part.functionCall()
+                    .flatMap(call -> call.args())
+                    .map(args -> args.toString().length())
+                    .orElse(0);
+            chars += part.functionResponse()
+                    .flatMap(response -> response.response())
+                    .map(response -> response.toString().length())
+                    .orElse(0);
+        }
+        return chars;
+    }
+
+    static long tokens(List<Event> events) {
+        long tokens = 0;
+        for (Event event : events) {
+            tokens += tokens(event);
+        }
+        return tokens;
+    }
+
+    private static long tokens(Event event) {
+        return tokens(event.content().map(HistoryCompactor::chars).orElse(0L));
+    }
+
+    private static long tokens(String text) {
+        return tokens(text.length());
+    }
+
+    private static long tokens(long chars) {
+        return (chars + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    /**
+     * Indexes of the events that open a turn: a user message with text
+     */
+    private static List<Integer> turnStarts(List<Event> events) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            if (userText(events.get(i)) != null) {
+                starts.add(i);
+            }
+        }
+        return starts;
+    }
+
+    private static List<Integer> cutPoints(List<Integer> turnStarts, int recentStart) {
+        List<Integer> cuts = new ArrayList<>();
+        for (int start : turnStarts) {
+            if (start > 0 && start < recentStart) {
+                cuts.add(start);
+            }
+        }
+        cuts.add(recentStart);
+        return cuts;
+    }
+
+    private static String userText(Event event) {
+        if (!"user".equals(event.author())) {
+            return null;
+        }
+        return event.content()
+                .map(Content::text)
+                .filter(text -> !text.isBlank())
+                .orElse(null);
+    }
+
+    private Event shrinkToolResults(Event event) {
+        Content content = event.content().orElse(null);
+        if (content == null || event.functionResponses().isEmpty()) {
+            return event;
+        }
+        List<Part> parts = content.parts().orElse(List.of());
+        List<Part> shrunk = new ArrayList<>(parts.size());
+        boolean changed = false;
+        for (Part part : parts) {
+            FunctionResponse response = part.functionResponse().orElse(null);
+            String result = response != null ? response.response().map(Object::toString).orElse(null) : null;
+            if (result == null || result.length() <= toolResultChars) {
+                shrunk.add(part);
+                continue;
+            }
+            String cutResult = result.substring(0, toolResultChars)
+                    + "... (truncated from " + result.length() + " chars)";
+            shrunk.add(part.toBuilder()
+                    .functionResponse(response.toBuilder().response(Map.of("result", cutResult)).build())
+                    .build());
+            changed = true;
+        }
+        if (!changed) {
+            return event;
+        }
+        return event.toBuilder()
+                .content(content.toBuilder().parts(shrunk).build())
+                .build();
+    }
+
+    /**
+     * Text of the user event standing in for the dropped events [0, cut)
+     */
+    private static String summaryText(List<Event> events, int cut) {
+        StringBuilder text = new StringBuilder();
+        int turns = 0;
+        for (int i = 0; i < cut; i++) {
+            String question = userText(events.get(i));
+            if (question == null) {
+                continue;
+            }
+            turns++;
+            String line = question.strip().replaceAll("\\s+", " ");
+            if (line.length() > SUMMARY_QUESTION_CHARS) {
+                line = line.substring(0, SUMMARY_QUESTION_CHARS) + "...";
+            }
+            text.append("\n- ").append(line);
+        }
+        return "[Earlier conversation: " + turns + " turn(s) omitted to save context. Questions asked:]" + text;
+    }
+}
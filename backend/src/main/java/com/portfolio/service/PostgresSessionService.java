@@ -0,0 +1,428 @@
+package com.portfolio.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.adk.events.Event;
+import com.google.adk.sessions.BaseSessionService;
+import com.google.adk.sessions.GetSessionConfig;
+import com.google.adk.sessions.ListEventsResponse;
+import com.google.adk.sessions.ListSessionsResponse;
+import com.google.adk.sessions.Session;
+import com.google.adk.sessions.State;
+import com.portfolio.config.SessionStoreProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Postgres Session Service - Durable ADK sessions shared by all instances
+ *
+ * Every non-partial event is appended to chat_session_events (as ADK event
+ * JSON, numbered per session) and the session row keeps the event count and
+ * the latest state, so any instance can serve any session id.
+ *
+ * An in-process LRU cache (chat.sessions.max-sessions) holds recently used
+ * sessions. A lookup always reads the session row (one primary-key query);
+ * on a cache hit only the events other instances appended since are loaded,
+ * on a miss the whole history is loaded once.
+ *
+ * Callers get copies, like InMemorySessionService: the runner appends to its
+ * copy and appendEvent brings the cached session up to date. The copy may be
+ * stale or compacted, so an append writes the event's state delta applied to
+ * the cached (or stored) state, and only succeeds against the event count
+ * that state belongs to; if another instance appended first, the delta is
+ * applied again to the state it stored, at most MAX_APPEND_RETRIES times
+ * before the append fails with an OptimisticLockingFailureException.
+ *
+ * Reads and writes of one session are serialized by a per-session
+ * ReentrantLock (held across JDBC calls, so it must not pin virtual threads).
+ */
+@Service
+public class PostgresSessionService implements BaseSessionService {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresSessionService.class);
+
+    private static final TypeReference<ConcurrentHashMap<String, Object>> STATE_TYPE = new TypeReference<>() {};
+
+    // ADK's State.TEMP_PREFIX: invocation-scoped keys, never persisted
+    private static final String TEMP_PREFIX = "temp:";
+
+    // Appends retried against a newer event count before giving up
+    private static final int MAX_APPEND_RETRIES = 3;
+
+    // Bumps the event count and stores the event under the new number in one
+    // statement; no row is written unless the count is still the expected one,
+    // so the state never comes from a copy that missed another append
+    private static final String APPEND_SQL = """
+        WITH s AS (
+            UPDATE chat_sessions SET event_count = event_count + 1, state = ?, updated_at = NOW()
+            WHERE id = ? AND event_count = ?
+            RETURNING event_count
+        )
+        INSERT INTO chat_session_events (session_id, seq, event)
+        SELECT ?, event_count, ? FROM s
+        RETURNING seq
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Cache<String, Session> sessions;
+    // Held by whoever is using a session; collected once nobody is
+    private final Cache<String, ReentrantLock> locks = Caffeine.newBuilder().weakValues().build();
+
+    private final Counter cacheHits;
+    private final Counter cacheRefreshes;
+    private final Counter cacheMisses;
+
+    public PostgresSessionService(
+            JdbcTemplate jdbcTemplate,
+            SessionStoreProperties properties,
+            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSessions())
+                .build();
+
+        this.cacheHits = lookupCounter(meterRegistry, "hit");
+        this.cacheRefreshes = lookupCounter(meterRegistry, "refresh");
+        this.cacheMisses = lookupCounter(meterRegistry, "miss");
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("chat.sessions.store.lookups")
+                .description("Durable session lookups by cache result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Single<Session> createSession(
+            String appName,
+            String userId,
+            ConcurrentMap<String, Object> state,
+            String sessionId) {
+        return Single.fromCallable(() -> {
+            String id = sessionId != null && !sessionId.isBlank() ? sessionId.trim() : UUID.randomUUID().toString();
+            ConcurrentMap<String, Object> initialState = state != null ? new ConcurrentHashMap<>(state) : new ConcurrentHashMap<>();
+
+            int inserted = jdbcTemplate.update(
+                    "INSERT INTO chat_sessions (id, app_name, user_id, state) VALUES (?, ?, ?, ?) ON CONFLICT (id) DO NOTHING",
+                    id, appName, userId, stateJson(initialState));
+            if (inserted == 0) {
+                throw new IllegalStateException("Session already exists: " + id);
+            }
+
+            Session session = Session.builder(id)
+                    .appName(appName)
+                    .userId(userId)
+                    .state(initialState)
+                    .events(new ArrayList<>())
+                    .lastUpdateTime(Instant.now())
+                    .build();
+            sessions.put(id, session);
+            return copy(session, Optional.empty());
+        });
+    }
+
+    @Override
+    public Maybe<Session> getSession(
+            String appName,
+            String userId,
+            String sessionId,
+            Optional<GetSessionConfig> config) {
+        return Maybe.fromCallable(() -> {
+            ReentrantLock lock = lock(sessionId);
+            lock.lock();
+            try {
+                Session session = load(sessionId);
+                if (session == null || !session.appName().equals(appName) || !session.userId().equals(userId)) {
+                    return null;
+                }
+                return copy(session, config);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    @Override
+    public Single<ListSessionsResponse> listSessions(String appName, String userId) {
+        return Single.fromCallable(() -> {
+            List<Session> found = jdbcTemplate.query(
+                    "SELECT id, state, updated_at FROM chat_sessions WHERE app_name = ? AND user_id = ? ORDER BY updated_at DESC",
+                    (rs, rowNum) -> Session.builder(rs.getString("id"))
+                            .appName(appName)
+                            .userId(userId)
+                            .state(parseState(rs.getString("state")))
+                            .events(new ArrayList<>())
+                            .lastUpdateTime(rs.getTimestamp("updated_at").toInstant())
+                            .build(),
+                    appName, userId);
+            return ListSessionsResponse.builder().sessions(found).build();
+        });
+    }
+
+    @Override
+    public Single<ListEventsResponse> listEvents(String appName, String userId, String sessionId) {
+        return getSession(appName, userId, sessionId, Optional.empty())
+                .map(session -> ListEventsResponse.builder().events(session.events()).build())
+                .defaultIfEmpty(ListEventsResponse.builder().events(List.of()).build());
+    }
+
+    @Override
+    public Completable deleteSession(String appName, String userId, String sessionId) {
+        return Completable.fromAction(() -> {
+            // Events go with the session (ON DELETE CASCADE)
+            jdbcTemplate.update(
+                    "DELETE FROM chat_sessions WHERE id = ? AND app_name = ? AND user_id = ?",
+                    sessionId, appName, userId);
+            sessions.invalidate(sessionId);
+        });
+    }
+
+    @Override
+    public Single<Event> appendEvent(Session session, Event event) {
+        // Applies the state delta and appends to the caller's copy; partial
+        // events are not part of the history
+        return BaseSessionService.super.appendEvent(session, event).map(appended -> {
+            if (!appended.partial().orElse(false)) {
+                persist(session, appended);
+            }
+            return appended;
+        });
+    }
+
+    /**
+     * Drop a session from this instance's cache only (its history stays in
+     * the database)
+     */
+    public void evict(String sessionId) {
+        sessions.invalidate(sessionId);
+    }
+
+    /**
+     * Delete sessions not used for the given number of days
+     *
+     * @return ids of the sessions deleted
+     */
+    public List<String> deleteSessionsOlderThan(int days) {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(days);
+        List<String> deleted = jdbcTemplate.queryForList(
+                "DELETE FROM chat_sessions WHERE updated_at < ? RETURNING id", String.class, cutoff);
+        sessions.invalidateAll(deleted);
+        return deleted;
+    }
+
+    private void persist(Session session, Event event) {
+        ReentrantLock lock = lock(session.id());
+        lock.lock();
+        try {
+            Session cached = sessions.getIfPresent(session.id());
+            if (cached == session) {
+                cached = null;
+            }
+            int expected;
+            ConcurrentHashMap<String, Object> state;
+            if (cached != null) {
+                expected = cached.events().size();
+                state = new ConcurrentHashMap<>(cached.state());
+            } else {
+                Map<String, Object> row = row(session.id());
+                expected = ((Number) row.get("event_count")).intValue();
+                state = parseState((String) row.get("state"));
+            }
+            applyDelta(state, event);
+
+            Integer seq = append(session.id(), expected, stateJson(state), event);
+            for (int retry = 1; seq == null; retry++) {
+                if (retry > MAX_APPEND_RETRIES) {
+                    sessions.invalidate(session.id());
+                    throw new OptimisticLockingFailureException("Session " + session.id()
+                            + " kept changing; event not stored after " + MAX_APPEND_RETRIES + " retries");
+                }
+                // Another instance appended since: build on what it stored
+                Map<String, Object> row = row(session.id());
+                state = parseState((String) row.get("state"));
+                applyDelta(state, event);
+                seq = append(session.id(), ((Number) row.get("event_count")).intValue(), stateJson(state), event);
+            }
+
+            if (cached == null) {
+                return;
+            }
+            if (cached.events().size() == seq - 1) {
+                BaseSessionService.super.appendEvent(cached, event);
+            } else {
+                // Missed another instance's events: reload on next use
+                sessions.invalidate(session.id());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<String, Object> row(String sessionId) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT state, event_count FROM chat_sessions WHERE id = ?", sessionId);
+        if (rows.isEmpty()) {
+            sessions.invalidate(sessionId);
+            throw new IllegalStateException("Session not found: " + sessionId);
+        }
+        return rows.get(0);
+    }
+
+    /**
+     * Store the event as number expected + 1
+     *
+     * @return its seq, or null if the session is no longer at expected events
+     */
+    private Integer append(String sessionId, int expected, String stateJson, Event event) {
+        List<Integer> seq = jdbcTemplate.queryForList(
+                APPEND_SQL, Integer.class,
+                stateJson, sessionId, expected, sessionId, event.toJson());
+        return seq.isEmpty() ? null : seq.get(0);
+    }
+
+    /**
+     * Same rules as BaseSessionService.appendEvent (temp: keys are dropped by stateJson)
+     */
+    private static void applyDelta(Map<String, Object> state, Event event) {
+        if (event.actions() == null || event.actions().stateDelta() == null) {
+            return;
+        }
+        event.actions().stateDelta().forEach((key, value) -> {
+            if (value == State.REMOVED) {
+                state.remove(key);
+            } else {
+                state.put(key, value);
+            }
+        });
+    }
+
+    private ReentrantLock lock(String sessionId) {
+        return locks.get(sessionId, id -> new ReentrantLock());
+    }
+
+    /**
+     * Cached session brought up to date with the database, or null if the
+     * session does not exist; called with the session's lock held
+     */
+    private Session load(String sessionId) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT app_name, user_id, state, event_count, updated_at FROM chat_sessions WHERE id = ?",
+                sessionId);
+        if (rows.isEmpty()) {
+            sessions.invalidate(sessionId);
+            return null;
+        }
+        Map<String, Object> row = rows.get(0);
+        int eventCount = ((Number) row.get("event_count")).intValue();
+        ConcurrentHashMap<String, Object> state = parseState((String) row.get("state"));
+
+        Session cached = sessions.getIfPresent(sessionId);
+        if (cached != null) {
+            int known = cached.events().size();
+            if (known == eventCount) {
+                cacheHits.increment();
+                return cached;
+            }
+            if (known < eventCount) {
+                cached.events().addAll(loadEvents(sessionId, known));
+                cached.state().clear();
+                cached.state().putAll(state);
+                cacheRefreshes.increment();
+                return cached;
+            }
+            // More events cached than stored: a local write failed
+            sessions.invalidate(sessionId);
+        }
+
+        cacheMisses.increment();
+        Session session = Session.builder(sessionId)
+                .appName((String) row.get("app_name"))
+                .userId((String) row.get("user_id"))
+                .state(state)
+                .events(new ArrayList<>(loadEvents(sessionId, 0)))
+                .lastUpdateTime(((Timestamp) row.get("updated_at")).toInstant())
+                .build();
+        sessions.put(sessionId, session);
+        return session;
+    }
+
+    private List<Event> loadEvents(String sessionId, int afterSeq) {
+        return jdbcTemplate.query(
+                "SELECT event FROM chat_session_events WHERE session_id = ? AND seq > ? ORDER BY seq",
+                (rs, rowNum) -> Event.fromJson(rs.getString("event")),
+                sessionId, afterSeq);
+    }
+
+    private Session copy(Session session, Optional<GetSessionConfig> config) {
+        List<Event> events = new ArrayList<>(session.events());
+        if (config.isPresent()) {
+            GetSessionConfig options = config.get();
+            options.afterTimestamp().ifPresent(after ->
+                    events.removeIf(event -> event.timestamp() < after.toEpochMilli()));
+            options.numRecentEvents().ifPresent(count -> {
+                if (events.size() > count) {
+                    events.subList(0, events.size() - count).clear();
+                }
+            });
+        }
+        return Session.builder(session.id())
+                .appName(session.appName())
+                .userId(session.userId())
+                .state(new ConcurrentHashMap<>(session.state()))
+                .events(events)
+                .lastUpdateTime(session.lastUpdateTime())
+                .build();
+    }
+
+    private String stateJson(Map<String, Object> state) {
+        Map<String, Object> persisted = new ConcurrentHashMap<>();
+        state.forEach((key, value) -> {
+            if (!key.startsWith(TEMP_PREFIX) && value != null) {
+                persisted.put(key, value);
+            }
+        });
+        try {
+            return objectMapper.writeValueAsString(persisted);
+        } catch (JsonProcessingException e) {
+            log.warn("Session state is not serializable, storing empty state: {}", e.getMessage());
+            return "{}";
+        }
+    }
+
+    private ConcurrentHashMap<String, Object> parseState(String json) {
+        if (json == null || json.isBlank()) {
+            return new ConcurrentHashMap<>();
+        }
+        try {
+            return objectMapper.readValue(json, STATE_TYPE);
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable session state, starting empty: {}", e.getMessage());
+            return new ConcurrentHashMap<>();
+        }
+    }
+}
@@ -2,21 +2,29 @@ package com.portfolio.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.genai.Client;
-import com.google.genai.types.EmbedContentResponse;
+import com.portfolio.model.ProfileSyncedEvent;
+import com.portfolio.model.SyncMetrics;
+import com.portfolio.model.SyncMetrics.Stage;
+import com.portfolio.service.EmbeddingRateLimiter.Priority;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.core.io.ClassPathResource;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Profile Sync Service - Converts profile.json to RAG-friendly document chunks
@@ -25,8 +33,13 @@ import java.util.List;
  * 1. Receives profile.json from frontend
  * 2. Extracts structured data (about, education, experience, projects)
  * 3. Converts to natural language text chunks
- * 4. Generates embeddings using Google GenAI SDK
+ * 4. Generates embeddings via the shared EmbeddingClient (background priority)
  * 5. Stores in PostgreSQL via pgvector
+ *
+ * Embedding (minutes with retries and backoff) runs outside any transaction;
+ * only the store step holds a pooled connection, in its own transaction.
+ * 6. Publishes ProfileSyncedEvent so caches of answers built on the old
+ *    content can be dropped
  */
 @Service
 public class ProfileSyncService {
@@ -36,22 +49,27 @@ public class ProfileSyncService {
     // RAG configuration
     private static final int CHUNK_SIZE = 1000;
     private static final int CHUNK_OVERLAP = 100;
-    private static final String EMBEDDING_MODEL = "gemini-embedding-001";
-    private static final int EMBEDDING_DIMENSIONS = 3072;
+    private static final String EMBEDDING_MODEL = EmbeddingClient.EMBEDDING_MODEL;
 
-    private final Client genaiClient;
+    private final EmbeddingClient embeddingClient;
     private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
     private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${rag.sync.key:}")
     private String syncKey;
 
     public ProfileSyncService(
-            @Value("${google.api.key}") String apiKey,
-            JdbcTemplate jdbcTemplate) {
-        this.genaiClient = Client.builder().apiKey(apiKey).build();
+            EmbeddingClient embeddingClient,
+            JdbcTemplate jdbcTemplate,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager) {
+        this.embeddingClient = embeddingClient;
         this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
         this.objectMapper = new ObjectMapper();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         log.info("ProfileSyncService initialized with model: {}", EMBEDDING_MODEL);
     }
 
@@ -100,14 +118,88 @@ public class ProfileSyncService {
      * @param profileJson Raw JSON string from frontend
      * @return Number of chunks embedded and stored
      */
-    @Transactional
     public int syncProfile(String profileJson) throws Exception {
+        return syncProfile(profileJson, new SyncMetrics());
+    }
+
+    /**
+     * Sync profile.json to vector store, recording per-stage timings
+     *
+     * Runs stage by stage across all documents (parse -> chunk -> embed -> store)
+     * so each stage's duration and throughput can be reported separately.
+     *
+     * @param profileJson Raw JSON string
+     * @param metrics     Collector for stage timings and counters
+     * @return Number of chunks embedded and stored
+     */
+    public int syncProfile(String profileJson, SyncMetrics metrics) throws Exception {
+        return syncProfile(profileJson, metrics, null);
+    }
+
+    /**
+     * Sync profile.json to vector store, reusing snapshot vectors where possible
+     *
+     * Chunks whose path, index and text hash match the snapshot take the stored
+     * vector; only the rest go to the embedding API.
+     *
+     * @param profileJson Raw JSON string
+     * @param metrics     Collector for stage timings and counters
+     * @param snapshot    Prebuilt embeddings, or null to embed everything
+     * @return Number of chunks embedded and stored
+     */
+    public int syncProfile(String profileJson, SyncMetrics metrics, EmbeddingSnapshot snapshot) throws Exception {
         log.info("Processing profile.json for vector sync");
 
-        // Parse JSON
+        // Stage 1: Parse JSON and convert to documents
+        long start = metrics.startStage(Stage.PARSE);
+        List<DocumentChunk> documents = parseDocuments(profileJson);
+        metrics.setDocuments(documents.size());
+        metrics.endStage(Stage.PARSE, start);
+        log.info("Converted profile.json to {} document chunks", documents.size());
+
+        // Stage 2: Split text into chunks
+        start = metrics.startStage(Stage.CHUNK);
+        List<TextChunk> chunks = splitDocuments(documents);
+        metrics.setChunks(chunks.size());
+        metrics.endStage(Stage.CHUNK, start);
+
+        // Stage 3: Get embeddings for each chunk (snapshot first, API for the rest)
+        start = metrics.startStage(Stage.EMBED);
+        List<EmbeddedChunk> embeddedChunks = new ArrayList<>(chunks.size());
+        List<TextChunk> toEmbed = new ArrayList<>();
+        for (TextChunk chunk : chunks) {
+            float[] vector = snapshot != null ? snapshot.lookup(chunk.path(), chunk.index(), chunk.text()) : null;
+            if (vector != null) {
+                embeddedChunks.add(new EmbeddedChunk(chunk, vector));
+            } else {
+                toEmbed.add(chunk);
+            }
+        }
+        metrics.setSnapshotHits(embeddedChunks.size());
+        if (snapshot != null) {
+            log.info("Embedding snapshot: {} chunks reused, {} need the API", embeddedChunks.size(), toEmbed.size());
+        }
+        embeddedChunks.addAll(embedChunks(toEmbed));
+        metrics.setEmbedded((int) embeddedChunks.stream().filter(e -> e.vector() != null).count());
+        metrics.endStage(Stage.EMBED, start);
+
+        // Stage 4: Store in database (the only transactional step)
+        start = metrics.startStage(Stage.STORE);
+        int stored = transactionTemplate.execute(status -> storeChunks(embeddedChunks));
+        metrics.setStored(stored);
+        metrics.endStage(Stage.STORE, start);
+
+        log.info("Profile RAG sync completed. Total chunks stored: {} ({} ms)", stored, metrics.getTotalMillis());
+        eventPublisher.publishEvent(new ProfileSyncedEvent("profile", stored));
+        return stored;
+    }
+
+    /**
+     * Parse profile.json and convert each section to a markdown document
+     */
+    private List<DocumentChunk> parseDocuments(String profileJson) throws IOException {
         JsonNode root = objectMapper.readTree(profileJson);
 
-        // Convert to document chunks
         List<DocumentChunk> documents = new ArrayList<>();
 
         // 1. About section
@@ -137,43 +229,185 @@ public class ProfileSyncService {
             documents.add(convertSkills(skills));
         }
 
-        log.info("Converted profile.json to {} document chunks", documents.size());
+        return documents;
+    }
 
-        // Sync to vector store
-        return syncDocuments(documents);
+    private List<TextChunk> splitDocuments(List<DocumentChunk> documents) {
+        List<TextChunk> chunks = new ArrayList<>();
+        for (DocumentChunk doc : documents) {
+            List<TextChunk> docChunks = splitText(doc.content(), doc.path());
+            log.info("Document {} split into {} chunks", doc.path(), docChunks.size());
+            chunks.addAll(docChunks);
+        }
+        return chunks;
     }
 
     /**
-     * Sync documents to vector store
+     * Replace all documents under a path prefix (e.g. "github/my-repo/")
+     *
+     * Chunks are embedded first (no transaction), then upserted; rows under the
+     * prefix that are no longer produced (removed files, shrunk documents) are
+     * deleted in the same transaction, so the old content stays searchable until
+     * the new content is stored.
+     *
+     * @param pathPrefix Prefix owning the documents, must end with "/"
+     * @param documents  Path to markdown content
+     * @return Number of chunks stored
+     * @throws IOException if any chunk failed to embed (nothing is changed)
      */
-    private int syncDocuments(List<DocumentChunk> documents) {
-        log.info("Starting Profile RAG sync for {} documents", documents.size());
+    public int replaceDocuments(String pathPrefix, Map<String, String> documents) throws IOException, InterruptedException {
+        if (!pathPrefix.endsWith("/")) {
+            throw new IllegalArgumentException("pathPrefix must end with '/': " + pathPrefix);
+        }
 
-        int totalChunksStored = 0;
+        List<DocumentChunk> docs = new ArrayList<>();
+        documents.forEach((path, content) -> docs.add(new DocumentChunk(path, content)));
+        List<TextChunk> chunks = splitDocuments(docs);
 
-        for (DocumentChunk doc : documents) {
-            try {
-                // Step 1: Split text into chunks
-                List<TextChunk> chunks = splitText(doc.content(), doc.path());
-                log.info("Document {} split into {} chunks", doc.path(), chunks.size());
+        List<EmbeddedChunk> embeddedChunks = embedChunks(chunks);
+        long failed = embeddedChunks.stream().filter(e -> e.vector() == null).count();
+        if (failed > 0) {
+            // Keep the previous content; the caller retries on its next run
+            throw new IOException(failed + " of " + chunks.size() + " chunks under " + pathPrefix + " failed to embed");
+        }
+
+        Map<String, Integer> chunkCounts = new HashMap<>();
+        chunks.forEach(c -> chunkCounts.merge(c.path(), 1, Integer::sum));
+        String[] keep = chunkCounts.keySet().toArray(new String[0]);
+
+        int stored = transactionTemplate.execute(status -> {
+            int count = storeChunks(embeddedChunks);
+
+            // Drop chunks beyond each document's new length, then documents that disappeared
+            for (Map.Entry<String, Integer> entry : chunkCounts.entrySet()) {
+                jdbcTemplate.update("DELETE FROM vector_store WHERE path = ? AND chunk_index >= ?",
+                        entry.getKey(), entry.getValue());
+            }
+            jdbcTemplate.update(connection -> {
+                var ps = connection.prepareStatement(
+                        "DELETE FROM vector_store WHERE path LIKE ? AND NOT (path = ANY (?))");
+                ps.setString(1, likePrefix(pathPrefix));
+                ps.setArray(2, connection.createArrayOf("varchar", keep));
+                return ps;
+            });
+            return count;
+        });
+
+        eventPublisher.publishEvent(new ProfileSyncedEvent(pathPrefix, stored));
+        return stored;
+    }
+
+    /**
+     * Delete every document under a path prefix
+     */
+    public int deleteDocuments(String pathPrefix) {
+        int deleted = jdbcTemplate.update("DELETE FROM vector_store WHERE path LIKE ?", likePrefix(pathPrefix));
+        if (deleted > 0) {
+            eventPublisher.publishEvent(new ProfileSyncedEvent(pathPrefix, deleted));
+        }
+        return deleted;
+    }
 
-                // Step 2: Get embeddings for each chunk
-                List<EmbeddedChunk> embeddedChunks = embedChunks(chunks);
-                log.info("Generated {} embeddings for document {}", embeddedChunks.size(), doc.path());
+    /**
+     * LIKE pattern matching everything under a prefix, with wildcards escaped
+     * (repo names may contain '_')
+     */
+    private String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("_", "\\_").replace("%", "\\%") + "%";
+    }
 
-                // Step 3: Store in database
-                int stored = storeChunks(embeddedChunks);
-                log.info("Stored {} chunks for document {}", stored, doc.path());
+    // ========== Embedding Snapshot ==========
 
-                totalChunksStored += stored;
+    /**
+     * Load the prebuilt embedding snapshot bundled next to profile.json
+     *
+     * @return Snapshot, or empty if none is bundled or it is unreadable/incompatible
+     */
+    public Optional<EmbeddingSnapshot> loadSnapshotFromResources() {
+        ClassPathResource resource = new ClassPathResource(EmbeddingSnapshot.RESOURCE_NAME);
+        if (!resource.exists()) {
+            log.info("No {} in classpath, embedding all chunks via API", EmbeddingSnapshot.RESOURCE_NAME);
+            return Optional.empty();
+        }
 
-            } catch (Exception e) {
-                log.error("Failed to sync document: {}", doc.path(), e);
+        try (InputStream is = resource.getInputStream()) {
+            EmbeddingSnapshot snapshot = EmbeddingSnapshot.read(is);
+            if (!snapshot.isCompatible(EMBEDDING_MODEL, EmbeddingClient.EMBEDDING_DIMENSIONS)) {
+                log.warn("Ignoring embedding snapshot for {} ({} dims), expected {} ({} dims)",
+                        snapshot.model(), snapshot.dimension(), EMBEDDING_MODEL, EmbeddingClient.EMBEDDING_DIMENSIONS);
+                return Optional.empty();
+            }
+            log.info("Loaded embedding snapshot: {} chunks", snapshot.entries().size());
+            return Optional.of(snapshot);
+        } catch (IOException e) {
+            log.error("Failed to read embedding snapshot, embedding all chunks via API", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Build a snapshot of all chunk texts and vectors for a profile
+     *
+     * Vectors come from vector_store when the stored content still matches the
+     * chunk; anything missing or stale is embedded via the API.
+     */
+    public EmbeddingSnapshot exportSnapshot(String profileJson) throws Exception {
+        List<TextChunk> chunks = splitDocuments(parseDocuments(profileJson));
+
+        Map<String, float[]> storedVectors = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT path, chunk_index, content, embedding::text AS embedding FROM vector_store " +
+                        "WHERE path LIKE 'personal/%' OR path LIKE 'projects/%'",
+                rs -> {
+                    String key = rs.getString("path") + "#" + rs.getInt("chunk_index") + "#" + rs.getString("content");
+                    String embedding = rs.getString("embedding");
+                    if (embedding != null) {
+                        storedVectors.put(key, parseVectorString(embedding));
+                    }
+                });
+
+        List<EmbeddingSnapshot.Entry> entries = new ArrayList<>(chunks.size());
+        List<TextChunk> missing = new ArrayList<>();
+        for (TextChunk chunk : chunks) {
+            float[] vector = storedVectors.get(chunk.path() + "#" + chunk.index() + "#" + chunk.text());
+            if (vector != null) {
+                entries.add(toSnapshotEntry(chunk, vector));
+            } else {
+                missing.add(chunk);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            log.info("Snapshot export: embedding {} chunks not present in vector_store", missing.size());
+            for (EmbeddedChunk embedded : embedChunks(missing)) {
+                if (embedded.vector() == null) {
+                    throw new IOException("Could not embed " + embedded.chunk().path() + "[" + embedded.chunk().index() + "]");
+                }
+                entries.add(toSnapshotEntry(embedded.chunk(), embedded.vector()));
             }
         }
 
-        log.info("Profile RAG sync completed. Total chunks stored: {}", totalChunksStored);
-        return totalChunksStored;
+        log.info("Snapshot export: {} chunks", entries.size());
+        return new EmbeddingSnapshot(EMBEDDING_MODEL, EmbeddingClient.EMBEDDING_DIMENSIONS,
+                EmbeddingSnapshot.sha256(profileJson), entries);
+    }
+
+    private EmbeddingSnapshot.Entry toSnapshotEntry(TextChunk chunk, float[] vector) {
+        return new EmbeddingSnapshot.Entry(chunk.path(), chunk.index(), chunk.startPos(), chunk.endPos(),
+                EmbeddingSnapshot.sha256(chunk.text()), chunk.text(), vector);
+    }
+
+    /**
+     * Parse pgvector text format '[0.1,0.2,...]'
+     */
+    private float[] parseVectorString(String text) {
+        String body = text.substring(text.indexOf('[') + 1, text.lastIndexOf(']'));
+        String[] parts = body.split(",");
+        float[] vector = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            vector[i] = Float.parseFloat(parts[i].trim());
+        }
+        return vector;
     }
 
     /**
@@ -220,68 +454,21 @@ public class ProfileSyncService {
     }
 
     /**
-     * Get embeddings from Google GenAI public REST API
-     * Uses HTTP client directly to avoid SDK's private API requirement
+     * Get embeddings for each chunk through the shared EmbeddingClient
+     * Background priority: sync yields quota to interactive query embeddings,
+     * and rate limits (429) are retried instead of storing null vectors
      */
-    private List<EmbeddedChunk> embedChunks(List<TextChunk> chunks) {
+    private List<EmbeddedChunk> embedChunks(List<TextChunk> chunks) throws InterruptedException {
         List<EmbeddedChunk> embeddedChunks = new ArrayList<>();
         log.info("embedChunks: Processing {} chunks", chunks.size());
 
-        // Get API key from the client
-        String apiKey = genaiClient.apiKey();
-
         for (TextChunk chunk : chunks) {
             try {
-                // Call Google Generative Language API public endpoint
-                java.net.http.HttpClient client = java.net.http.HttpClient.newHttpClient();
-
-                // Build request body
-                String requestBody = String.format(
-                    "{\"content\":{\"parts\":[{\"text\":\"%s\"}]}}",
-                    escapeJson(chunk.text())
-                );
-
-                java.net.http.HttpRequest request = java.net.http.HttpRequest.newBuilder()
-                        .uri(java.net.URI.create("https://generativelanguage.googleapis.com/v1beta/models/" + EMBEDDING_MODEL + ":embedContent?key=" + apiKey))
-                        .header("Content-Type", "application/json")
-                        .POST(java.net.http.HttpRequest.BodyPublishers.ofString(requestBody))
-                        .build();
-
-                java.net.http.HttpResponse<String> response = client.send(request,
-                        java.net.http.HttpResponse.BodyHandlers.ofString());
-
-                if (response.statusCode() == 200) {
-                    // Parse response using Jackson
-                    String responseBody = response.body();
-                    log.info("API Response for chunk {}: {}", chunk.index(), responseBody.substring(0, Math.min(200, responseBody.length())));
-
-                    com.fasterxml.jackson.databind.JsonNode root = objectMapper.readTree(responseBody);
-                    log.info("Parsed JSON - hasEmbedding: {}, hasValues: {}, hasValuesArray: {}",
-                            root.has("embedding"),
-                            root.has("embedding") && root.get("embedding").has("values"),
-                            root.has("embedding") && root.get("embedding").has("values") && root.get("embedding").get("values").isArray());
-
-                    if (root.has("embedding") && root.get("embedding").has("values")) {
-                        com.fasterxml.jackson.databind.JsonNode valueArray = root.get("embedding").get("values");
-                        float[] vector = new float[valueArray.size()];
-                        for (int i = 0; i < valueArray.size(); i++) {
-                            vector[i] = (float) valueArray.get(i).asDouble();
-                        }
-
-                        embeddedChunks.add(new EmbeddedChunk(chunk, vector));
-                        log.info("Successfully embedded chunk {} of {} with vector size {}", chunk.index(), chunk.path(), vector.length);
-                    } else {
-                        log.error("Invalid response format for chunk {} of {}: {}", chunk.index(), chunk.path(), responseBody);
-                        embeddedChunks.add(new EmbeddedChunk(chunk, null));
-                    }
-                } else {
-                    log.error("API returned status {} for chunk {} of {}: {}",
-                            response.statusCode(), chunk.index(), chunk.path(), response.body());
-                    embeddedChunks.add(new EmbeddedChunk(chunk, null));
-                }
-
-            } catch (Exception e) {
-                log.error("Failed to embed chunk {} of {}", chunk.index(), chunk.path(), e);
+                float[] vector = embeddingClient.embed(chunk.text(), Priority.BACKGROUND);
+                embeddedChunks.add(new EmbeddedChunk(chunk, vector));
+                log.info("Successfully embedded chunk {} of {} with vector size {}", chunk.index(), chunk.path(), vector.length);
+            } catch (IOException e) {
+                log.error("Failed to embed chunk {} of {} after retries", chunk.index(), chunk.path(), e);
                 embeddedChunks.add(new EmbeddedChunk(chunk, null));
             }
         }
@@ -290,22 +477,12 @@ public class ProfileSyncService {
         return embeddedChunks;
     }
 
-    /**
-     * Escape special characters for JSON
-     */
-    private String escapeJson(String text) {
-        return text.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\n", "\\n")
-                  .replace("\r", "\\r")
-                  .replace("\t", "\\t");
-    }
-
     /**
      * Store chunks in PostgreSQL with pgvector
+     * Single JDBC batch: one round trip instead of one per chunk
      */
     private int storeChunks(List<EmbeddedChunk> embeddedChunks) {
-        int stored = 0;
+        List<Object[]> rows = new ArrayList<>(embeddedChunks.size());
 
         for (EmbeddedChunk embedded : embeddedChunks) {
             if (embedded.vector() == null) {
@@ -314,38 +491,43 @@ public class ProfileSyncService {
                 continue;
             }
 
-            try {
-                // Convert float array to pgvector string format
-                String vectorStr = floatArrayToVectorString(embedded.vector());
-
-                // Upsert: delete existing chunks for same path+index, then insert
-                jdbcTemplate.update(
-                        "INSERT INTO vector_store (path, chunk_index, content, start_pos, end_pos, embedding) " +
-                                "VALUES (?, ?, ?, ?, ?, ?::vector) " +
-                                "ON CONFLICT (path, chunk_index) DO UPDATE " +
-                                "SET content = EXCLUDED.content, " +
-                                "    start_pos = EXCLUDED.start_pos, " +
-                                "    end_pos = EXCLUDED.end_pos, " +
-                                "    embedding = EXCLUDED.embedding, " +
-                                "    updated_at = NOW()",
-                        embedded.chunk().path(),
-                        embedded.chunk().index(),
-                        embedded.chunk().text(),
-                        embedded.chunk().startPos(),
-                        embedded.chunk().endPos(),
-                        vectorStr
-                );
-
-                stored++;
-
-            } catch (Exception e) {
-                log.error("Failed to store chunk {} of {}",
-                        embedded.chunk().index(), embedded.chunk().path(), e);
-            }
+            rows.add(new Object[]{
+                    embedded.chunk().path(),
+                    embedded.chunk().index(),
+                    embedded.chunk().text(),
+                    embedded.chunk().startPos(),
+                    embedded.chunk().endPos(),
+                    // Convert float array to pgvector string format
+                    floatArrayToVectorString(embedded.vector())
+            });
         }
 
-        log.info("storeChunks: Stored {} chunks total", stored);
-        return stored;
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            // Upsert on (path, chunk_index)
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO vector_store (path, chunk_index, content, start_pos, end_pos, embedding) " +
+                            "VALUES (?, ?, ?, ?, ?, ?::vector) " +
+                            "ON CONFLICT (path, chunk_index) DO UPDATE " +
+                            "SET content = EXCLUDED.content, " +
+                            "    start_pos = EXCLUDED.start_pos, " +
+                            "    end_pos = EXCLUDED.end_pos, " +
+                            "    embedding = EXCLUDED.embedding, " +
+                            "    updated_at = NOW()",
+                    rows
+            );
+        } catch (DataAccessException e) {
+            // Rethrow: the caller's transaction must roll back, and
+            // replaceDocuments must not delete the chunks being replaced
+            log.error("Failed to store batch of {} chunks", rows.size(), e);
+            throw e;
+        }
+
+        log.info("storeChunks: Stored {} chunks total", rows.size());
+        return rows.size();
     }
 
     /**
@@ -0,0 +1,182 @@
+package com.portfolio.service;
+
+import com.portfolio.config.EmbeddingProperties;
+import com.portfolio.service.EmbeddingRateLimiter.Priority;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Query Embedding Batcher - Coalesces concurrent query embeddings
+ *
+ * Under a burst of chat sessions each RAG tool call needs a query vector.
+ * Instead of one embedContent call per query:
+ * 1. The first queued query opens a batch window (rag.embedding.query-batch-window-ms)
+ * 2. Queries arriving inside the window join the batch, up to query-max-batch-size
+ * 3. The batch is sent as one batchEmbedContents call (one rate-limiter token)
+ * 4. Each caller's future is completed with its own vector
+ *
+ * Identical texts in a batch are embedded once. Batch sizes are recorded in
+ * the rag.embedding.query.batch.size histogram.
+ */
+@Service
+public class QueryEmbeddingBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryEmbeddingBatcher.class);
+
+    /**
+     * Sends one batch of texts, returning one vector per text in order
+     */
+    @FunctionalInterface
+    interface BatchEmbedder {
+        List<float[]> embed(List<String> texts) throws Exception;
+    }
+
+    private final BatchEmbedder embedder;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final IntConsumer batchSizeRecorder;
+
+    private final BlockingQueue<PendingQuery> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    @Autowired
+    public QueryEmbeddingBatcher(
+            EmbeddingClient embeddingClient,
+            EmbeddingProperties properties,
+            MeterRegistry meterRegistry) {
+        this(texts -> embeddingClient.embedBatch(texts, Priority.INTERACTIVE),
+                properties.getQueryBatchWindowMs(),
+                properties.getQueryMaxBatchSize(),
+                DistributionSummary.builder("rag.embedding.query.batch.size")
+                        .description("Queries sent per batchEmbedContents call")
+                        .serviceLevelObjectives(1, 2, 4, 8, 16, 32, 64)
+                        .register(meterRegistry)::record);
+        log.info("QueryEmbeddingBatcher initialized: window={}ms, maxBatchSize={}, enabled={}",
+                properties.getQueryBatchWindowMs(), properties.getQueryMaxBatchSize(),
+                properties.isQueryBatchingEnabled());
+    }
+
+    QueryEmbeddingBatcher(BatchEmbedder embedder, long windowMs, int maxBatchSize, IntConsumer batchSizeRecorder) {
+        this.embedder = embedder;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMs));
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.batchSizeRecorder = batchSizeRecorder;
+        this.dispatcher = Thread.ofPlatform()
+                .name("query-embedding-batcher")
+                .daemon(true)
+                .start(this::dispatchLoop);
+    }
+
+    /**
+     * Queue a query for the next batch
+     *
+     * @return Future completed with the query vector, or exceptionally if the batch failed
+     */
+    public CompletableFuture<float[]> submit(String text) {
+        PendingQuery pending = new PendingQuery(text, new CompletableFuture<>());
+        if (!running) {
+            pending.future().completeExceptionally(new IllegalStateException("Query embedding batcher is shut down"));
+            return pending.future();
+        }
+        queue.add(pending);
+        return pending.future();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        dispatcher.interrupt();
+        senders.shutdown();
+
+        List<PendingQuery> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        IllegalStateException error = new IllegalStateException("Query embedding batcher is shut down");
+        remaining.forEach(pending -> pending.future().completeExceptionally(error));
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                List<PendingQuery> batch = collectBatch();
+                senders.execute(() -> send(batch));
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return;
+                }
+            } catch (Exception e) {
+                log.error("Query embedding dispatcher error", e);
+            }
+        }
+    }
+
+    /**
+     * Block for the first query, then gather followers until the window closes or the batch is full
+     */
+    private List<PendingQuery> collectBatch() throws InterruptedException {
+        List<PendingQuery> batch = new ArrayList<>();
+        batch.add(queue.take());
+
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            PendingQuery next = remaining > 0
+                    ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                    : queue.poll();
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void send(List<PendingQuery> batch) {
+        batchSizeRecorder.accept(batch.size());
+
+        // Same text asked by several sessions -> embed once
+        Map<String, List<PendingQuery>> byText = new LinkedHashMap<>();
+        for (PendingQuery pending : batch) {
+            byText.computeIfAbsent(pending.text(), k -> new ArrayList<>()).add(pending);
+        }
+        List<String> texts = new ArrayList<>(byText.keySet());
+
+        try {
+            List<float[]> vectors = embedder.embed(texts);
+            if (vectors.size() != texts.size()) {
+                throw new IllegalStateException("Expected " + texts.size() + " vectors, got " + vectors.size());
+            }
+            for (int i = 0; i < texts.size(); i++) {
+                float[] vector = vectors.get(i);
+                byText.get(texts.get(i)).forEach(pending -> pending.future().complete(vector));
+            }
+            log.debug("Embedded query batch: {} queries, {} unique", batch.size(), texts.size());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.warn("Query embedding batch of {} failed: {}", batch.size(), e.getMessage());
+            batch.forEach(pending -> pending.future().completeExceptionally(e));
+        }
+    }
+
+    private record PendingQuery(String text, CompletableFuture<float[]> future) {}
+}
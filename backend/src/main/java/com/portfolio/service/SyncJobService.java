@@ -0,0 +1,110 @@
+package com.portfolio.service;
+
+import com.portfolio.model.SyncJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sync Job Service - Runs profile syncs in the background
+ *
+ * - At most one sync runs at a time; a second submit is rejected
+ * - Jobs are kept in memory (last {@value #MAX_RETAINED_JOBS}) for status polling
+ */
+@Service
+public class SyncJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncJobService.class);
+    private static final int MAX_RETAINED_JOBS = 20;
+
+    private final ProfileSyncService profileSyncService;
+    private final Executor executor;
+    private final AtomicReference<SyncJob> activeJob = new AtomicReference<>();
+
+    private final Map<String, SyncJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SyncJob> eldest) {
+            return size() > MAX_RETAINED_JOBS;
+        }
+    };
+
+    public SyncJobService(
+            ProfileSyncService profileSyncService,
+            @Qualifier("ragSyncExecutor") Executor executor) {
+        this.profileSyncService = profileSyncService;
+        this.executor = executor;
+    }
+
+    /**
+     * Submit a sync job
+     *
+     * @param profileJson profile.json content, or null to use the classpath copy
+     * @return The new job, or empty if a sync is already running
+     */
+    public Optional<SyncJob> submit(String profileJson) {
+        boolean fromRequest = profileJson != null && !profileJson.isBlank();
+        SyncJob job = new SyncJob(fromRequest ? "request" : "classpath");
+
+        if (!activeJob.compareAndSet(null, job)) {
+            return Optional.empty();
+        }
+
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+        }
+
+        try {
+            executor.execute(() -> run(job, fromRequest ? profileJson : null));
+        } catch (RuntimeException e) {
+            log.error("Failed to schedule sync job {}", job.getId(), e);
+            job.markFailed("Could not schedule job: " + e.getMessage());
+            activeJob.compareAndSet(job, null);
+        }
+
+        log.info("Submitted sync job {} (source: {})", job.getId(), fromRequest ? "request" : "classpath");
+        return Optional.of(job);
+    }
+
+    public Optional<SyncJob> getJob(String jobId) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(jobId));
+        }
+    }
+
+    public Optional<SyncJob> getActiveJob() {
+        return Optional.ofNullable(activeJob.get());
+    }
+
+    public List<SyncJob> recentJobs() {
+        synchronized (jobs) {
+            List<SyncJob> recent = new ArrayList<>(jobs.values());
+            Collections.reverse(recent);
+            return recent;
+        }
+    }
+
+    private void run(SyncJob job, String profileJson) {
+        job.markRunning();
+        try {
+            String json = profileJson != null ? profileJson : profileSyncService.loadProfileFromResources();
+            int stored = profileSyncService.syncProfile(json, job.getMetrics());
+            job.markSucceeded();
+            log.info("Sync job {} succeeded: {} chunks stored", job.getId(), stored);
+        } catch (Exception e) {
+            log.error("Sync job {} failed", job.getId(), e);
+            job.markFailed(e.getMessage());
+        } finally {
+            activeJob.compareAndSet(job, null);
+        }
+    }
+}
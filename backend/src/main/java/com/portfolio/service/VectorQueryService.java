@@ -1,21 +1,24 @@
 package com.portfolio.service;
 
-import com.google.genai.Client;
-import com.google.genai.types.EmbedContentResponse;
+import com.portfolio.config.EmbeddingProperties;
+import com.portfolio.service.EmbeddingRateLimiter.Priority;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Vector Query Service - Query the PostgreSQL vector store using Google GenAI embeddings
  *
  * This service:
  * 1. Takes a user query
- * 2. Generates embedding using Google GenAI SDK (gemini-embedding-001)
+ * 2. Generates embedding via the shared EmbeddingClient (gemini-embedding-001, interactive priority),
+ *    micro-batched with concurrent queries by QueryEmbeddingBatcher
  * 3. Performs cosine similarity search in PostgreSQL using pgvector
  * 4. Returns the most relevant document chunks
  */
@@ -23,16 +26,21 @@ import java.util.*;
 public class VectorQueryService {
 
     private static final Logger log = LoggerFactory.getLogger(VectorQueryService.class);
-    private static final String EMBEDDING_MODEL = "gemini-embedding-001";
-    private static final int EMBEDDING_DIMENSIONS = 3072;
+    private static final int EMBEDDING_DIMENSIONS = EmbeddingClient.EMBEDDING_DIMENSIONS;
 
-    private final Client genaiClient;
+    private final EmbeddingClient embeddingClient;
+    private final QueryEmbeddingBatcher queryEmbeddingBatcher;
+    private final EmbeddingProperties embeddingProperties;
     private final JdbcTemplate jdbcTemplate;
 
     public VectorQueryService(
-            @Value("${google.api.key}") String apiKey,
+            EmbeddingClient embeddingClient,
+            QueryEmbeddingBatcher queryEmbeddingBatcher,
+            EmbeddingProperties embeddingProperties,
             JdbcTemplate jdbcTemplate) {
-        this.genaiClient = Client.builder().apiKey(apiKey).build();
+        this.embeddingClient = embeddingClient;
+        this.queryEmbeddingBatcher = queryEmbeddingBatcher;
+        this.embeddingProperties = embeddingProperties;
         this.jdbcTemplate = jdbcTemplate;
     }
 
@@ -203,32 +211,29 @@ public class VectorQueryService {
     }
 
     /**
-     * Generate embedding for a query using Google GenAI SDK
+     * Generate embedding for a query
+     * Interactive priority: chat queries are served ahead of background sync traffic.
+     * Concurrent queries are micro-batched into one API call when batching is enabled.
+     * A batched query gives up after query-timeout-ms so a stuck batch cannot hold the chat.
+     *
+     * @return Query vector, or null if embedding failed or timed out
      */
-    private float[] embedQuery(String query) {
+    public float[] embedQuery(String query) {
+        CompletableFuture<float[]> pending = null;
         try {
-            EmbedContentResponse response = genaiClient.models.embedContent(
-                    EMBEDDING_MODEL,
-                    query,
-                    null
-            );
-
-            // Extract embedding values
-            if (response.embeddings().isPresent() &&
-                !response.embeddings().get().isEmpty() &&
-                response.embeddings().get().get(0).values().isPresent()) {
-
-                List<Float> values = response.embeddings().get().get(0).values().get();
-                float[] vector = new float[values.size()];
-                for (int i = 0; i < values.size(); i++) {
-                    vector[i] = values.get(i);
-                }
-                return vector;
+            if (embeddingProperties.isQueryBatchingEnabled()) {
+                pending = queryEmbeddingBatcher.submit(query);
+                return pending.get(embeddingProperties.getQueryTimeoutMs(), TimeUnit.MILLISECONDS);
             }
-
-            log.error("Empty embedding response for query: {}", query);
+            return embeddingClient.embed(query, Priority.INTERACTIVE);
+        } catch (TimeoutException e) {
+            pending.cancel(false);
+            log.warn("Timed out after {}ms embedding query: {}", embeddingProperties.getQueryTimeoutMs(), query);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while embedding query: {}", query);
             return null;
-
         } catch (Exception e) {
             log.error("Failed to embed query: {}", query, e);
             return null;
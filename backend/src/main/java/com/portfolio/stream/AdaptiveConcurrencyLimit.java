@@ -0,0 +1,122 @@
+package com.portfolio.stream;
+
+/**
+ * Adaptive Concurrency Limit - AIMD limit driven by stream latency
+ *
+ * Each completed stream contributes a sample (time to first token, total
+ * stream time). Both are tracked as a short EWMA (recent behaviour) and a
+ * long EWMA (baseline):
+ * - Degraded (either short average above tolerance x its baseline):
+ *   limit *= backoff-ratio, then no further decrease for one "round"
+ *   (as many samples as the limit) so streams admitted under the old
+ *   limit do not trigger a cascade of cuts
+ * - Healthy and the limit is actually in use (in-flight >= limit / 2):
+ *   limit grows by one per round (+1/limit per sample)
+ *
+ * The baseline follows sustained shifts (e.g. a slower model) within a
+ * few dozen samples, after which the limit may grow again.
+ *
+ * The limit stays within [min, max]. Not thread-safe: the owner
+ * (ChatAdmissionController) calls it under its lock.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    /**
+     * Samples that only seed the averages before the limit may move
+     */
+    static final int WARMUP_SAMPLES = 10;
+
+    private static final double SHORT_WEIGHT = 0.2;
+    private static final double LONG_WEIGHT = 0.02;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+
+    private final LatencyAverage ttft = new LatencyAverage();
+    private final LatencyAverage total = new LatencyAverage();
+
+    private int limit;
+    private int samples;
+    private int decreaseCooldown;
+    private double increaseCredit;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoffRatio) {
+        // The configured starting limit always lies within the bounds
+        this.minLimit = Math.max(1, Math.min(minLimit, initialLimit));
+        this.maxLimit = Math.max(Math.max(this.minLimit, maxLimit), initialLimit);
+        this.tolerance = Math.max(1.0, tolerance);
+        this.backoffRatio = Math.min(0.99, Math.max(0.1, backoffRatio));
+        this.limit = clamp(initialLimit);
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    /**
+     * Record one completed stream
+     *
+     * @param ttftMs   Time to first token (negative if the stream produced no text)
+     * @param totalMs  Total stream time
+     * @param inFlight Streams running when the sample was taken
+     * @return New limit
+     */
+    public int onSample(long ttftMs, long totalMs, int inFlight) {
+        if (ttftMs >= 0) {
+            ttft.add(ttftMs);
+        }
+        total.add(totalMs);
+
+        if (++samples <= WARMUP_SAMPLES) {
+            return limit;
+        }
+        if (decreaseCooldown > 0) {
+            decreaseCooldown--;
+        }
+
+        if (ttft.degraded(tolerance) || total.degraded(tolerance)) {
+            increaseCredit = 0;
+            if (decreaseCooldown == 0 && limit > minLimit) {
+                limit = clamp((int) Math.floor(limit * backoffRatio));
+                decreaseCooldown = limit;
+            }
+        } else if (inFlight * 2 >= limit && limit < maxLimit) {
+            increaseCredit += 1.0 / limit;
+            if (increaseCredit >= 1.0) {
+                increaseCredit = 0;
+                limit = clamp(limit + 1);
+            }
+        }
+        return limit;
+    }
+
+    private int clamp(int value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    /**
+     * Short and long EWMA of one latency signal
+     */
+    private static class LatencyAverage {
+        private double shortAverage;
+        private double longAverage;
+        private boolean initialized;
+
+        void add(double value) {
+            if (!initialized) {
+                shortAverage = value;
+                longAverage = value;
+                initialized = true;
+                return;
+            }
+            shortAverage += SHORT_WEIGHT * (value - shortAverage);
+            longAverage += LONG_WEIGHT * (value - longAverage);
+        }
+
+        boolean degraded(double tolerance) {
+            return initialized && longAverage > 0 && shortAverage > tolerance * longAverage;
+        }
+    }
+}
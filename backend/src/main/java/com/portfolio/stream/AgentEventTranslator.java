@@ -0,0 +1,259 @@
+package com.portfolio.stream;
+
+import com.google.adk.events.Event;
+import com.google.genai.types.FunctionCall;
+import com.google.genai.types.FunctionResponse;
+import com.portfolio.model.StreamEvents;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agent Event Translator - The chat stream state machine
+ *
+ * Turns ADK events into the StreamEvents protocol, one instance per stream:
+ * 1. THINKING: partial text -> thinking_start + thinking_delta
+ * 2. TOOL CALLS: function calls -> thinking_end + tool_call_start
+ * 3. TOOL RESULTS: function responses -> tool_call_end (matched to the
+ *    oldest open call of the same tool name)
+ * 4. FINAL RESPONSE: non-partial text -> response_start + response_delta
+ * 5. Turn complete / end of stream -> close open phases
+ *
+ * Shared by the SseEmitter-style endpoint (writing to a DeltaCoalescer) and
+ * the reactive endpoint (collecting events per ADK event).
+ *
+ * Each stream feeds its events from one thread at a time, so the state is
+ * plain fields; only the counters read by other threads (output size, first
+ * output time, agent) are volatile.
+ */
+public class AgentEventTranslator {
+
+    private static final int MAX_TOOL_RESULT_CHARS = 1000;
+
+    /**
+     * Destination for translated events
+     */
+    public interface Output {
+        void send(StreamEvents.StreamEvent event) throws IOException;
+
+        void delta(DeltaCoalescer.Phase phase, String text) throws IOException;
+    }
+
+    // Phase tracking (one thread per stream: plain fields)
+    private boolean thinkingPhaseSent;
+    private boolean thinkingContentSent;
+    private boolean responsePhaseStarted;
+    private boolean responseCompleteSent;
+
+    // Content tracking
+    private final DeltaTracker thinkingContent = new DeltaTracker();
+    private final DeltaTracker responseContent = new DeltaTracker();
+
+    // Tool tracking: open tool ids per tool name, oldest first
+    private final Map<String, ArrayDeque<String>> openTools = new HashMap<>();
+    private int toolCallCounter;
+
+    // Read from disconnect callbacks and metrics on other threads
+    private volatile int outputChars;
+    private volatile long firstOutputNanos;
+    private volatile String agent = "unknown";
+
+    /**
+     * Translate one ADK event
+     */
+    public void onEvent(Event event, Output out) throws IOException {
+        String author = event.author();
+        if (author != null && !author.isEmpty() && !"user".equals(author)) {
+            agent = author;
+        }
+        boolean partial = event.partial().orElse(false);
+
+        // PHASE 1: THINKING
+        if (partial) {
+            if (!thinkingPhaseSent) {
+                thinkingPhaseSent = true;
+                out.send(new StreamEvents.ThinkingStartEvent());
+            }
+
+            String content = extractTextContent(event);
+            if (content != null) {
+                String delta = thinkingContent.next(content);
+                if (!delta.isEmpty()) {
+                    out.delta(DeltaCoalescer.Phase.THINKING, delta);
+                    recordOutput(delta.length());
+                    thinkingContentSent = true;
+                }
+            }
+        }
+
+        // PHASE 2: TOOL CALLS
+        List<FunctionCall> calls = event.functionCalls();
+        if (calls != null && !calls.isEmpty()) {
+            if (thinkingContentSent && thinkingPhaseSent) {
+                out.send(new StreamEvents.ThinkingEndEvent());
+                thinkingPhaseSent = false;
+            }
+
+            for (FunctionCall call : calls) {
+                String toolId = "tool_" + ++toolCallCounter;
+                String toolName = call.name().orElse("unknown");
+                String args = call.args().map(Object::toString).orElse("{}");
+
+                openTools.computeIfAbsent(toolName, name -> new ArrayDeque<>(2)).addLast(toolId);
+                out.send(new StreamEvents.ToolCallStartEvent(toolId, toolName, args));
+            }
+        }
+
+        // PHASE 3: TOOL RESULTS (matched to the oldest open call of that tool)
+        List<FunctionResponse> responses = event.functionResponses();
+        if (responses != null && !responses.isEmpty()) {
+            for (FunctionResponse response : responses) {
+                String toolName = response.name().orElse("unknown");
+                ArrayDeque<String> pending = openTools.get(toolName);
+                String toolId = pending != null ? pending.pollFirst() : null;
+                if (toolId == null) {
+                    continue;
+                }
+                String result = response.response().map(Object::toString).orElse("Success");
+                out.send(new StreamEvents.ToolCallEndEvent(toolId, toolName, truncateResult(result), true));
+            }
+        }
+
+        // PHASE 4: FINAL RESPONSE
+        if (!partial) {
+            String content = extractTextContent(event);
+            if (content != null) {
+                if (thinkingPhaseSent) {
+                    out.send(new StreamEvents.ThinkingEndEvent());
+                    thinkingPhaseSent = false;
+                }
+
+                if (!responsePhaseStarted) {
+                    responsePhaseStarted = true;
+                    out.send(new StreamEvents.ResponseStartEvent());
+                }
+
+                String delta = responseContent.next(content);
+                if (!delta.isEmpty()) {
+                    out.delta(DeltaCoalescer.Phase.RESPONSE, delta);
+                    recordOutput(delta.length());
+                }
+            }
+        }
+
+        // Check if turn is complete
+        if (event.turnComplete().orElse(false)) {
+            if (thinkingPhaseSent) {
+                out.send(new StreamEvents.ThinkingEndEvent());
+                thinkingPhaseSent = false;
+            }
+
+            if (responsePhaseStarted && !responseCompleteSent) {
+                responseCompleteSent = true;
+                out.send(new StreamEvents.ResponseEndEvent());
+            }
+        }
+    }
+
+    /**
+     * Close any open phase and send complete
+     */
+    public void finish(Output out) throws IOException {
+        if (thinkingPhaseSent) {
+            out.send(new StreamEvents.ThinkingEndEvent());
+        }
+        if (responsePhaseStarted && !responseCompleteSent) {
+            out.send(new StreamEvents.ResponseEndEvent());
+        }
+
+        out.send(new StreamEvents.CompleteEvent());
+    }
+
+    /**
+     * Thinking + response characters emitted so far
+     */
+    public int outputChars() {
+        return outputChars;
+    }
+
+    /**
+     * Latest agent that authored an event ("unknown" before the first one)
+     */
+    public String agent() {
+        return agent;
+    }
+
+    /**
+     * System.nanoTime() of the first thinking/response delta, 0 if none yet
+     */
+    public long firstOutputNanos() {
+        return firstOutputNanos;
+    }
+
+    private void recordOutput(int chars) {
+        if (firstOutputNanos == 0) {
+            firstOutputNanos = System.nanoTime();
+        }
+        // Single writer: the stream's thread
+        outputChars += chars;
+    }
+
+    /**
+     * Translate one ADK event into a list (reactive pipelines)
+     */
+    public List<StreamEvents.StreamEvent> translate(Event event) throws IOException {
+        CollectingOutput out = new CollectingOutput();
+        onEvent(event, out);
+        return out.events;
+    }
+
+    /**
+     * Closing events as a list (reactive pipelines)
+     */
+    public List<StreamEvents.StreamEvent> finish() throws IOException {
+        CollectingOutput out = new CollectingOutput();
+        finish(out);
+        return out.events;
+    }
+
+    /**
+     * Extract text content from event
+     */
+    private String extractTextContent(Event event) {
+        return event.content()
+                .map(content -> {
+                    String text = content.text();
+                    return text != null && !text.isBlank() ? text : null;
+                })
+                .orElse(null);
+    }
+
+    /**
+     * Truncate tool result
+     */
+    private String truncateResult(String result) {
+        if (result == null) return "";
+        if (result.length() <= MAX_TOOL_RESULT_CHARS) return result;
+        return result.substring(0, MAX_TOOL_RESULT_CHARS) + "... (truncated)";
+    }
+
+    private static class CollectingOutput implements Output {
+        private final List<StreamEvents.StreamEvent> events = new ArrayList<>(4);
+
+        @Override
+        public void send(StreamEvents.StreamEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void delta(DeltaCoalescer.Phase phase, String text) {
+            events.add(phase == DeltaCoalescer.Phase.THINKING
+                    ? new StreamEvents.ThinkingDeltaEvent(text)
+                    : new StreamEvents.ResponseDeltaEvent(text));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.portfolio.stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffered Client - Bounded outbound queue in front of one SSE or WebSocket connection
+ *
+ * {@link #sendFrame} only enqueues; a virtual thread per connection does the
+ * blocking writes, so a slow reader never stalls the agent worker, the shared
+ * flush scheduler or the other clients of a shared run.
+ *
+ * Slow-consumer policy:
+ * 1. Coalesce: frames that piled up while a write was in progress go out as
+ *    one write (fewer flushes for a client that is only a little behind)
+ * 2. Drop: once queued bytes exceed max-bytes, or one write has been blocked
+ *    longer than stall-timeout, the connection is closed and sendFrame throws,
+ *    detaching it from the stream (the client may resume with Last-Event-ID)
+ */
+public class BufferedClient implements ResumableStream.Client {
+
+    private static final Logger log = LoggerFactory.getLogger(BufferedClient.class);
+
+    private final ResumableStream.Client delegate;
+    private final long maxBytes;
+    private final boolean coalesce;
+    private final long stallTimeoutNanos;
+    private final Runnable onDropped;
+
+    private final ArrayDeque<byte[]> queue = new ArrayDeque<>();
+    private long queuedBytes;
+    private boolean writing;
+    private long writeStartedNanos;
+    private boolean closed;
+    private boolean completing;
+    private Throwable completionError;
+
+    public BufferedClient(
+            ResumableStream.Client delegate,
+            long maxBytes,
+            boolean coalesce,
+            long stallTimeoutMs,
+            Runnable onDropped) {
+        this.delegate = delegate;
+        this.maxBytes = Math.max(1, maxBytes);
+        this.coalesce = coalesce;
+        this.stallTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, stallTimeoutMs));
+        this.onDropped = onDropped;
+    }
+
+    @Override
+    public synchronized void sendFrame(byte[] frame) throws IOException {
+        if (closed || completing) {
+            throw new IOException("Connection closed");
+        }
+        if (queuedBytes + frame.length > maxBytes) {
+            drop("outbound queue over " + maxBytes + " bytes");
+        }
+        if (writing && System.nanoTime() - writeStartedNanos > stallTimeoutNanos) {
+            drop("write blocked for over " + TimeUnit.NANOSECONDS.toMillis(stallTimeoutNanos) + "ms");
+        }
+        queue.addLast(frame);
+        queuedBytes += frame.length;
+        startWriter();
+    }
+
+    @Override
+    public synchronized void complete() {
+        finishAfterQueue(null);
+    }
+
+    @Override
+    public synchronized void completeWithError(Throwable ex) {
+        finishAfterQueue(ex);
+    }
+
+    public synchronized long queuedBytes() {
+        return queuedBytes;
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private void finishAfterQueue(Throwable ex) {
+        if (closed || completing) {
+            return;
+        }
+        completing = true;
+        completionError = ex;
+        startWriter();
+    }
+
+    private void drop(String reason) throws IOException {
+        closed = true;
+        queue.clear();
+        queuedBytes = 0;
+        log.info("Dropping slow client: {}", reason);
+        onDropped.run();
+        if (!writing) {
+            delegate.completeWithError(new IOException("Client too slow: " + reason));
+        }
+        throw new IOException("Client too slow: " + reason);
+    }
+
+    private void startWriter() {
+        if (!writing) {
+            writing = true;
+            writeStartedNanos = System.nanoTime();
+            Thread.ofVirtual().name("sse-writer").start(this::drain);
+        }
+    }
+
+    /**
+     * Writer loop: one write per batch of queued frames; the delegate is
+     * only called outside the monitor so producers never wait on the socket
+     */
+    private void drain() {
+        while (true) {
+            byte[] batch;
+            Throwable ending;
+            synchronized (this) {
+                if (closed) {
+                    writing = false;
+                    ending = new IOException("Client too slow");
+                    batch = null;
+                } else if (queue.isEmpty()) {
+                    writing = false;
+                    if (!completing) {
+                        return;
+                    }
+                    closed = true;
+                    ending = completionError;
+                    batch = null;
+                } else {
+                    batch = coalesce ? takeAll() : queue.removeFirst();
+                    queuedBytes -= batch.length;
+                    writeStartedNanos = System.nanoTime();
+                    ending = null;
+                }
+            }
+
+            if (batch == null) {
+                if (ending != null) {
+                    delegate.completeWithError(ending);
+                } else {
+                    delegate.complete();
+                }
+                return;
+            }
+
+            try {
+                delegate.sendFrame(batch);
+            } catch (IOException e) {
+                synchronized (this) {
+                    closed = true;
+                    writing = false;
+                    queue.clear();
+                    queuedBytes = 0;
+                }
+                log.debug("Outbound write failed: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private byte[] takeAll() {
+        if (queue.size() == 1) {
+            return queue.removeFirst();
+        }
+        byte[] batch = new byte[(int) queuedBytes];
+        int position = 0;
+        while (!queue.isEmpty()) {
+            byte[] frame = queue.removeFirst();
+            System.arraycopy(frame, 0, batch, position, frame.length);
+            position += frame.length;
+        }
+        return batch;
+    }
+}
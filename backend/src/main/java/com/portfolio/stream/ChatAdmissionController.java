@@ -0,0 +1,195 @@
+package com.portfolio.stream;
+
+import com.portfolio.config.ChatStreamProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Chat Admission Controller - Caps concurrent chat streams
+ *
+ * - Up to max-concurrent streams run at once
+ * - Up to queue-capacity further requests wait (FIFO) for queue-timeout-ms
+ * - Everything else is rejected immediately so the caller can answer 503
+ *
+ * With the adaptive limit enabled, max-concurrent is only the starting point:
+ * completed streams report their latency via {@link #recordLatency} and
+ * AdaptiveConcurrencyLimit moves the limit between the adaptive bounds.
+ *
+ * Gauges: chat.stream.active, chat.stream.queued, chat.stream.limit;
+ * counter: chat.stream.rejected
+ */
+@Component
+public class ChatAdmissionController {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatAdmissionController.class);
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition slotFreed = lock.newCondition();
+
+    private final AdaptiveConcurrencyLimit adaptiveLimit;
+    private final int queueCapacity;
+    private final long queueTimeoutNanos;
+    private final Counter rejectedCounter;
+
+    private int limit;
+    private int active;
+    private int queued;
+
+    public ChatAdmissionController(ChatStreamProperties properties, MeterRegistry meterRegistry) {
+        this.limit = Math.max(1, properties.getMaxConcurrent());
+        this.queueCapacity = Math.max(0, properties.getQueueCapacity());
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, properties.getQueueTimeoutMs()));
+        this.adaptiveLimit = properties.isAdaptiveLimitEnabled()
+                ? new AdaptiveConcurrencyLimit(
+                        limit,
+                        properties.getAdaptiveMinConcurrent(),
+                        properties.getAdaptiveMaxConcurrent(),
+                        properties.getAdaptiveLatencyTolerance(),
+                        properties.getAdaptiveBackoffRatio())
+                : null;
+        if (adaptiveLimit != null) {
+            this.limit = adaptiveLimit.limit();
+        }
+
+        Gauge.builder("chat.stream.active", this, ChatAdmissionController::active)
+                .description("Chat streams currently running")
+                .register(meterRegistry);
+        Gauge.builder("chat.stream.queued", this, ChatAdmissionController::queued)
+                .description("Chat requests waiting for a stream slot")
+                .register(meterRegistry);
+        Gauge.builder("chat.stream.limit", this, ChatAdmissionController::limit)
+                .description("Current chat stream concurrency limit")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("chat.stream.rejected")
+                .description("Chat requests rejected because all slots and queue places were taken")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Take a stream slot, waiting briefly in the queue if all are busy
+     *
+     * @return Permit to release when the stream ends, or null if rejected
+     */
+    public Permit acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            // Queued requests go first; newcomers only take a slot when nobody waits
+            if (active < limit && queued == 0) {
+                active++;
+                return new Permit();
+            }
+            if (queued >= queueCapacity) {
+                rejectedCounter.increment();
+                return null;
+            }
+
+            queued++;
+            try {
+                long remaining = queueTimeoutNanos;
+                while (active >= limit) {
+                    if (remaining <= 0) {
+                        rejectedCounter.increment();
+                        return null;
+                    }
+                    remaining = slotFreed.awaitNanos(remaining);
+                }
+                active++;
+                return new Permit();
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Feed one completed stream's latency to the adaptive limit
+     *
+     * @param ttftMs  Time to first token (negative if no text was produced)
+     * @param totalMs Total stream time
+     */
+    public void recordLatency(long ttftMs, long totalMs) {
+        if (adaptiveLimit == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            int previous = limit;
+            limit = adaptiveLimit.onSample(ttftMs, totalMs, active);
+            if (limit != previous) {
+                log.info("Chat stream concurrency limit {} -> {} (ttft={}ms, total={}ms)", previous, limit, ttftMs, totalMs);
+                if (limit > previous) {
+                    slotFreed.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int active() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long rejected() {
+        return (long) rejectedCounter.count();
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            active--;
+            slotFreed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * One admitted stream; release is idempotent
+     */
+    public final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Permit() {}
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                ChatAdmissionController.this.release();
+            }
+        }
+    }
+}
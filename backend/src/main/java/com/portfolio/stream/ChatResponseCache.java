@@ -0,0 +1,390 @@
+package com.portfolio.stream;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.portfolio.config.ChatResponseCacheProperties;
+import com.portfolio.model.ProfileSyncedEvent;
+import com.portfolio.model.StreamEvents;
+import com.portfolio.service.VectorQueryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Chat Response Cache - Replays recorded streams for repeated questions
+ *
+ * A completed first-turn stream is recorded as its StreamEvents sequence
+ * (after session_start) and keyed by the normalized message plus the current
+ * data version. A later identical question replays the events from memory
+ * without running the agent.
+ *
+ * Semantic layer (off by default): recorded questions also keep their query
+ * embedding. On an exact miss, {@link #lookupSimilar} embeds the new question
+ * and replays the most similar recorded answer at or above semantic-threshold
+ * (cosine). The embedding is only requested when there is something to compare
+ * against; otherwise it is computed at commit, after the client has its answer.
+ * The lookup waits at most semantic-timeout-ms for it and counts a miss
+ * otherwise; the embedding still completes in the background for commit.
+ *
+ * - Streams that errored, were cancelled or exceed max-entry-bytes are not kept
+ * - Entries expire after ttl-minutes; size is bounded by max-entries and
+ *   max-bytes (estimated)
+ * - ProfileSyncedEvent bumps the data version and drops every entry;
+ *   recordings started before the sync are discarded on commit
+ *
+ * Metrics: chat.response.cache.hits (match=exact|semantic) / misses counters,
+ * chat.response.cache.hit.ratio and chat.response.cache.size gauges
+ */
+@Component
+public class ChatResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatResponseCache.class);
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[\\s?!.]+$");
+    private static final int EVENT_OVERHEAD_BYTES = 64;
+    private static final Executor EMBEDDER = task -> Thread.ofVirtual().name("question-embed").start(task);
+
+    /**
+     * Embeds a question; returns null on failure
+     */
+    interface QuestionEmbedder {
+        float[] embed(String question);
+    }
+
+    private final boolean enabled;
+    private final long maxEntryBytes;
+    private final boolean semanticEnabled;
+    private final double semanticThreshold;
+    private final long semanticTimeoutMs;
+    private final QuestionEmbedder embedder;
+    private final Cache<Key, Entry> cache;
+    private final AtomicLong dataVersion = new AtomicLong();
+    private final Counter exactHits;
+    private final Counter semanticHits;
+    private final Counter misses;
+
+    @Autowired
+    public ChatResponseCache(
+            ChatResponseCacheProperties properties,
+            MeterRegistry meterRegistry,
+            VectorQueryService vectorQueryService) {
+        this(properties, meterRegistry, vectorQueryService::embedQuery);
+    }
+
+    ChatResponseCache(ChatResponseCacheProperties properties, MeterRegistry meterRegistry, QuestionEmbedder embedder) {
+        this.enabled = properties.isEnabled();
+        this.maxEntryBytes = properties.getMaxEntryBytes();
+        this.semanticEnabled = properties.isSemanticEnabled();
+        this.semanticThreshold = properties.getSemanticThreshold();
+        this.semanticTimeoutMs = properties.getSemanticTimeoutMs();
+        this.embedder = embedder;
+
+        // Every entry weighs at least maxBytes / maxEntries, so the byte bound
+        // also caps the entry count
+        long maxBytes = Math.max(1, properties.getMaxBytes());
+        long minEntryWeight = Math.max(1, maxBytes / Math.max(1, properties.getMaxEntries()));
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getTtlMinutes(), TimeUnit.MINUTES)
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Entry entry) -> (int) Math.min(Integer.MAX_VALUE, Math.max(minEntryWeight, entry.bytes())))
+                .build();
+
+        this.exactHits = Counter.builder("chat.response.cache.hits")
+                .description("Chat questions answered from a recorded stream")
+                .tag("match", "exact")
+                .register(meterRegistry);
+        this.semanticHits = Counter.builder("chat.response.cache.hits")
+                .description("Chat questions answered from a recorded stream")
+                .tag("match", "semantic")
+                .register(meterRegistry);
+        this.misses = Counter.builder("chat.response.cache.misses")
+                .description("Cacheable chat questions that ran the agent")
+                .register(meterRegistry);
+        Gauge.builder("chat.response.cache.hit.ratio", this, ChatResponseCache::hitRatio)
+                .description("Share of cacheable chat questions answered from the cache")
+                .register(meterRegistry);
+        Gauge.builder("chat.response.cache.size", this, ChatResponseCache::size)
+                .description("Recorded chat responses held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Recorded events for exactly this question (cheap, no embedding)
+     *
+     * Counts the hit; a miss is only counted here when the semantic layer is
+     * off, otherwise {@link #lookupSimilar} decides.
+     *
+     * @return Events to replay (without session_start), or null on a miss
+     */
+    public List<StreamEvents.StreamEvent> lookup(String message) {
+        if (!enabled) {
+            return null;
+        }
+        String normalized = normalize(message);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(new Key(normalized, dataVersion.get()));
+        if (entry == null) {
+            if (!semanticEnabled) {
+                misses.increment();
+            }
+            return null;
+        }
+        exactHits.increment();
+        return entry.events();
+    }
+
+    /**
+     * Recorded answer to the most similar recorded question, after an exact miss
+     *
+     * Embeds the question (the vector is kept on the recording for commit).
+     * Blocks for up to semantic-timeout-ms; run it off the request thread.
+     *
+     * @return Events to replay (without session_start), or null on a miss
+     */
+    public List<StreamEvents.StreamEvent> lookupSimilar(Recording recording) {
+        if (!semanticEnabled || recording == null) {
+            return null;
+        }
+        long version = recording.key.dataVersion();
+        boolean anyCandidate = cache.asMap().entrySet().stream()
+                .anyMatch(e -> e.getKey().dataVersion() == version && e.getValue().question() != null);
+        if (!anyCandidate) {
+            misses.increment();
+            return null;
+        }
+
+        Question question = recording.questionWithin(semanticTimeoutMs);
+        if (question == null) {
+            misses.increment();
+            return null;
+        }
+
+        Entry best = null;
+        double bestSimilarity = semanticThreshold;
+        for (Map.Entry<Key, Entry> candidate : cache.asMap().entrySet()) {
+            Question other = candidate.getValue().question();
+            if (candidate.getKey().dataVersion() != version || other == null) {
+                continue;
+            }
+            double similarity = question.cosine(other);
+            if (similarity >= bestSimilarity) {
+                bestSimilarity = similarity;
+                best = candidate.getValue();
+            }
+        }
+
+        if (best == null) {
+            misses.increment();
+            return null;
+        }
+        semanticHits.increment();
+        log.debug("Semantic cache hit for '{}' (similarity {})", recording.key.message(), bestSimilarity);
+        return best.events();
+    }
+
+    /**
+     * Start recording a stream for this question
+     *
+     * @return Recording to feed and commit, or null if caching is off
+     */
+    public Recording record(String message) {
+        if (!enabled) {
+            return null;
+        }
+        String normalized = normalize(message);
+        return normalized.isEmpty() ? null : new Recording(new Key(normalized, dataVersion.get()));
+    }
+
+    /**
+     * Knowledge changed: answers recorded so far may be stale
+     *
+     * Runs after the sync transaction commits (immediately when published
+     * outside a transaction).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileSynced(ProfileSyncedEvent event) {
+        dataVersion.incrementAndGet();
+        long dropped = cache.estimatedSize();
+        cache.invalidateAll();
+        log.info("Chat response cache invalidated after sync of {} ({} entries dropped)", event.scope(), dropped);
+    }
+
+    public double hitRatio() {
+        double hits = exactHits.count() + semanticHits.count();
+        double total = hits + misses.count();
+        return total == 0 ? 0.0 : hits / total;
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Cache key form of a question: case, inner whitespace and trailing
+     * punctuation do not matter
+     */
+    public static String normalize(String message) {
+        if (message == null) {
+            return "";
+        }
+        String collapsed = WHITESPACE.matcher(message.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+        return TRAILING_PUNCTUATION.matcher(collapsed).replaceAll("");
+    }
+
+    /**
+     * Final response text of recorded events (seeds the conversation history
+     * on replay)
+     */
+    public static String responseText(List<StreamEvents.StreamEvent> events) {
+        StringBuilder text = new StringBuilder();
+        for (StreamEvents.StreamEvent event : events) {
+            if (event instanceof StreamEvents.ResponseDeltaEvent delta) {
+                text.append(delta.getContent());
+            }
+        }
+        return text.toString();
+    }
+
+    static long estimateBytes(StreamEvents.StreamEvent event) {
+        long chars = 0;
+        if (event instanceof StreamEvents.ThinkingDeltaEvent delta) {
+            chars = delta.getContent().length();
+        } else if (event instanceof StreamEvents.ResponseDeltaEvent delta) {
+            chars = delta.getContent().length();
+        } else if (event instanceof StreamEvents.ToolCallStartEvent start) {
+            chars = start.getToolId().length() + start.getToolName().length() + start.getArguments().length();
+        } else if (event instanceof StreamEvents.ToolCallEndEvent end) {
+            chars = end.getToolId().length() + end.getToolName().length() + end.getResult().length();
+        }
+        return EVENT_OVERHEAD_BYTES + 2 * chars;
+    }
+
+    private record Key(String message, long dataVersion) {
+    }
+
+    private record Entry(List<StreamEvents.StreamEvent> events, Question question, long bytes) {
+    }
+
+    /**
+     * Question embedding with its norm precomputed
+     */
+    private record Question(float[] vector, double norm) {
+        static Question of(float[] vector) {
+            if (vector == null || vector.length == 0) {
+                return null;
+            }
+            double sum = 0;
+            for (float v : vector) {
+                sum += v * v;
+            }
+            return sum == 0 ? null : new Question(vector, Math.sqrt(sum));
+        }
+
+        double cosine(Question other) {
+            if (other.vector.length != vector.length) {
+                return 0;
+            }
+            double dot = 0;
+            for (int i = 0; i < vector.length; i++) {
+                dot += vector[i] * other.vector[i];
+            }
+            return dot / (norm * other.norm);
+        }
+
+        long bytes() {
+            return 4L * vector.length;
+        }
+    }
+
+    /**
+     * Events of one live stream; fed serially by that stream
+     */
+    public final class Recording {
+        private final Key key;
+        private final List<StreamEvents.StreamEvent> events = new ArrayList<>();
+        private long bytes;
+        private boolean discarded;
+        private CompletableFuture<Question> question;
+
+        private Recording(Key key) {
+            this.key = key;
+        }
+
+        public void add(StreamEvents.StreamEvent event) {
+            if (discarded || event instanceof StreamEvents.SessionStartEvent) {
+                return;
+            }
+            bytes += estimateBytes(event);
+            if (event instanceof StreamEvents.ErrorEvent || bytes > maxEntryBytes) {
+                discard();
+                return;
+            }
+            events.add(event);
+        }
+
+        public void discard() {
+            discarded = true;
+            events.clear();
+        }
+
+        /**
+         * Store the recording if the stream completed cleanly and no sync
+         * happened since it started
+         */
+        public void commit() {
+            if (discarded || events.isEmpty() || key.dataVersion() != dataVersion.get()) {
+                return;
+            }
+            // A late embedding only costs the entry its semantic match
+            Question q = semanticEnabled ? questionWithin(semanticTimeoutMs) : null;
+            cache.put(key, new Entry(List.copyOf(events), q, bytes + (q != null ? q.bytes() : 0)));
+        }
+
+        /**
+         * Question embedding, requested at most once per recording, or null
+         * if it is not ready within timeoutMs (it keeps running for commit)
+         */
+        private Question questionWithin(long timeoutMs) {
+            try {
+                return embedding().get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.debug("Question embedding not ready within {}ms", timeoutMs);
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                return null;
+            }
+        }
+
+        private CompletableFuture<Question> embedding() {
+            if (question == null) {
+                question = CompletableFuture
+                        .supplyAsync(() -> Question.of(embedder.embed(key.message())), EMBEDDER)
+                        .exceptionally(e -> null);
+            }
+            return question;
+        }
+    }
+}
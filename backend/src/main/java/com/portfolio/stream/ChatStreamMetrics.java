@@ -0,0 +1,193 @@
+package com.portfolio.stream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chat Stream Metrics - Outcome counters and timings for chat streams
+ *
+ * - chat.stream.completed: streams that ran to the end
+ * - chat.stream.cancelled: streams whose client went away first
+ *   (upstream agent run disposed)
+ * - chat.stream.errors: streams that ended with a processing error
+ * - chat.stream.tokens.saved: estimated output tokens not generated because
+ *   of cancellation (average completed output minus what was already emitted)
+ * - chat.stream.slow.dropped: clients disconnected by their outbound queue
+ * - chat.stream.timeouts: runs ended by a watchdog deadline (tagged code)
+ * - chat.stream.compression.bytes.in / bytes.out, chat.stream.compression.time:
+ *   what gzip saved on compressed streams and the CPU it cost
+ *
+ * Tokens are estimated as chars / 4.
+ *
+ * Per-stream timings (histograms, tagged agent + outcome):
+ * - chat.stream.time.to.session.start / first.thinking / first.response
+ * - chat.stream.duration
+ * - chat.stream.tool.duration (also tagged tool)
+ * - chat.stream.frames, chat.stream.bytes (summaries)
+ */
+@Component
+public class ChatStreamMetrics {
+
+    /**
+     * Weight of the newest completed stream in the running average
+     */
+    private static final double AVERAGE_WEIGHT = 0.1;
+
+    private final Counter completed;
+    private final Counter cancelled;
+    private final Counter errors;
+    private final Counter tokensSaved;
+    private final Counter slowClientsDropped;
+    private final Counter compressionBytesIn;
+    private final Counter compressionBytesOut;
+    private final Timer compressionTime;
+    private final MeterRegistry meterRegistry;
+
+    private double averageOutputTokens;
+    private boolean averageInitialized;
+
+    public ChatStreamMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.completed = Counter.builder("chat.stream.completed")
+                .description("Chat streams that ran to completion")
+                .register(meterRegistry);
+        this.cancelled = Counter.builder("chat.stream.cancelled")
+                .description("Chat streams cancelled because the client disconnected")
+                .register(meterRegistry);
+        this.errors = Counter.builder("chat.stream.errors")
+                .description("Chat streams that ended with a processing error")
+                .register(meterRegistry);
+        this.tokensSaved = Counter.builder("chat.stream.tokens.saved")
+                .description("Estimated output tokens not generated thanks to cancellation")
+                .baseUnit("tokens")
+                .register(meterRegistry);
+        this.slowClientsDropped = Counter.builder("chat.stream.slow.dropped")
+                .description("SSE clients disconnected for falling too far behind")
+                .register(meterRegistry);
+        this.compressionBytesIn = Counter.builder("chat.stream.compression.bytes.in")
+                .description("SSE bytes written to compressed streams before gzip")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.compressionBytesOut = Counter.builder("chat.stream.compression.bytes.out")
+                .description("SSE bytes written to compressed streams after gzip")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.compressionTime = Timer.builder("chat.stream.compression.time")
+                .description("Time spent compressing SSE writes")
+                .register(meterRegistry);
+    }
+
+    public void streamCompleted(int outputChars) {
+        completed.increment();
+        synchronized (this) {
+            double tokens = estimateTokens(outputChars);
+            if (!averageInitialized) {
+                averageOutputTokens = tokens;
+                averageInitialized = true;
+            } else {
+                averageOutputTokens += AVERAGE_WEIGHT * (tokens - averageOutputTokens);
+            }
+        }
+    }
+
+    /**
+     * @return Estimated tokens saved by this cancellation
+     */
+    public long streamCancelled(int outputChars) {
+        cancelled.increment();
+        double average;
+        synchronized (this) {
+            average = averageOutputTokens;
+        }
+        long saved = Math.max(0, Math.round(average - estimateTokens(outputChars)));
+        tokensSaved.increment(saved);
+        return saved;
+    }
+
+    public void streamFailed() {
+        errors.increment();
+    }
+
+    public void slowClientDropped() {
+        slowClientsDropped.increment();
+    }
+
+    public void recordCompression(long rawBytes, long compressedBytes, long nanos) {
+        compressionBytesIn.increment(rawBytes);
+        compressionBytesOut.increment(compressedBytes);
+        compressionTime.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void streamTimedOut(String code) {
+        Counter.builder("chat.stream.timeouts")
+                .description("Chat streams ended because a deadline was missed")
+                .tag("code", code)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Record where one stream's time went
+     *
+     * @param agent   Agent that answered (ADK event author), or "unknown"
+     * @param outcome completed, cancelled, error, timeout or replayed
+     */
+    public void recordTimings(StreamTimings timings, String agent, String outcome, long nowNanos) {
+        recordPhase("chat.stream.time.to.session.start", "Time until session_start was sent",
+                timings.sessionStartNanos(), agent, outcome);
+        recordPhase("chat.stream.time.to.first.thinking", "Time until the first thinking delta was sent",
+                timings.firstThinkingNanos(), agent, outcome);
+        recordPhase("chat.stream.time.to.first.response", "Time until the first response delta was sent",
+                timings.firstResponseNanos(), agent, outcome);
+        recordPhase("chat.stream.duration", "Total chat stream duration",
+                timings.durationNanos(nowNanos), agent, outcome);
+
+        for (StreamTimings.ToolTiming tool : timings.tools()) {
+            Timer.builder("chat.stream.tool.duration")
+                    .description("Tool call duration, tool_call_start to tool_call_end")
+                    .tag("agent", agent)
+                    .tag("tool", tool.toolName())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(tool.durationNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        DistributionSummary.builder("chat.stream.frames")
+                .description("SSE frames sent per chat stream")
+                .tag("agent", agent)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(timings.events());
+        DistributionSummary.builder("chat.stream.bytes")
+                .description("SSE bytes sent per chat stream")
+                .baseUnit("bytes")
+                .tag("agent", agent)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(timings.bytes());
+    }
+
+    private void recordPhase(String name, String description, long nanos, String agent, String outcome) {
+        if (nanos < 0) {
+            return;
+        }
+        Timer.builder(name)
+                .description(description)
+                .tag("agent", agent)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static int estimateTokens(int chars) {
+        return (chars + 3) / 4;
+    }
+}
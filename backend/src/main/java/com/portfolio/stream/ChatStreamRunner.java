@@ -0,0 +1,295 @@
+package com.portfolio.stream;
+
+import com.google.adk.events.Event;
+import com.portfolio.config.ChatStreamProperties;
+import com.portfolio.model.StreamEvents;
+import com.portfolio.service.AgentService;
+import io.reactivex.rxjava3.core.Flowable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Chat Stream Runner - One chat stream, the same for every transport
+ *
+ * Owns what /chat/stream and the chat WebSocket do per question:
+ * - DeltaCoalescer in front of the transport; every frame feeds StreamTimings,
+ *   StreamWatchdog and the response-cache recording
+ * - Watchdog deadlines: error event with the violation code, run cancelled
+ * - Replay of a cached answer (exact hit passed in, or semantic lookup)
+ *   instead of running the agent; the turn is added to the session
+ * - The agent run, translated by AgentEventTranslator
+ * - Outcome reporting: timings per outcome, completed/cancelled/timed-out
+ *   counters and latency feedback for the adaptive concurrency limit
+ *
+ * The transport only encodes and writes events, and reacts to the run
+ * starting and ending (resumable SSE buffers and shared runs, WebSocket
+ * envelopes). Admission is left to the caller.
+ */
+@Component
+public class ChatStreamRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatStreamRunner.class);
+
+    /**
+     * Where one stream's events go
+     */
+    public interface Transport {
+        /**
+         * Write one event
+         *
+         * @return Bytes written
+         */
+        int send(StreamEvents.StreamEvent event) throws IOException;
+
+        /**
+         * session_start was sent
+         */
+        default void started() {
+        }
+
+        /**
+         * The run stops producing new output (may be called more than once)
+         */
+        default void ending() {
+        }
+
+        /**
+         * The run is over and its last frame was sent; not called after a cancel
+         *
+         * @param response Answer text if the run completed or was replayed, else null
+         * @param error    Failure, or null
+         */
+        default void ended(String response, Throwable error) {
+        }
+    }
+
+    private final AgentService agentService;
+    private final ChatStreamProperties properties;
+    private final ScheduledExecutorService scheduler;
+    private final ChatStreamMetrics metrics;
+    private final ChatAdmissionController admissionController;
+    private final ChatResponseCache responseCache;
+
+    public ChatStreamRunner(
+            AgentService agentService,
+            ChatStreamProperties properties,
+            @Qualifier("sseFlushScheduler") ScheduledExecutorService scheduler,
+            ChatStreamMetrics metrics,
+            ChatAdmissionController admissionController,
+            ChatResponseCache responseCache) {
+        this.agentService = agentService;
+        this.properties = properties;
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+        this.admissionController = admissionController;
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * New stream for one question; nothing runs until {@link Run#run}
+     */
+    public Run open(String sessionId, String message) {
+        return new Run(sessionId, message);
+    }
+
+    /**
+     * One question; cancel from any thread, run on its own virtual thread
+     */
+    public final class Run {
+        private final String sessionId;
+        private final String message;
+        private final StreamCancellation cancellation = new StreamCancellation();
+        private final AgentEventTranslator translator = new AgentEventTranslator();
+        private final StringBuilder responseText = new StringBuilder();
+        private StreamTimings timings;
+
+        private Run(String sessionId, String message) {
+            this.sessionId = sessionId;
+            this.message = message;
+        }
+
+        /**
+         * Register the thread that calls {@link #run}, so a cancel interrupts it
+         */
+        public void bindWorker(Thread worker) {
+            cancellation.bindWorker(worker);
+        }
+
+        /**
+         * Stop the agent run (client gone or cancelled); reported by the worker
+         *
+         * @return true if this call cancelled a running stream
+         */
+        public boolean cancel() {
+            return cancellation.cancel();
+        }
+
+        /**
+         * Run to the end on the calling thread
+         *
+         * @param cached    Events to replay instead of running the agent (an exact
+         *                  cache hit, without session_start), or null
+         * @param recording First-turn recording (semantic lookup and commit), or null
+         */
+        public void run(Transport transport, List<StreamEvents.StreamEvent> cached, ChatResponseCache.Recording recording) {
+            long startNanos = System.nanoTime();
+            timings = new StreamTimings(startNanos);
+            StreamWatchdog watchdog = new StreamWatchdog(
+                    properties.getFirstEventTimeoutMs(),
+                    properties.getIdleTimeoutMs(),
+                    properties.getToolCallTimeoutMs(),
+                    properties.getMaxDurationMs(),
+                    startNanos);
+
+            // All frames go through the coalescer so deltas merge and ordering is kept
+            DeltaCoalescer stream = new DeltaCoalescer(
+                    event -> {
+                        if (recording != null) {
+                            recording.add(event);
+                        }
+                        if (event instanceof StreamEvents.ResponseDeltaEvent delta) {
+                            responseText.append(delta.getContent());
+                        }
+                        int bytes = transport.send(event);
+                        long now = System.nanoTime();
+                        timings.onFrame(event, bytes, now);
+                        watchdog.onFrame(event, now);
+                    },
+                    properties.getCoalesceIntervalMs(),
+                    properties.getCoalesceMaxBytes(),
+                    scheduler);
+
+            // Deadline missed: end the stream with its code and stop the agent run
+            watchdog.start(scheduler, violation -> {
+                if (!cancellation.cancel()) {
+                    return;
+                }
+                transport.ending();
+                metrics.streamTimedOut(violation.code());
+                reportTimings("timeout");
+                log.warn("Stream for session {} ended: {} ({})", sessionId, violation.code(), violation.message());
+                try {
+                    stream.send(new StreamEvents.ErrorEvent(violation.message(), violation.code()));
+                } catch (IOException e) {
+                    log.debug("Failed to send timeout for session {}: {}", sessionId, e.getMessage());
+                }
+                transport.ended(null, null);
+            });
+
+            try {
+                if (cancellation.isCancelled()) {
+                    reportCancelled();
+                    return;
+                }
+                stream.send(new StreamEvents.SessionStartEvent(sessionId));
+                transport.started();
+
+                // Recorded answer (exact, or a paraphrase): replay instead of running the agent
+                List<StreamEvents.StreamEvent> replay = cached != null ? cached : responseCache.lookupSimilar(recording);
+                if (replay != null) {
+                    String response = ChatResponseCache.responseText(replay);
+                    agentService.appendTurn(sessionId, message, response);
+                    for (StreamEvents.StreamEvent event : replay) {
+                        stream.send(event);
+                    }
+                    stream.flush();
+                    transport.ending();
+                    if (cancellation.complete()) {
+                        transport.ended(response, null);
+                        reportTimings("replayed");
+                    }
+                    return;
+                }
+
+                Flowable<Event> events = cancellation.guard(agentService.processMessageStream(sessionId, message));
+                events.blockingForEach(event -> {
+                    try {
+                        translator.onEvent(event, stream);
+                    } catch (IOException e) {
+                        // Transport gone: nobody reads the rest
+                        cancellation.cancel();
+                    } catch (Exception e) {
+                        log.error("Error processing streaming event", e);
+                        try {
+                            stream.send(new StreamEvents.ErrorEvent(e.getMessage(), "STREAM_ERROR"));
+                        } catch (IOException ioException) {
+                            cancellation.cancel();
+                        }
+                    }
+                });
+
+                transport.ending();
+                if (!cancellation.complete()) {
+                    reportCancelled();
+                    return;
+                }
+
+                translator.finish(stream);
+                stream.flush();
+                transport.ended(responseText.toString(), null);
+                reportTimings("completed");
+                metrics.streamCompleted(translator.outputChars());
+                recordLatency(startNanos);
+                if (recording != null) {
+                    recording.commit();
+                }
+
+            } catch (Exception e) {
+                if (cancellation.isCancelled()) {
+                    log.debug("Agent run for session {} stopped after cancellation: {}", sessionId, e.toString());
+                    reportCancelled();
+                    return;
+                }
+                cancellation.complete();
+                transport.ending();
+                metrics.streamFailed();
+                reportTimings("error");
+                log.error("Error in stream processing for session {}", sessionId, e);
+                try {
+                    stream.send(new StreamEvents.ErrorEvent(e.getMessage(), "PROCESSING_ERROR"));
+                } catch (IOException ioException) {
+                    log.debug("Failed to send error for session {}: {}", sessionId, ioException.getMessage());
+                }
+                transport.ended(null, e);
+            } finally {
+                watchdog.stop();
+                stream.close();
+            }
+        }
+
+        private void reportCancelled() {
+            if (reportTimings("cancelled")) {
+                long saved = metrics.streamCancelled(translator.outputChars());
+                log.info("Cancelled agent run for session: {} (~{} tokens saved)", sessionId, saved);
+            }
+        }
+
+        /**
+         * Export the timings (once, whichever way the stream ended)
+         *
+         * @return false if the stream already ended another way
+         */
+        private boolean reportTimings(String outcome) {
+            if (!timings.finish()) {
+                return false;
+            }
+            metrics.recordTimings(timings, translator.agent(), outcome, System.nanoTime());
+            return true;
+        }
+
+        /**
+         * Completed streams drive the adaptive concurrency limit
+         */
+        private void recordLatency(long startNanos) {
+            long firstOutput = translator.firstOutputNanos();
+            long ttftMs = firstOutput != 0 ? (firstOutput - startNanos) / 1_000_000 : -1;
+            admissionController.recordLatency(ttftMs, (System.nanoTime() - startNanos) / 1_000_000);
+        }
+    }
+}
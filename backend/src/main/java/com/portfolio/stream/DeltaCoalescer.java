@@ -0,0 +1,230 @@
+package com.portfolio.stream;
+
+import com.portfolio.model.StreamEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Delta Coalescer - Merges consecutive SSE delta events of one phase
+ *
+ * Every Gemini partial used to become its own thinking_delta/response_delta
+ * frame. Per stream, the coalescer buffers deltas and emits one frame when:
+ * - the flush interval has passed since the first buffered delta
+ *   (a scheduled deadline covers the case where no further event arrives)
+ * - the buffered text reaches the byte threshold (UTF-8)
+ * - the phase changes, or any non-delta event (tool call, phase end,
+ *   completion, error) is sent - these always go out after the buffered text
+ *
+ * A ReentrantLock (not synchronized) keeps the stream thread and deadline
+ * flushes from interleaving frames without pinning virtual-thread carriers
+ * while the sink blocks. The deadline task on the shared scheduler only marks
+ * the buffer due and hands the write to the writer executor, so a slow sink
+ * never stalls the scheduler. An interval of 0 disables coalescing.
+ */
+public class DeltaCoalescer implements AgentEventTranslator.Output {
+
+    private static final Logger log = LoggerFactory.getLogger(DeltaCoalescer.class);
+
+    private static final Executor VIRTUAL_WRITER = task -> Thread.ofVirtual().name("delta-flush").start(task);
+
+    public enum Phase {
+        THINKING, RESPONSE
+    }
+
+    /**
+     * Writes one event to the client
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void send(StreamEvents.StreamEvent event) throws IOException;
+    }
+
+    private final Sink sink;
+    private final long flushIntervalNanos;
+    private final int maxBufferedBytes;
+    private final ScheduledExecutorService scheduler;
+    private final Executor writer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final StringBuilder buffer = new StringBuilder();
+    private Phase bufferedPhase;
+    private int bufferedBytes;
+    private long firstBufferedAt;
+    private ScheduledFuture<?> scheduledFlush;
+    private volatile boolean due;
+    private boolean closed;
+
+    /**
+     * @param scheduler Times deadline flushes; may be null (flush only on the next event)
+     */
+    public DeltaCoalescer(Sink sink, long flushIntervalMs, int maxBufferedBytes, ScheduledExecutorService scheduler) {
+        this(sink, flushIntervalMs, maxBufferedBytes, scheduler, VIRTUAL_WRITER);
+    }
+
+    /**
+     * @param writer Runs deadline flushes off the scheduler thread
+     */
+    public DeltaCoalescer(Sink sink, long flushIntervalMs, int maxBufferedBytes,
+                          ScheduledExecutorService scheduler, Executor writer) {
+        this.sink = sink;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, flushIntervalMs));
+        this.maxBufferedBytes = Math.max(1, maxBufferedBytes);
+        this.scheduler = scheduler;
+        this.writer = writer;
+    }
+
+    /**
+     * Buffer a delta for the given phase
+     */
+    @Override
+    public void delta(Phase phase, String text) throws IOException {
+        lock.lock();
+        try {
+            if (closed || text == null || text.isEmpty()) {
+                return;
+            }
+            if (bufferedPhase != null && bufferedPhase != phase) {
+                flush();
+            }
+
+            long now = System.nanoTime();
+            if (buffer.isEmpty()) {
+                firstBufferedAt = now;
+            }
+            bufferedPhase = phase;
+            buffer.append(text);
+            bufferedBytes += utf8Length(text);
+
+            if (due || flushIntervalNanos == 0 || bufferedBytes >= maxBufferedBytes
+                    || now - firstBufferedAt >= flushIntervalNanos) {
+                flush();
+            } else if (scheduledFlush == null && scheduler != null) {
+                long delay = flushIntervalNanos - (now - firstBufferedAt);
+                scheduledFlush = scheduler.schedule(this::markDue, delay, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Send a non-delta event after any buffered text
+     */
+    @Override
+    public void send(StreamEvents.StreamEvent event) throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            flush();
+            sink.send(event);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Emit buffered text as a single delta event
+     */
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            due = false;
+            cancelScheduledFlush();
+            if (buffer.isEmpty()) {
+                return;
+            }
+
+            String text = buffer.toString();
+            Phase phase = bufferedPhase;
+            buffer.setLength(0);
+            bufferedBytes = 0;
+            bufferedPhase = null;
+
+            sink.send(phase == Phase.THINKING
+                    ? new StreamEvents.ThinkingDeltaEvent(text)
+                    : new StreamEvents.ResponseDeltaEvent(text));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop buffered text and stop scheduled flushes (client gone or stream finished)
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            due = false;
+            cancelScheduledFlush();
+            buffer.setLength(0);
+            bufferedBytes = 0;
+            bufferedPhase = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Scheduler thread: never takes the lock or writes, only hands off
+     */
+    private void markDue() {
+        due = true;
+        try {
+            writer.execute(this::flushIfDue);
+        } catch (RejectedExecutionException e) {
+            // The next delta or event flushes the buffer
+            log.debug("Deadline flush not scheduled: {}", e.getMessage());
+        }
+    }
+
+    private void flushIfDue() {
+        lock.lock();
+        try {
+            if (closed || !due) {
+                return;
+            }
+            flush();
+        } catch (Exception e) {
+            log.debug("Scheduled delta flush failed: {}", e.getMessage());
+            close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    static int utf8Length(CharSequence text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,83 @@
+package com.portfolio.stream;
+
+/**
+ * Delta Tracker - Turns streamed text snapshots into deltas without copying
+ *
+ * Model events carry either the full text so far (cumulative) or a fresh
+ * chunk. The tracker keeps a reference to the last snapshot plus its length
+ * instead of an accumulated StringBuilder, so an append-only stream never
+ * copies previously emitted text:
+ * - Cumulative snapshot: the whole previous snapshot is confirmed as a prefix
+ *   with one regionMatches (no allocation), delta is the new suffix
+ * - Anything else: delta is the part after the common prefix and the
+ *   snapshot replaces the tracked state (same as before)
+ *
+ * Per-event allocation is O(delta) rather than O(total text). The prefix
+ * compare still reads the whole previous snapshot, so per-event time is
+ * O(text so far) and a cumulative stream is O(n^2) overall; only the constant
+ * is lower (no toString copy, no garbage). Checking less than the whole
+ * prefix would miss a rewrite inside it. Not thread-safe; use one tracker
+ * per stream and phase.
+ */
+public class DeltaTracker {
+
+    private String last;
+    private int emittedLength;
+
+    /**
+     * Delta for the next snapshot
+     *
+     * @param content Latest text from the model (cumulative or chunk)
+     * @return Text not yet emitted, or "" if nothing new
+     */
+    public String next(String content) {
+        if (content == null || content.isEmpty()) {
+            return "";
+        }
+
+        if (last == null) {
+            track(content);
+            return content;
+        }
+
+        if (content.length() >= emittedLength && extendsLast(content)) {
+            String delta = content.substring(emittedLength);
+            track(content);
+            return delta;
+        }
+
+        // Non-cumulative chunk or rewrite: emit everything past the common prefix
+        int commonPrefix = 0;
+        int maxLen = Math.min(emittedLength, content.length());
+        while (commonPrefix < maxLen && last.charAt(commonPrefix) == content.charAt(commonPrefix)) {
+            commonPrefix++;
+        }
+
+        track(content);
+        return commonPrefix > 0 ? content.substring(commonPrefix) : content;
+    }
+
+    /**
+     * Length of the text tracked so far
+     */
+    public int emittedLength() {
+        return emittedLength;
+    }
+
+    public void reset() {
+        last = null;
+        emittedLength = 0;
+    }
+
+    private void track(String content) {
+        last = content;
+        emittedLength = content.length();
+    }
+
+    /**
+     * Whether content starts with the last snapshot
+     */
+    private boolean extendsLast(String content) {
+        return content == last || content.regionMatches(0, last, 0, emittedLength);
+    }
+}
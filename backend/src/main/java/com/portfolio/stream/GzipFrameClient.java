@@ -0,0 +1,132 @@
+package com.portfolio.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip Frame Client - Compresses one SSE connection's frames as a single
+ * gzip stream
+ *
+ * Every write is sync-flushed, so each frame (or coalesced batch) reaches the
+ * client as soon as it is sent; the deflate window is shared across frames,
+ * which is where repeated JSON keys and event names compress away.
+ * complete() writes the gzip trailer before closing the connection.
+ *
+ * Called serially (BufferedClient writer, or a replay); methods are
+ * synchronized anyway because the deflater is not thread-safe.
+ */
+public class GzipFrameClient implements ResumableStream.Client {
+
+    /**
+     * Raw vs compressed size and CPU time of each write
+     */
+    public interface Stats {
+        void record(long rawBytes, long compressedBytes, long nanos);
+    }
+
+    private final ResumableStream.Client delegate;
+    private final Stats stats;
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(1024);
+    private final GZIPOutputStream gzip;
+    private boolean finished;
+
+    public GzipFrameClient(ResumableStream.Client delegate, int level, Stats stats) {
+        this.delegate = delegate;
+        this.stats = stats;
+        try {
+            this.gzip = new GZIPOutputStream(compressed, 1024, true) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        } catch (IOException e) {
+            // Only writes the header into memory
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip (and does not refuse it
+     * with q=0)
+     */
+    public static boolean accepts(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("x-gzip") && !coding.equals("*")) {
+                continue;
+            }
+            double q = 1.0;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (q > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void sendFrame(byte[] frame) throws IOException {
+        if (finished) {
+            throw new IOException("Stream finished");
+        }
+        long start = System.nanoTime();
+        gzip.write(frame);
+        gzip.flush();
+        byte[] out = drain();
+        stats.record(frame.length, out.length, System.nanoTime() - start);
+        delegate.sendFrame(out);
+    }
+
+    @Override
+    public synchronized void complete() {
+        try {
+            sendTrailer();
+        } catch (IOException e) {
+            delegate.completeWithError(e);
+            return;
+        }
+        delegate.complete();
+    }
+
+    @Override
+    public synchronized void completeWithError(Throwable ex) {
+        try {
+            sendTrailer();
+        } catch (IOException ignored) {
+            // The connection is failing anyway
+        }
+        delegate.completeWithError(ex);
+    }
+
+    private void sendTrailer() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        gzip.finish();
+        byte[] trailer = drain();
+        gzip.close();
+        delegate.sendFrame(trailer);
+    }
+
+    private byte[] drain() {
+        byte[] out = compressed.toByteArray();
+        compressed.reset();
+        return out;
+    }
+}
@@ -0,0 +1,256 @@
+package com.portfolio.stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resumable Stream - SSE frames of one agent run, replayable after a reconnect
+ *
+ * - Every frame gets the next sequential id ({@code id:<n>} line) and is kept
+ *   in a bounded replay buffer (oldest frames dropped past max frames/bytes)
+ * - The run writes to every attached client (several when identical
+ *   questions share one run); when the last one disconnects the run keeps
+ *   going for the grace period instead of being cancelled
+ * - A reconnect with Last-Event-ID attaches a new client: frames after that
+ *   id are replayed from the buffer, then it follows the live run
+ * - Nobody back within the grace period: onAbandoned (cancel the agent run)
+ * - After the run ends the buffer stays for the grace period so a client that
+ *   dropped near the end can still fetch the tail; then onExpired
+ */
+public class ResumableStream {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumableStream.class);
+
+    /**
+     * Connection the frames are written to (SseFrameEmitter)
+     */
+    public interface Client {
+        void sendFrame(byte[] frame) throws IOException;
+
+        void complete();
+
+        void completeWithError(Throwable ex);
+    }
+
+    private record Frame(long id, byte[] bytes) {
+    }
+
+    private final String sessionId;
+    private final int maxFrames;
+    private final long maxBytes;
+    private final long graceMs;
+    private final ScheduledExecutorService scheduler;
+    private final Runnable onAbandoned;
+    private final Runnable onExpired;
+
+    private final ArrayDeque<Frame> buffer = new ArrayDeque<>();
+    private long bufferedBytes;
+    private long nextId = 1;
+
+    private final List<Client> clients = new ArrayList<>(1);
+    private boolean finished;
+    private boolean abandoned;
+    private Throwable failure;
+    private ScheduledFuture<?> pending;
+
+    public ResumableStream(
+            String sessionId,
+            int maxFrames,
+            long maxBytes,
+            long graceMs,
+            ScheduledExecutorService scheduler,
+            Runnable onAbandoned,
+            Runnable onExpired) {
+        this.sessionId = sessionId;
+        this.maxFrames = Math.max(1, maxFrames);
+        this.maxBytes = Math.max(1, maxBytes);
+        this.graceMs = Math.max(0, graceMs);
+        this.scheduler = scheduler;
+        this.onAbandoned = onAbandoned;
+        this.onExpired = onExpired;
+    }
+
+    /**
+     * Number, buffer and send one frame to the attached clients
+     */
+    public synchronized void write(byte[] frame) {
+        if (finished) {
+            return;
+        }
+        Frame numbered = number(nextId++, frame);
+        buffer.addLast(numbered);
+        bufferedBytes += numbered.bytes().length;
+        while (buffer.size() > maxFrames || (bufferedBytes > maxBytes && buffer.size() > 1)) {
+            bufferedBytes -= buffer.removeFirst().bytes().length;
+        }
+
+        for (Client client : List.copyOf(clients)) {
+            try {
+                client.sendFrame(numbered.bytes());
+            } catch (IOException e) {
+                log.debug("Client of session {} gone at frame {}: {}", sessionId, numbered.id(), e.getMessage());
+                lose(client);
+            }
+        }
+    }
+
+    /**
+     * Attach the client that started the run
+     */
+    public synchronized void attach(Client newClient) {
+        clients.add(newClient);
+    }
+
+    /**
+     * Attach a client after the frame it last received (a reconnect, or a
+     * client joining the run of an identical question)
+     *
+     * @return false if frames after lastEventId are no longer buffered
+     *         (the client must start over)
+     */
+    public boolean resume(Client newClient, long lastEventId) {
+        return resume(newClient, lastEventId, null);
+    }
+
+    /**
+     * Attach a client after the frame it last received
+     *
+     * @param preamble Frame sent before the replay (e.g. the joining client's
+     *                 own session_start), or null; only sent if attached
+     * @return false if frames after lastEventId are no longer buffered
+     */
+    public synchronized boolean resume(Client newClient, long lastEventId, byte[] preamble) {
+        long oldest = buffer.isEmpty() ? nextId : buffer.peekFirst().id();
+        if (abandoned || lastEventId < oldest - 1 || lastEventId >= nextId) {
+            return false;
+        }
+
+        if (!finished) {
+            cancelPending();
+        }
+        clients.add(newClient);
+
+        try {
+            if (preamble != null) {
+                newClient.sendFrame(preamble);
+            }
+            for (Frame frame : buffer) {
+                if (frame.id() > lastEventId) {
+                    newClient.sendFrame(frame.bytes());
+                }
+            }
+        } catch (IOException e) {
+            lose(newClient);
+            return true;
+        }
+
+        if (finished) {
+            clients.remove(newClient);
+            end(newClient);
+        }
+        return true;
+    }
+
+    /**
+     * A client's connection ended (error, timeout or completion callback)
+     */
+    public synchronized void detach(Client gone) {
+        if (!finished) {
+            lose(gone);
+        }
+    }
+
+    /**
+     * Run finished normally
+     */
+    public synchronized void complete() {
+        finish(null);
+    }
+
+    /**
+     * Run failed
+     */
+    public synchronized void completeWithError(Throwable ex) {
+        finish(ex);
+    }
+
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
+    public synchronized long lastEventId() {
+        return nextId - 1;
+    }
+
+    private void finish(Throwable ex) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        failure = ex;
+        cancelPending();
+        List<Client> attached = List.copyOf(clients);
+        clients.clear();
+        attached.forEach(this::end);
+        scheduleExpiry();
+    }
+
+    private void end(Client client) {
+        if (failure != null) {
+            client.completeWithError(failure);
+        } else {
+            client.complete();
+        }
+    }
+
+    private void lose(Client lost) {
+        if (!clients.remove(lost) || !clients.isEmpty()) {
+            return;
+        }
+        cancelPending();
+        pending = scheduler.schedule(this::abandonIfDetached, graceMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void abandonIfDetached() {
+        synchronized (this) {
+            if (!clients.isEmpty() || finished) {
+                return;
+            }
+            finished = true;
+            abandoned = true;
+            buffer.clear();
+            bufferedBytes = 0;
+        }
+        log.info("No reconnect within {}ms for session: {}", graceMs, sessionId);
+        onAbandoned.run();
+        onExpired.run();
+    }
+
+    private void scheduleExpiry() {
+        pending = scheduler.schedule(onExpired, graceMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelPending() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    private static Frame number(long id, byte[] frame) {
+        byte[] prefix = ("id:" + id + "\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] bytes = new byte[prefix.length + frame.length];
+        System.arraycopy(prefix, 0, bytes, 0, prefix.length);
+        System.arraycopy(frame, 0, bytes, prefix.length, frame.length);
+        return new Frame(id, bytes);
+    }
+}
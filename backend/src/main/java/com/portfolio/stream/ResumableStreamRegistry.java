@@ -0,0 +1,150 @@
+package com.portfolio.stream;
+
+import com.portfolio.config.ChatStreamProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Resumable Stream Registry - Live and recently finished streams
+ *
+ * - By sessionId: the latest run each session follows (leader or joined),
+ *   for Last-Event-ID reconnects
+ * - By normalized first-turn question: runs other clients asking the same
+ *   thing can join (single flight), with the frames so far replayed
+ *
+ * Entries remove themselves once their grace period is over.
+ *
+ * Metrics: chat.stream.resumable gauge, chat.stream.resumed and
+ * chat.stream.joined counters
+ */
+@Component
+public class ResumableStreamRegistry {
+
+    /**
+     * In-flight run shared by sessions asking the same question
+     */
+    private record SharedRun(ResumableStream stream, Set<String> followers) {
+    }
+
+    private final Map<String, ResumableStream> streams = new ConcurrentHashMap<>();
+    private final Map<String, SharedRun> shared = new ConcurrentHashMap<>();
+    private final ChatStreamProperties properties;
+    private final ScheduledExecutorService scheduler;
+    private final Counter resumed;
+    private final Counter joined;
+
+    public ResumableStreamRegistry(
+            ChatStreamProperties properties,
+            @Qualifier("sseFlushScheduler") ScheduledExecutorService scheduler,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.scheduler = scheduler;
+        Gauge.builder("chat.stream.resumable", streams, Map::size)
+                .description("Chat streams that can currently be resumed")
+                .register(meterRegistry);
+        this.resumed = Counter.builder("chat.stream.resumed")
+                .description("Reconnects served from a replay buffer instead of a new agent run")
+                .register(meterRegistry);
+        this.joined = Counter.builder("chat.stream.joined")
+                .description("Chat requests served by an identical question's in-flight agent run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Register a new run for the session, replacing an older one
+     *
+     * @param onAbandoned Called when no client comes back in time
+     */
+    public ResumableStream open(String sessionId, Runnable onAbandoned) {
+        ResumableStream[] holder = new ResumableStream[1];
+        ResumableStream stream = new ResumableStream(
+                sessionId,
+                properties.getResumeBufferFrames(),
+                properties.getResumeBufferBytes(),
+                properties.getResumeGraceMs(),
+                scheduler,
+                onAbandoned,
+                () -> remove(holder[0]));
+        holder[0] = stream;
+        streams.put(sessionId, stream);
+        return stream;
+    }
+
+    /**
+     * Attach a reconnecting client to the session's stream
+     *
+     * @return Stream the client now follows, or null if there is nothing to
+     *         resume from lastEventId
+     */
+    public ResumableStream resume(String sessionId, long lastEventId, ResumableStream.Client client) {
+        ResumableStream stream = streams.get(sessionId);
+        if (stream == null || !stream.resume(client, lastEventId)) {
+            return null;
+        }
+        resumed.increment();
+        return stream;
+    }
+
+    /**
+     * Offer a running stream to later clients asking the same question
+     *
+     * Call after the stream's own session_start (frame 1) was written.
+     * The first run of a question wins.
+     */
+    public void share(String question, ResumableStream stream) {
+        shared.putIfAbsent(question, new SharedRun(stream, ConcurrentHashMap.newKeySet()));
+    }
+
+    /**
+     * Follow the in-flight run of the same question
+     *
+     * @param sessionStart The joining client's own session_start frame,
+     *                     sent in place of the leader's
+     * @return Stream the client now follows, or null if no run is in flight
+     */
+    public ResumableStream join(String question, String sessionId, ResumableStream.Client client, byte[] sessionStart) {
+        SharedRun run = shared.get(question);
+        if (run == null || run.stream().isFinished()) {
+            return null;
+        }
+        run.followers().add(sessionId);
+        // Frame 1 is the leader's session_start
+        if (!run.stream().resume(client, 1, sessionStart)) {
+            run.followers().remove(sessionId);
+            return null;
+        }
+        streams.put(sessionId, run.stream());
+        joined.increment();
+        return run.stream();
+    }
+
+    /**
+     * Stop offering the stream to new clients (its run is ending)
+     *
+     * @return Sessions that joined the run
+     */
+    public Set<String> unshare(String question, ResumableStream stream) {
+        SharedRun run = shared.get(question);
+        if (run == null || run.stream() != stream || !shared.remove(question, run)) {
+            return Set.of();
+        }
+        return Set.copyOf(run.followers());
+    }
+
+    public int size() {
+        return streams.size();
+    }
+
+    private void remove(ResumableStream stream) {
+        streams.values().removeIf(s -> s == stream);
+        shared.values().removeIf(run -> run.stream() == stream);
+    }
+}
@@ -0,0 +1,167 @@
+package com.portfolio.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.model.StreamEvents;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * SSE Event Encoder - Writes StreamEvents as ready-to-send SSE byte frames
+ *
+ * Frames have the same shape SseEmitter produced:
+ * {@code event:<type>\ndata:<json>\n\n}
+ *
+ * - Payload-free events (thinking_start/end, response_start/end, complete)
+ *   are encoded once and shared
+ * - Delta events are written straight into a reusable scratch buffer with
+ *   JSON string escaping, skipping ObjectMapper and the intermediate String
+ * - Remaining events (session start, tool calls, errors) go through Jackson
+ *
+ * One encoder per stream; not thread-safe. Returned frames are exact-size
+ * copies because the emitter may hold early frames before the response starts.
+ */
+public class SseEventEncoder {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final byte[] THINKING_START = constantFrame("thinking_start");
+    private static final byte[] THINKING_END = constantFrame("thinking_end");
+    private static final byte[] RESPONSE_START = constantFrame("response_start");
+    private static final byte[] RESPONSE_END = constantFrame("response_end");
+    private static final byte[] COMPLETE = constantFrame("complete");
+
+    private static final byte[] THINKING_DELTA_PREFIX = deltaPrefix("thinking_delta");
+    private static final byte[] RESPONSE_DELTA_PREFIX = deltaPrefix("response_delta");
+    private static final byte[] DELTA_SUFFIX = "\"}\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] buffer = new byte[1024];
+    private int position;
+
+    /**
+     * Encode one event as a complete SSE frame
+     */
+    public byte[] encode(StreamEvents.StreamEvent event) throws IOException {
+        if (event instanceof StreamEvents.ThinkingDeltaEvent delta) {
+            return encodeDelta(THINKING_DELTA_PREFIX, delta.getContent());
+        }
+        if (event instanceof StreamEvents.ResponseDeltaEvent delta) {
+            return encodeDelta(RESPONSE_DELTA_PREFIX, delta.getContent());
+        }
+        if (event instanceof StreamEvents.ThinkingStartEvent) {
+            return THINKING_START;
+        }
+        if (event instanceof StreamEvents.ThinkingEndEvent) {
+            return THINKING_END;
+        }
+        if (event instanceof StreamEvents.ResponseStartEvent) {
+            return RESPONSE_START;
+        }
+        if (event instanceof StreamEvents.ResponseEndEvent) {
+            return RESPONSE_END;
+        }
+        if (event instanceof StreamEvents.CompleteEvent) {
+            return COMPLETE;
+        }
+        return frame(event.getType(), OBJECT_MAPPER.writeValueAsBytes(event));
+    }
+
+    private byte[] encodeDelta(byte[] prefix, String content) {
+        position = 0;
+        // Up to 3 UTF-8 bytes per char; rare \\u00XX escapes grow the buffer as needed
+        ensureCapacity(prefix.length + content.length() * 3 + DELTA_SUFFIX.length);
+        write(prefix);
+        writeJsonString(content);
+        write(DELTA_SUFFIX);
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * JSON string body (no quotes) as UTF-8, escaping only what JSON requires
+     */
+    private void writeJsonString(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            ensureCapacity(position + 6);
+
+            if (c >= 0x20 && c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    buffer[position++] = '\\';
+                }
+                buffer[position++] = (byte) c;
+            } else if (c < 0x20) {
+                writeControl(c);
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate: same replacement String.getBytes(UTF_8) uses
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void writeControl(char c) {
+        buffer[position++] = '\\';
+        switch (c) {
+            case '\n' -> buffer[position++] = 'n';
+            case '\r' -> buffer[position++] = 'r';
+            case '\t' -> buffer[position++] = 't';
+            case '\b' -> buffer[position++] = 'b';
+            case '\f' -> buffer[position++] = 'f';
+            default -> {
+                buffer[position++] = 'u';
+                buffer[position++] = '0';
+                buffer[position++] = '0';
+                buffer[position++] = HEX[c >> 4];
+                buffer[position++] = HEX[c & 0xF];
+            }
+        }
+    }
+
+    private void write(byte[] bytes) {
+        ensureCapacity(position + bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+        }
+    }
+
+    // ========== Static frames ==========
+
+    private static byte[] constantFrame(String type) {
+        return frame(type, ("{\"type\":\"" + type + "\"}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] deltaPrefix(String type) {
+        return ("event:" + type + "\ndata:{\"type\":\"" + type + "\",\"content\":\"")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] frame(String type, byte[] json) {
+        byte[] header = ("event:" + type + "\ndata:").getBytes(StandardCharsets.UTF_8);
+        byte[] frame = new byte[header.length + json.length + 2];
+        System.arraycopy(header, 0, frame, 0, header.length);
+        System.arraycopy(json, 0, frame, header.length, json.length);
+        frame[frame.length - 2] = '\n';
+        frame[frame.length - 1] = '\n';
+        return frame;
+    }
+}
@@ -0,0 +1,57 @@
+package com.portfolio.stream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+
+/**
+ * SSE Frame Emitter - text/event-stream emitter that writes pre-encoded frames
+ *
+ * SseEmitter wraps every payload in its own event builder. Frames from
+ * {@link SseEventEncoder} are already complete, so they are written as raw
+ * bytes (ByteArrayHttpMessageConverter) under a text/event-stream response.
+ *
+ * A compressed emitter announces Content-Encoding: gzip; its frames must be
+ * written through a {@link GzipFrameClient}.
+ */
+public class SseFrameEmitter extends ResponseBodyEmitter implements ResumableStream.Client {
+
+    private final boolean compressed;
+
+    public SseFrameEmitter(Long timeout) {
+        this(timeout, false);
+    }
+
+    public SseFrameEmitter(Long timeout, boolean compressed) {
+        super(timeout);
+        this.compressed = compressed;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Write one complete SSE frame
+     */
+    @Override
+    public void sendFrame(byte[] frame) throws IOException {
+        send(frame, MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    @Override
+    protected void extendResponse(ServerHttpResponse outputMessage) {
+        super.extendResponse(outputMessage);
+        HttpHeaders headers = outputMessage.getHeaders();
+        if (headers.getContentType() == null) {
+            headers.setContentType(MediaType.TEXT_EVENT_STREAM);
+        }
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (compressed) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+    }
+}
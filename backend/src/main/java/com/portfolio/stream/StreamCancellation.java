@@ -0,0 +1,74 @@
+package com.portfolio.stream;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.subjects.CompletableSubject;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stream Cancellation - Ties the agent run to the lifetime of its client
+ *
+ * One per stream. The worker wraps the agent Flowable with {@link #guard};
+ * emitter error/timeout/completion callbacks (or a failed write) call
+ * {@link #cancel}, which:
+ * 1. Completes the takeUntil signal, disposing the upstream agent run
+ *    (the model request and any tool call scheduled on RxJava threads)
+ * 2. Interrupts the worker thread, aborting a blocking tool call or the
+ *    blockingForEach wait
+ *
+ * Exactly one of {@link #complete} and {@link #cancel} wins.
+ */
+public class StreamCancellation {
+
+    private enum State {
+        RUNNING, COMPLETED, CANCELLED
+    }
+
+    private final CompletableSubject signal = CompletableSubject.create();
+    private final AtomicReference<State> state = new AtomicReference<>(State.RUNNING);
+    private volatile Thread worker;
+
+    /**
+     * Register the thread consuming the agent events
+     */
+    public void bindWorker(Thread worker) {
+        this.worker = worker;
+    }
+
+    /**
+     * Agent events until the stream is cancelled
+     */
+    public <T> Flowable<T> guard(Flowable<T> events) {
+        return events.takeUntil(signal.toFlowable());
+    }
+
+    /**
+     * Mark the stream as finished normally
+     *
+     * @return false if it was already cancelled
+     */
+    public boolean complete() {
+        return state.compareAndSet(State.RUNNING, State.COMPLETED);
+    }
+
+    /**
+     * Dispose the upstream run and interrupt the worker
+     *
+     * @return true if this call cancelled a running stream
+     */
+    public boolean cancel() {
+        if (!state.compareAndSet(State.RUNNING, State.CANCELLED)) {
+            return false;
+        }
+        signal.onComplete();
+        Thread current = worker;
+        if (current != null && current != Thread.currentThread()) {
+            current.interrupt();
+        }
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return state.get() == State.CANCELLED;
+    }
+}
@@ -0,0 +1,118 @@
+package com.portfolio.stream;
+
+import com.portfolio.model.StreamEvents;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stream Timings - Where the time of one chat stream went
+ *
+ * Fed with every frame as it is sent (after coalescing), relative to the
+ * moment the request was accepted:
+ * - time to session_start, first thinking delta, first response delta
+ * - each tool call, from tool_call_start to the matching tool_call_end
+ * - frames and bytes sent
+ *
+ * Frames arrive serially (DeltaCoalescer sink); {@link #finish} may race
+ * with a disconnect callback and only succeeds once.
+ */
+public class StreamTimings {
+
+    /**
+     * One completed tool call
+     */
+    public record ToolTiming(String toolName, long durationNanos) {
+    }
+
+    private record OpenTool(String toolName, long startNanos) {
+    }
+
+    private final long startNanos;
+    private final Map<String, OpenTool> openTools = new HashMap<>();
+    private final List<ToolTiming> tools = new ArrayList<>();
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+
+    private long sessionStartNanos = -1;
+    private long firstThinkingNanos = -1;
+    private long firstResponseNanos = -1;
+    private int events;
+    private long bytes;
+
+    public StreamTimings(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Record one frame sent at nowNanos
+     */
+    public synchronized void onFrame(StreamEvents.StreamEvent event, int frameBytes, long nowNanos) {
+        events++;
+        bytes += frameBytes;
+        long elapsed = nowNanos - startNanos;
+
+        if (event instanceof StreamEvents.SessionStartEvent) {
+            if (sessionStartNanos < 0) {
+                sessionStartNanos = elapsed;
+            }
+        } else if (event instanceof StreamEvents.ThinkingDeltaEvent) {
+            if (firstThinkingNanos < 0) {
+                firstThinkingNanos = elapsed;
+            }
+        } else if (event instanceof StreamEvents.ResponseDeltaEvent) {
+            if (firstResponseNanos < 0) {
+                firstResponseNanos = elapsed;
+            }
+        } else if (event instanceof StreamEvents.ToolCallStartEvent start) {
+            openTools.put(start.getToolId(), new OpenTool(start.getToolName(), nowNanos));
+        } else if (event instanceof StreamEvents.ToolCallEndEvent end) {
+            OpenTool open = openTools.remove(end.getToolId());
+            if (open != null) {
+                tools.add(new ToolTiming(open.toolName(), nowNanos - open.startNanos()));
+            }
+        }
+    }
+
+    /**
+     * Claim the right to report this stream
+     *
+     * @return false if it was already finished
+     */
+    public boolean finish() {
+        return finished.compareAndSet(false, true);
+    }
+
+    public long durationNanos(long nowNanos) {
+        return nowNanos - startNanos;
+    }
+
+    /**
+     * @return Nanoseconds from start, or -1 if never sent
+     */
+    public synchronized long sessionStartNanos() {
+        return sessionStartNanos;
+    }
+
+    public synchronized long firstThinkingNanos() {
+        return firstThinkingNanos;
+    }
+
+    public synchronized long firstResponseNanos() {
+        return firstResponseNanos;
+    }
+
+    public synchronized List<ToolTiming> tools() {
+        return List.copyOf(tools);
+    }
+
+    public synchronized int events() {
+        return events;
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+}
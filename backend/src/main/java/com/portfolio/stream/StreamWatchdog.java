@@ -0,0 +1,160 @@
+package com.portfolio.stream;
+
+import com.portfolio.model.StreamEvents;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Stream Watchdog - Deadlines for one agent run
+ *
+ * Fed with every frame as it is sent (after coalescing), relative to the
+ * moment the request was accepted:
+ * - FIRST_EVENT_TIMEOUT: no agent output (thinking, tool call or response)
+ *   within first-event-timeout
+ * - IDLE_TIMEOUT: no frame for idle-timeout while no tool call is running
+ * - TOOL_TIMEOUT: one tool call open longer than tool-call-timeout
+ *   (tools may legitimately be silent, so they have their own deadline)
+ * - STREAM_TIMEOUT: the run as a whole exceeds max-duration
+ *
+ * A deadline of 0 disables that check. A periodic tick on the shared
+ * scheduler evaluates the deadlines; the first violation is reported once,
+ * on its own virtual thread so the handler's writes never block the
+ * scheduler, and the watchdog stops.
+ */
+public class StreamWatchdog {
+
+    public static final String FIRST_EVENT_TIMEOUT = "FIRST_EVENT_TIMEOUT";
+    public static final String IDLE_TIMEOUT = "IDLE_TIMEOUT";
+    public static final String TOOL_TIMEOUT = "TOOL_TIMEOUT";
+    public static final String STREAM_TIMEOUT = "STREAM_TIMEOUT";
+
+    private static final long MIN_TICK_MS = 50;
+    private static final long MAX_TICK_MS = 1_000;
+
+    /**
+     * Deadline that was missed
+     */
+    public record Violation(String code, String message) {
+    }
+
+    private final long firstEventNanos;
+    private final long idleNanos;
+    private final long toolCallNanos;
+    private final long maxDurationNanos;
+    private final long startNanos;
+
+    private final Map<String, Long> openTools = new HashMap<>();
+    private boolean outputSeen;
+    private long lastFrameNanos;
+    private boolean stopped;
+    private ScheduledFuture<?> tick;
+
+    public StreamWatchdog(long firstEventMs, long idleMs, long toolCallMs, long maxDurationMs, long startNanos) {
+        this.firstEventNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, firstEventMs));
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, idleMs));
+        this.toolCallNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, toolCallMs));
+        this.maxDurationNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxDurationMs));
+        this.startNanos = startNanos;
+        this.lastFrameNanos = startNanos;
+    }
+
+    /**
+     * Check the deadlines periodically until one is missed or {@link #stop}
+     *
+     * @param onViolation Called once, on a virtual thread (never the scheduler)
+     */
+    public synchronized void start(ScheduledExecutorService scheduler, Consumer<Violation> onViolation) {
+        long shortest = Long.MAX_VALUE;
+        for (long deadline : new long[]{firstEventNanos, idleNanos, toolCallNanos, maxDurationNanos}) {
+            if (deadline > 0) {
+                shortest = Math.min(shortest, deadline);
+            }
+        }
+        if (shortest == Long.MAX_VALUE || stopped) {
+            return;
+        }
+        long tickMs = Math.max(MIN_TICK_MS, Math.min(MAX_TICK_MS, TimeUnit.NANOSECONDS.toMillis(shortest) / 4));
+        tick = scheduler.scheduleAtFixedRate(() -> {
+            Violation violation = expire(System.nanoTime());
+            if (violation != null) {
+                Thread.ofVirtual().name("stream-watchdog").start(() -> onViolation.accept(violation));
+            }
+        }, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Record one sent frame
+     */
+    public synchronized void onFrame(StreamEvents.StreamEvent event, long nowNanos) {
+        lastFrameNanos = nowNanos;
+        if (event instanceof StreamEvents.SessionStartEvent) {
+            return;
+        }
+        outputSeen = true;
+        if (event instanceof StreamEvents.ToolCallStartEvent start) {
+            openTools.put(start.getToolId(), nowNanos);
+        } else if (event instanceof StreamEvents.ToolCallEndEvent end) {
+            openTools.remove(end.getToolId());
+        }
+    }
+
+    /**
+     * First missed deadline at nowNanos, or null
+     */
+    public synchronized Violation check(long nowNanos) {
+        long elapsed = nowNanos - startNanos;
+        if (maxDurationNanos > 0 && elapsed > maxDurationNanos) {
+            return new Violation(STREAM_TIMEOUT, "Response took longer than " + millis(maxDurationNanos) + "ms");
+        }
+        if (!outputSeen) {
+            if (firstEventNanos > 0 && elapsed > firstEventNanos) {
+                return new Violation(FIRST_EVENT_TIMEOUT, "No response within " + millis(firstEventNanos) + "ms");
+            }
+            return null;
+        }
+        if (!openTools.isEmpty()) {
+            if (toolCallNanos > 0) {
+                long oldest = openTools.values().stream().mapToLong(Long::longValue).min().orElse(nowNanos);
+                if (nowNanos - oldest > toolCallNanos) {
+                    return new Violation(TOOL_TIMEOUT, "Tool call took longer than " + millis(toolCallNanos) + "ms");
+                }
+            }
+            return null;
+        }
+        if (idleNanos > 0 && nowNanos - lastFrameNanos > idleNanos) {
+            return new Violation(IDLE_TIMEOUT, "No response for " + millis(idleNanos) + "ms");
+        }
+        return null;
+    }
+
+    /**
+     * Stop checking (the run ended)
+     */
+    public synchronized void stop() {
+        stopped = true;
+        if (tick != null) {
+            tick.cancel(false);
+            tick = null;
+        }
+    }
+
+    private synchronized Violation expire(long nowNanos) {
+        if (stopped) {
+            return null;
+        }
+        Violation violation = check(nowNanos);
+        if (violation != null) {
+            stop();
+        }
+        return violation;
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
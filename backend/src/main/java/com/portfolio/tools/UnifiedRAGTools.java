@@ -16,6 +16,7 @@ import java.util.*;
  * Features:
  * - Semantic search using Google AI embeddings (3072 dimensions)
  * - Profile-based filtering (personal, projects)
+ * - Indexed GitHub READMEs and docs (github)
  * - Profile knowledge base access via PostgreSQL + pgvector
  */
 public class UnifiedRAGTools {
@@ -71,6 +72,25 @@ public class UnifiedRAGTools {
         }
     }
 
+    // ==================== GitHub Docs ====================
+
+    @Schema(description = "Search indexed README and documentation files of my GitHub repositories")
+    public static Map<String, Object> queryGitHubDocs(
+            @Schema(name = "query", description = "Repository name, feature, setup step, or architecture topic") String query) {
+        ensureInitialized();
+
+        try {
+            List<VectorQueryService.VectorSearchResult> results =
+                    vectorQueryService.searchByCategory("github", query, 5);
+
+            return buildResponse(results, query, "github");
+
+        } catch (Exception e) {
+            log.error("[ProfileRAG] Error in queryGitHubDocs", e);
+            return errorResponse(query, e.getMessage());
+        }
+    }
+
     // ==================== Utility Methods ====================
 
     private static void ensureInitialized() {
@@ -28,6 +28,15 @@ CREATE INDEX idx_vector_store_path ON vector_store(path);
 --     USING ivfflat (embedding vector_cosine_ops)
 --     WITH (lists = 100);
 
+-- Track which GitHub repositories have been indexed into vector_store (github/ category)
+-- Repos are only re-indexed when GitHub's pushed_at changes
+CREATE TABLE IF NOT EXISTS github_index_state (
+    repo VARCHAR(255) PRIMARY KEY,
+    pushed_at VARCHAR(64) NOT NULL,
+    chunks INTEGER NOT NULL DEFAULT 0,
+    indexed_at TIMESTAMP DEFAULT NOW()
+);
+
 -- Create contact_messages table for storing contact form submissions
 CREATE TABLE IF NOT EXISTS contact_messages (
     id SERIAL PRIMARY KEY,
@@ -62,3 +71,25 @@ CREATE INDEX IF NOT EXISTS idx_api_logs_created_at ON api_logs(created_at DESC);
 CREATE INDEX IF NOT EXISTS idx_api_logs_path_method ON api_logs(request_path, request_method);
 CREATE INDEX IF NOT EXISTS idx_api_logs_status_code ON api_logs(status_code);
 CREATE INDEX IF NOT EXISTS idx_api_logs_ip_address ON api_logs(ip_address);
+
+-- Durable chat sessions (chat.sessions.durable=true)
+-- event_count is the seq of the latest event; events are ADK event JSON
+CREATE TABLE IF NOT EXISTS chat_sessions (
+    id VARCHAR(255) PRIMARY KEY,
+    app_name VARCHAR(255) NOT NULL,
+    user_id VARCHAR(255) NOT NULL,
+    state TEXT NOT NULL DEFAULT '{}',
+    event_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT NOW(),
+    updated_at TIMESTAMP DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_chat_sessions_updated_at ON chat_sessions(updated_at);
+
+CREATE TABLE IF NOT EXISTS chat_session_events (
+    session_id VARCHAR(255) NOT NULL REFERENCES chat_sessions(id) ON DELETE CASCADE,
+    seq INTEGER NOT NULL,
+    event TEXT NOT NULL,
+    created_at TIMESTAMP DEFAULT NOW(),
+    PRIMARY KEY (session_id, seq)
+);
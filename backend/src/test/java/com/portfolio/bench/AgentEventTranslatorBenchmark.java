@@ -0,0 +1,264 @@
+package com.portfolio.bench;
+
+import com.google.adk.events.Event;
+import com.google.genai.types.Content;
+import com.google.genai.types.Part;
+import com.portfolio.model.StreamEvents;
+import com.portfolio.stream.AgentEventTranslator;
+import com.portfolio.stream.DeltaCoalescer;
+import com.portfolio.stream.DeltaTracker;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Events/sec and allocation per event of the chat stream state machine
+ *
+ * One invocation translates a whole recorded run (EVENTS events): 60 partial
+ * thinking snapshots, a turn calling the same tool toolCalls times plus one
+ * other tool, the matching responses, 60 response snapshots and turn complete.
+ * - legacy: previous AgentEventTranslator (AtomicBoolean/AtomicInteger
+ *   fields, ConcurrentHashMap of tool states, linear stream filter per result)
+ * - current: AgentEventTranslator (plain fields, per-tool-name FIFO queues)
+ *
+ * Throughput is reported per event; the GC profiler adds gc.alloc.rate.norm
+ * (bytes allocated per event).
+ *
+ * Measured (-prof gc -wi 5 -i 10 -r 2, 1 CPU, JUL at SEVERE: ADK logs a
+ * warning whenever Content.text() meets a function part, which otherwise
+ * dominates the tool events and the error bars):
+ *
+ *   toolCalls  impl      events/s            B/event
+ *   2          legacy     774,590 +- 82,976   3771
+ *   2          current    985,478 +- 76,755   2744
+ *   16         legacy     673,263 +- 81,621   4012
+ *   16         current  1,038,703 +- 67,606   2826
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=com.portfolio.bench.AgentEventTranslatorBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AgentEventTranslatorBenchmark {
+
+    private static final int SNAPSHOTS = 60;
+    private static final int EVENTS = 2 * SNAPSHOTS + 3;
+
+    @Param({"2", "16"})
+    public int toolCalls;
+
+    private List<Event> events;
+    private final AgentEventTranslator.Output sink = new AgentEventTranslator.Output() {
+        @Override
+        public void send(StreamEvents.StreamEvent event) {
+        }
+
+        @Override
+        public void delta(DeltaCoalescer.Phase phase, String text) {
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        events = new ArrayList<>(EVENTS);
+        StringBuilder thinking = new StringBuilder();
+        for (int i = 0; i < SNAPSHOTS; i++) {
+            thinking.append("considering step ").append(i).append(". ");
+            events.add(event(Content.fromParts(Part.fromText(thinking.toString())), true, false));
+        }
+
+        List<Part> calls = new ArrayList<>();
+        List<Part> results = new ArrayList<>();
+        for (int i = 0; i < toolCalls; i++) {
+            calls.add(Part.fromFunctionCall("searchKnowledge", Map.of("query", "topic " + i)));
+            results.add(Part.fromFunctionResponse("searchKnowledge", Map.of("result", "chunk " + i)));
+        }
+        calls.add(Part.fromFunctionCall("getContactCard", Map.of()));
+        results.add(Part.fromFunctionResponse("getContactCard", Map.of("result", "card")));
+        events.add(event(Content.builder().role("model").parts(calls).build(), false, false));
+        events.add(event(Content.builder().role("user").parts(results).build(), false, false));
+
+        StringBuilder response = new StringBuilder();
+        for (int i = 0; i < SNAPSHOTS; i++) {
+            response.append("Sentence ").append(i).append(" of the answer. ");
+            events.add(event(Content.fromParts(Part.fromText(response.toString())), false, false));
+        }
+        events.add(event(Content.fromParts(Part.fromText(response.toString())), false, true));
+    }
+
+    private static Event event(Content content, boolean partial, boolean turnComplete) {
+        return Event.builder()
+                .id(Event.generateEventId())
+                .invocationId("bench")
+                .author("digital_twin")
+                .content(content)
+                .partial(partial)
+                .turnComplete(turnComplete)
+                .build();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int legacy() throws IOException {
+        LegacyTranslator translator = new LegacyTranslator();
+        for (Event event : events) {
+            translator.onEvent(event, sink);
+        }
+        return translator.outputChars.get();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int current() throws IOException {
+        AgentEventTranslator translator = new AgentEventTranslator();
+        for (Event event : events) {
+            translator.onEvent(event, sink);
+        }
+        return translator.outputChars();
+    }
+
+    /**
+     * AgentEventTranslator.onEvent before the plain-field rewrite
+     */
+    private static class LegacyTranslator {
+        final AtomicBoolean thinkingPhaseSent = new AtomicBoolean(false);
+        final AtomicBoolean thinkingContentSent = new AtomicBoolean(false);
+        final AtomicBoolean responsePhaseStarted = new AtomicBoolean(false);
+        final AtomicBoolean responseCompleteSent = new AtomicBoolean(false);
+        final DeltaTracker thinkingContent = new DeltaTracker();
+        final DeltaTracker responseContent = new DeltaTracker();
+        final Map<String, ToolCallState> activeTools = new ConcurrentHashMap<>();
+        final AtomicInteger toolCallCounter = new AtomicInteger(0);
+        final AtomicInteger outputChars = new AtomicInteger(0);
+        volatile String agent = "unknown";
+
+        void onEvent(Event event, AgentEventTranslator.Output out) throws IOException {
+            String author = event.author();
+            if (author != null && !author.isEmpty() && !"user".equals(author)) {
+                agent = author;
+            }
+
+            if (event.partial().orElse(false)) {
+                if (thinkingPhaseSent.compareAndSet(false, true)) {
+                    out.send(new StreamEvents.ThinkingStartEvent());
+                }
+                String content = text(event);
+                if (content != null) {
+                    String delta = thinkingContent.next(content);
+                    if (!delta.isEmpty()) {
+                        out.delta(DeltaCoalescer.Phase.THINKING, delta);
+                        outputChars.addAndGet(delta.length());
+                        thinkingContentSent.set(true);
+                    }
+                }
+            }
+
+            if (event.functionCalls() != null && !event.functionCalls().isEmpty()) {
+                if (thinkingContentSent.get() && thinkingPhaseSent.get()) {
+                    out.send(new StreamEvents.ThinkingEndEvent());
+                    thinkingPhaseSent.set(false);
+                }
+                event.functionCalls().forEach(call -> {
+                    try {
+                        String toolId = "tool_" + toolCallCounter.incrementAndGet();
+                        String toolName = call.name().orElse("unknown");
+                        String args = call.args().map(Object::toString).orElse("{}");
+                        activeTools.put(toolId, new ToolCallState(toolName));
+                        out.send(new StreamEvents.ToolCallStartEvent(toolId, toolName, args));
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+            }
+
+            if (event.functionResponses() != null && !event.functionResponses().isEmpty()) {
+                event.functionResponses().forEach(response -> {
+                    String toolName = response.name().orElse("unknown");
+                    String result = response.response().map(Object::toString).orElse("Success");
+                    activeTools.entrySet().stream()
+                            .filter(entry -> entry.getValue().toolName.equals(toolName))
+                            .filter(entry -> !entry.getValue().completed)
+                            .findFirst()
+                            .ifPresent(entry -> {
+                                try {
+                                    entry.getValue().completed = true;
+                                    out.send(new StreamEvents.ToolCallEndEvent(entry.getKey(), toolName, result, true));
+                                } catch (Exception e) {
+                                    throw new IllegalStateException(e);
+                                }
+                            });
+                });
+            }
+
+            if (!event.partial().orElse(false)) {
+                String content = text(event);
+                if (content != null) {
+                    if (thinkingPhaseSent.get()) {
+                        out.send(new StreamEvents.ThinkingEndEvent());
+                        thinkingPhaseSent.set(false);
+                    }
+                    if (responsePhaseStarted.compareAndSet(false, true)) {
+                        out.send(new StreamEvents.ResponseStartEvent());
+                    }
+                    String delta = responseContent.next(content);
+                    if (!delta.isEmpty()) {
+                        out.delta(DeltaCoalescer.Phase.RESPONSE, delta);
+                        outputChars.addAndGet(delta.length());
+                    }
+                }
+            }
+
+            if (event.turnComplete().orElse(false)) {
+                if (thinkingPhaseSent.get()) {
+                    out.send(new StreamEvents.ThinkingEndEvent());
+                    thinkingPhaseSent.set(false);
+                }
+                if (responsePhaseStarted.get() && responseCompleteSent.compareAndSet(false, true)) {
+                    out.send(new StreamEvents.ResponseEndEvent());
+                }
+            }
+        }
+
+        private static String text(Event event) {
+            return event.content()
+                    .map(content -> {
+                        String text = content.text();
+                        return text != null && !text.isBlank() ? text : null;
+                    })
+                    .orElse(null);
+        }
+
+        private static class ToolCallState {
+            final String toolName;
+            boolean completed;
+
+            ToolCallState(String toolName) {
+                this.toolName = toolName;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AgentEventTranslatorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,277 @@
+package com.portfolio.bench;
+
+import com.google.adk.events.Event;
+import com.google.genai.types.Content;
+import com.google.genai.types.Part;
+import com.portfolio.config.ChatResponseCacheProperties;
+import com.portfolio.config.ChatStreamProperties;
+import com.portfolio.config.EmbeddingProperties;
+import com.portfolio.config.SessionStoreProperties;
+import com.portfolio.controller.ChatController;
+import com.portfolio.filter.ChatAdmissionFilter;
+import com.portfolio.service.AgentService;
+import com.portfolio.service.RateLimitService;
+import com.portfolio.service.VectorQueryService;
+import com.portfolio.stream.ChatAdmissionController;
+import com.portfolio.stream.ChatResponseCache;
+import com.portfolio.stream.ChatStreamMetrics;
+import com.portfolio.stream.ChatStreamRunner;
+import com.portfolio.stream.ResumableStreamRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.reactivex.rxjava3.core.Flowable;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent-stream capacity of /chat/stream vs /chat/stream/reactive
+ *
+ * Opens N concurrent SSE streams against a running backend and reports, per
+ * endpoint: completed/failed streams, time to first frame (p50/p95), total
+ * wall time and frames received. An optional per-frame read delay emulates
+ * slow clients so backpressure (reactive) vs server-side buffering (emitter)
+ * shows up in server memory and thread counts (watch /actuator/metrics
+ * jvm.threads.live and jvm.memory.used while it runs).
+ *
+ * Not a unit test. Against a live backend (needs model credentials):
+ *   mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=com.portfolio.bench.ChatStreamCapacityBenchmark
+ *      -Dexec.args="http://localhost:8080/api/v1 50 0"
+ *      (base URL, concurrent streams, per-frame client delay in ms)
+ * With "stub" as base URL it starts the chat controller, stream runner and
+ * admission filter in-process on a random port, with a synthetic agent that
+ * streams STUB_EVENTS cumulative response events STUB_EVENT_INTERVAL_MS apart
+ * (no database, no model). Admission is sized to the stream count and the
+ * response cache is off, so every stream runs the agent.
+ *
+ * Each stream asks a different question, so /chat/stream does not serve
+ * them from one shared run.
+ *
+ * Stub results (1 CPU shared by client and server, 40 events x 20ms, after
+ * the warm-up round):
+ *
+ *   streams  endpoint   frames  first-frame p50/p95   wall
+ *   50       /stream      791      389 /  673 ms      1.5 s
+ *   50       /reactive   2200      237 /  406 ms      3.4 s
+ *   200      /stream     1438     2832 / 3774 ms      4.5 s
+ *   200      /reactive   8800     1280 / 1968 ms     11.5 s
+ *   500      /stream     2901     3741 / 5971 ms      6.7 s
+ *   500      /reactive  22000     1026 / 2398 ms     19.0 s
+ *
+ * /stream coalesces deltas (far fewer frames) and finishes all streams
+ * sooner; /reactive writes one frame per event and gets the first frame out
+ * sooner under load. A 10ms per-frame client delay at 200 streams changed
+ * neither much.
+ */
+public class ChatStreamCapacityBenchmark {
+
+    private static final String MESSAGE = "Give me a short overview of your most recent project";
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080/api/v1";
+        int streams = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        long frameDelayMs = args.length > 2 ? Long.parseLong(args[2]) : 0;
+
+        ConfigurableApplicationContext stub = null;
+        if ("stub".equals(baseUrl)) {
+            stub = StubBackend.start(streams);
+            int port = ((ServletWebServerApplicationContext) stub).getWebServer().getPort();
+            baseUrl = "http://localhost:" + port + "/api/v1";
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        List<String> endpoints = List.of("/chat/stream", "/chat/stream/reactive");
+        // Unmeasured round first: servlet init and JIT would otherwise land on /chat/stream
+        for (String endpoint : endpoints) {
+            run(client, baseUrl + endpoint, Math.min(streams, 8), 0);
+        }
+        for (String endpoint : endpoints) {
+            Result result = run(client, baseUrl + endpoint, streams, frameDelayMs);
+            System.out.printf("%-24s streams=%d ok=%d failed=%d frames=%d first-frame p50=%dms p95=%dms wall=%dms%n",
+                    endpoint, streams, result.completed, result.failed, result.frames,
+                    result.percentile(50), result.percentile(95), result.wallMillis);
+        }
+        if (stub != null) {
+            stub.close();
+        }
+    }
+
+    private static Result run(HttpClient client, String url, int streams, long frameDelayMs) throws InterruptedException {
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong frames = new AtomicLong();
+        List<Long> firstFrameMillis = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(streams);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < streams; i++) {
+                String sessionId = "bench-" + System.nanoTime() + "-" + i;
+                String message = MESSAGE + " (stream " + i + ")";
+                executor.execute(() -> {
+                    try {
+                        long opened = System.nanoTime();
+                        HttpRequest request = HttpRequest.newBuilder()
+                                .uri(URI.create(url + "?sessionId=" + sessionId
+                                        + "&message=" + URLEncoder.encode(message, StandardCharsets.UTF_8)))
+                                .header("Accept", "text/event-stream")
+                                .GET()
+                                .build();
+                        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                        if (response.statusCode() != 200) {
+                            failed.incrementAndGet();
+                            return;
+                        }
+
+                        boolean first = true;
+                        try (BufferedReader reader = new BufferedReader(
+                                new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                            String line;
+                            while ((line = reader.readLine()) != null) {
+                                if (!line.startsWith("event:")) {
+                                    continue;
+                                }
+                                if (first) {
+                                    firstFrameMillis.add((System.nanoTime() - opened) / 1_000_000);
+                                    first = false;
+                                }
+                                frames.incrementAndGet();
+                                if (frameDelayMs > 0) {
+                                    Thread.sleep(frameDelayMs);
+                                }
+                            }
+                        }
+                        completed.incrementAndGet();
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+
+        return new Result(completed.get(), failed.get(), frames.get(),
+                new ArrayList<>(firstFrameMillis), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static final int STUB_EVENTS = 40;
+    private static final long STUB_EVENT_INTERVAL_MS = 20;
+
+    /**
+     * Chat endpoints with a synthetic agent; see class doc
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = DataSourceAutoConfiguration.class)
+    @Import({
+            ChatController.class,
+            ChatAdmissionFilter.class,
+            ChatStreamRunner.class,
+            ChatStreamMetrics.class,
+            ChatAdmissionController.class,
+            ChatResponseCache.class,
+            ResumableStreamRegistry.class,
+            RateLimitService.class,
+            ChatStreamProperties.class,
+            ChatResponseCacheProperties.class})
+    static class StubBackend {
+
+        static ConfigurableApplicationContext start(int streams) {
+            return new SpringApplicationBuilder(StubBackend.class)
+                    .properties(
+                            "spring.config.name=capacity-bench",
+                            "server.port=0",
+                            "server.servlet.context-path=/api/v1",
+                            "logging.level.root=WARN",
+                            "chat.stream.max-concurrent=" + streams,
+                            "chat.stream.adaptive-limit-enabled=false",
+                            "chat.response-cache.enabled=false")
+                    .run();
+        }
+
+        @Bean(name = "sseFlushScheduler", destroyMethod = "shutdownNow")
+        ScheduledExecutorService sseFlushScheduler() {
+            return Executors.newScheduledThreadPool(2);
+        }
+
+        @Bean
+        VectorQueryService vectorQueryService() {
+            return new VectorQueryService(null, null, new EmbeddingProperties(), null);
+        }
+
+        @Bean
+        AgentService agentService() {
+            return new AgentService(new SessionStoreProperties(), null, new SimpleMeterRegistry()) {
+                @Override
+                public Flowable<Event> processMessageStream(String sessionId, String message) {
+                    return Flowable.intervalRange(1, STUB_EVENTS, STUB_EVENT_INTERVAL_MS, STUB_EVENT_INTERVAL_MS,
+                                    TimeUnit.MILLISECONDS)
+                            .map(i -> Event.builder()
+                                    .id(Event.generateEventId())
+                                    .invocationId("bench")
+                                    .author("tech_lead")
+                                    .content(Content.builder().role("model")
+                                            .parts(List.of(Part.fromText("word ".repeat(i.intValue() * 5)))).build())
+                                    .partial(false)
+                                    .turnComplete(i == STUB_EVENTS)
+                                    .build())
+                            // A model stream does not pause either: events wait for demand
+                            .onBackpressureBuffer();
+                }
+
+                @Override
+                public boolean hasSession(String sessionId) {
+                    return false;
+                }
+
+                @Override
+                public void appendTurn(String sessionId, String message, String response) {
+                }
+
+                @Override
+                public void init() {
+                }
+            };
+        }
+    }
+
+    private record Result(int completed, int failed, long frames, List<Long> firstFrameMillis, long wallMillis) {
+        long percentile(int p) {
+            if (firstFrameMillis.isEmpty()) return -1;
+            List<Long> sorted = new ArrayList<>(firstFrameMillis);
+            Collections.sort(sorted);
+            int index = (int) Math.ceil(p / 100.0 * sorted.size()) - 1;
+            return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+        }
+    }
+}
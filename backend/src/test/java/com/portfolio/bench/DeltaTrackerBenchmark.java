@@ -0,0 +1,117 @@
+package com.portfolio.bench;
+
+import com.portfolio.stream.DeltaTracker;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-event cost of delta extraction at 2 KB, 20 KB and 200 KB of streamed text
+ *
+ * Each invocation handles one cumulative snapshot that adds a 16-char chunk
+ * to a response of responseChars characters.
+ * - legacyStringBuilder: previous ChatController.diffFromLast (toString + startsWith)
+ * - deltaTracker: DeltaTracker.next
+ *
+ * Both scale with the response length: each event compares the whole previous
+ * snapshot. Measured with -prof gc (JDK 21, 3x1s warmup, 5x1s measurement):
+ *
+ *   chars    legacy ns/op  legacy B/op   tracker ns/op  tracker B/op
+ *   2048          591          2104            76            56
+ *   20480        7648         20536           759            56
+ *   204800      82156        204856          9605            56
+ *
+ * At 200 KB an event still costs ~10 us in the tracker, but it allocates only
+ * the delta instead of a copy of the whole text.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=com.portfolio.bench.DeltaTrackerBenchmark
+ * (allocation: run org.openjdk.jmh.Main DeltaTrackerBenchmark -prof gc)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DeltaTrackerBenchmark {
+
+    private static final int CHUNK_CHARS = 16;
+
+    @Param({"2048", "20480", "204800"})
+    public int responseChars;
+
+    private String previous;
+    private String current;
+    private StringBuilder legacyEmitted;
+    private DeltaTracker tracker;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder(responseChars);
+        while (text.length() < responseChars) {
+            text.append((char) ('a' + random.nextInt(26)));
+            if (random.nextInt(6) == 0) {
+                text.append(' ');
+            }
+        }
+        current = text.substring(0, responseChars);
+        previous = current.substring(0, responseChars - CHUNK_CHARS);
+
+        legacyEmitted = new StringBuilder(previous);
+        tracker = new DeltaTracker();
+    }
+
+    @Benchmark
+    public String legacyStringBuilder() {
+        String delta = legacyDiffFromLast(legacyEmitted, current);
+        legacyEmitted.setLength(previous.length());
+        return delta;
+    }
+
+    @Benchmark
+    public String deltaTracker() {
+        tracker.reset();
+        tracker.next(previous);
+        return tracker.next(current);
+    }
+
+    /**
+     * Copy of the pre-DeltaTracker implementation for comparison
+     */
+    private static String legacyDiffFromLast(StringBuilder emitted, String content) {
+        String previous = emitted.toString();
+        if (previous.isEmpty()) {
+            emitted.append(content);
+            return content;
+        }
+        if (content.startsWith(previous)) {
+            String delta = content.substring(previous.length());
+            if (!delta.isEmpty()) {
+                emitted.append(delta);
+            }
+            return delta;
+        }
+        int commonPrefix = 0;
+        int maxLen = Math.min(previous.length(), content.length());
+        while (commonPrefix < maxLen && previous.charAt(commonPrefix) == content.charAt(commonPrefix)) {
+            commonPrefix++;
+        }
+        emitted.setLength(0);
+        emitted.append(content);
+        return commonPrefix > 0 ? content.substring(commonPrefix) : content;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DeltaTrackerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
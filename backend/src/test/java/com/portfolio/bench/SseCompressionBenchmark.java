@@ -0,0 +1,124 @@
+package com.portfolio.bench;
+
+import com.portfolio.model.StreamEvents;
+import com.portfolio.stream.GzipFrameClient;
+import com.portfolio.stream.ResumableStream;
+import com.portfolio.stream.SseEventEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU per SSE frame and bytes saved with gzip sync-flush
+ *
+ * Frame mix of a typical answer: a tool call (start + end with a 1000-char
+ * result, the truncateResult cap) every 20 frames, otherwise coalesced
+ * response deltas of ~120 chars.
+ * - identity: frames passed through unchanged
+ * - gzip: GzipFrameClient at deflate level 1 and 6
+ *
+ * Each invocation writes one frame; the compression ratio of the whole run
+ * is printed at teardown.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=com.portfolio.bench.SseCompressionBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SseCompressionBenchmark {
+
+    private static final int FRAMES = 200;
+
+    @Param({"1", "6"})
+    public int level;
+
+    private List<byte[]> frames;
+    private int next;
+    private long rawBytes;
+    private long compressedBytes;
+    private ResumableStream.Client sink;
+    private GzipFrameClient gzip;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        SseEventEncoder encoder = new SseEventEncoder();
+        frames = new ArrayList<>(FRAMES);
+        for (int i = 0; i < FRAMES; i++) {
+            if (i % 20 == 0) {
+                frames.add(encoder.encode(new StreamEvents.ToolCallStartEvent("tool-" + i, "searchKnowledge", "{\"query\":\"projects\"}")));
+                frames.add(encoder.encode(new StreamEvents.ToolCallEndEvent("tool-" + i, "searchKnowledge", words(random, 1000), true)));
+            } else {
+                frames.add(encoder.encode(new StreamEvents.ResponseDeltaEvent(words(random, 120))));
+            }
+        }
+        sink = new ResumableStream.Client() {
+            @Override
+            public void sendFrame(byte[] frame) {
+                compressedBytes += frame.length;
+            }
+
+            @Override
+            public void complete() {
+            }
+
+            @Override
+            public void completeWithError(Throwable ex) {
+            }
+        };
+        gzip = new GzipFrameClient(sink, level, (raw, out, nanos) -> rawBytes += raw);
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        if (rawBytes > 0) {
+            System.out.printf("%nlevel %d: %d -> %d bytes (%.1f%% saved)%n",
+                    level, rawBytes, compressedBytes, 100.0 * (rawBytes - compressedBytes) / rawBytes);
+        }
+    }
+
+    private byte[] nextFrame() {
+        byte[] frame = frames.get(next);
+        next = (next + 1) % frames.size();
+        return frame;
+    }
+
+    @Benchmark
+    public int identity() {
+        return nextFrame().length;
+    }
+
+    @Benchmark
+    public void gzip() throws IOException {
+        gzip.sendFrame(nextFrame());
+    }
+
+    private static String words(Random random, int chars) {
+        String[] vocabulary = {"the", "project", "uses", "Spring", "Boot", "and", "a", "vector", "store",
+                "for", "retrieval", "with", "streaming", "responses", "to", "the", "frontend", "agent"};
+        StringBuilder text = new StringBuilder(chars + 16);
+        while (text.length() < chars) {
+            text.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+        }
+        return text.substring(0, chars);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SseCompressionBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,186 @@
+package com.portfolio.controller;
+
+import com.google.adk.events.Event;
+import com.google.genai.types.Content;
+import com.google.genai.types.Part;
+import com.portfolio.config.ChatResponseCacheProperties;
+import com.portfolio.config.ChatStreamProperties;
+import com.portfolio.config.EmbeddingProperties;
+import com.portfolio.config.SessionStoreProperties;
+import com.portfolio.service.AgentService;
+import com.portfolio.service.RateLimitService;
+import com.portfolio.service.VectorQueryService;
+import com.portfolio.stream.ChatAdmissionController;
+import com.portfolio.stream.ChatResponseCache;
+import com.portfolio.stream.ChatStreamMetrics;
+import com.portfolio.stream.ChatStreamRunner;
+import com.portfolio.stream.ResumableStreamRegistry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.reactivex.rxjava3.core.Flowable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ChatController streaming endpoints
+ */
+class ChatControllerTest {
+
+    /**
+     * Answers every question with one final text event, or fails
+     */
+    private static class FakeAgentService extends AgentService {
+        final List<String> runs = new ArrayList<>();
+        final List<String> appendedTurns = new ArrayList<>();
+        RuntimeException failure;
+
+        FakeAgentService() {
+            super(new SessionStoreProperties(), null, new SimpleMeterRegistry());
+        }
+
+        @Override
+        public Flowable<Event> processMessageStream(String sessionId, String message) {
+            runs.add(sessionId);
+            if (failure != null) {
+                return Flowable.error(failure);
+            }
+            return Flowable.just(Event.builder()
+                    .id(Event.generateEventId())
+                    .invocationId("inv")
+                    .author("tech_lead")
+                    .content(Content.builder().role("model").parts(List.of(Part.fromText("I build backends."))).build())
+                    .partial(false)
+                    .turnComplete(true)
+                    .build());
+        }
+
+        @Override
+        public boolean hasSession(String sessionId) {
+            return false;
+        }
+
+        @Override
+        public void appendTurn(String sessionId, String message, String response) {
+            appendedTurns.add(sessionId + ": " + response);
+        }
+    }
+
+    private static class RecordingAdmission extends ChatAdmissionController {
+        int latencySamples;
+
+        RecordingAdmission(ChatStreamProperties properties, SimpleMeterRegistry registry) {
+            super(properties, registry);
+        }
+
+        @Override
+        public void recordLatency(long ttftMs, long totalMs) {
+            latencySamples++;
+        }
+    }
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ChatStreamProperties properties = new ChatStreamProperties();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final FakeAgentService agentService = new FakeAgentService();
+    private final RecordingAdmission admission = new RecordingAdmission(properties, registry);
+    private final ChatStreamMetrics metrics = new ChatStreamMetrics(registry);
+    private final ChatResponseCache cache = new ChatResponseCache(new ChatResponseCacheProperties(), registry,
+            new VectorQueryService(null, null, new EmbeddingProperties(), null));
+    private final ChatController controller = new ChatController(
+            agentService,
+            new RateLimitService(),
+            properties,
+            new ChatStreamRunner(agentService, properties, scheduler, metrics, admission, cache),
+            metrics,
+            admission,
+            cache,
+            new ResumableStreamRegistry(properties, scheduler, registry));
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private List<String> reactive(String sessionId, String message) {
+        List<ServerSentEvent<String>> events = controller.streamChatReactiveGet(message, sessionId)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+        return events.stream().map(ServerSentEvent::event).toList();
+    }
+
+    /**
+     * Waits until an SSE stream with this outcome reported its timings
+     */
+    private void awaitStream(String outcome) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            DistributionSummary frames = registry.find("chat.stream.frames").tag("outcome", outcome).summary();
+            if (frames != null && frames.count() > 0) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("No " + outcome + " stream");
+    }
+
+    private double count(String name) {
+        return registry.get(name).counter().count();
+    }
+
+    @Test
+    void testReactiveStreamCompletes() {
+        List<String> types = reactive("s1", "What do you build?");
+
+        assertEquals(List.of("session_start", "response_start", "response_delta", "response_end", "complete"), types);
+        assertEquals(1, count("chat.stream.completed"));
+        assertEquals(0, count("chat.stream.errors"));
+        assertEquals(1, admission.latencySamples);
+    }
+
+    @Test
+    void testReactiveErrorIsNotCountedAsCompleted() {
+        agentService.failure = new IllegalStateException("model unavailable");
+
+        List<String> types = reactive("s1", "What do you build?");
+
+        assertEquals(List.of("session_start", "error"), types);
+        assertEquals(0, count("chat.stream.completed"));
+        assertEquals(1, count("chat.stream.errors"));
+        assertEquals(0, admission.latencySamples, "failed streams do not feed the adaptive limit");
+        assertEquals(0, cache.size(), "failed stream not cached");
+    }
+
+    @Test
+    void testReactiveCacheHitReplaysWithoutAgent() {
+        reactive("s1", "What do you build?");
+
+        List<String> types = reactive("s2", "what do you build");
+
+        assertEquals(List.of("session_start", "response_start", "response_delta", "response_end", "complete"), types);
+        assertEquals(List.of("s1"), agentService.runs, "second question answered from the cache");
+        assertEquals(List.of("s2: I build backends."), agentService.appendedTurns);
+        assertEquals(1, count("chat.stream.completed"));
+    }
+
+    @Test
+    void testSseCacheHitIsReplayedByRunner() throws Exception {
+        controller.streamChatGet("What do you build?", "s1", null, null);
+        awaitStream("completed");
+
+        controller.streamChatGet("what do you build", "s2", null, null);
+        awaitStream("replayed");
+
+        assertEquals(List.of("s1"), agentService.runs, "second question answered from the cache");
+        assertEquals(List.of("s2: I build backends."), agentService.appendedTurns);
+        assertEquals(1, count("chat.stream.completed"));
+    }
+}
@@ -0,0 +1,319 @@
+package com.portfolio.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.adk.events.Event;
+import com.portfolio.config.ChatResponseCacheProperties;
+import com.portfolio.config.ChatStreamProperties;
+import com.portfolio.config.EmbeddingProperties;
+import com.portfolio.config.SessionStoreProperties;
+import com.portfolio.service.AgentService;
+import com.portfolio.service.RateLimitService;
+import com.portfolio.service.VectorQueryService;
+import com.portfolio.stream.ChatAdmissionController;
+import com.portfolio.stream.ChatResponseCache;
+import com.portfolio.stream.ChatStreamMetrics;
+import com.portfolio.stream.ChatStreamRunner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.reactivex.rxjava3.core.Flowable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChatWebSocketHandler
+ * The agent never answers, so streams stay open until cancelled
+ */
+class ChatWebSocketHandlerTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * Agent run that only ends when disposed; counts disposals
+     */
+    private static class FakeAgentService extends AgentService {
+        final CountDownLatch started;
+        final CountDownLatch disposed;
+
+        FakeAgentService(int streams) {
+            super(new SessionStoreProperties(), null, new SimpleMeterRegistry());
+            this.started = new CountDownLatch(streams);
+            this.disposed = new CountDownLatch(streams);
+        }
+
+        @Override
+        public Flowable<Event> processMessageStream(String sessionId, String message) {
+            return Flowable.<Event>never()
+                    .doOnSubscribe(s -> started.countDown())
+                    .doOnCancel(disposed::countDown);
+        }
+
+        @Override
+        public boolean hasSession(String sessionId) {
+            return false;
+        }
+
+        @Override
+        public void appendTurn(String sessionId, String message, String response) {
+        }
+    }
+
+    private static class AllowAll extends RateLimitService {
+        @Override
+        public boolean allowRequest(String ip) {
+            return true;
+        }
+    }
+
+    private static class FakeSession implements WebSocketSession {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        volatile CloseStatus closed;
+
+        @Override
+        public String getId() {
+            return "ws-1";
+        }
+
+        @Override
+        public URI getUri() {
+            return URI.create("ws://localhost/api/v1/chat/ws");
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return new HashMap<>();
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return new InetSocketAddress("127.0.0.1", 50000);
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return null;
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return 65536;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return 65536;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            sent.add(((TextMessage) message).getPayload());
+        }
+
+        @Override
+        public boolean isOpen() {
+            return closed == null;
+        }
+
+        @Override
+        public void close() {
+            close(CloseStatus.NORMAL);
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+            closed = status;
+        }
+    }
+
+    private final ChatStreamProperties properties = new ChatStreamProperties();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final FakeSession session = new FakeSession();
+    private FakeAgentService agentService;
+    private ChatWebSocketHandler handler;
+
+    private void connect(int streams) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        agentService = new FakeAgentService(streams);
+        ChatStreamMetrics metrics = new ChatStreamMetrics(registry);
+        ChatAdmissionController admission = new ChatAdmissionController(properties, registry);
+        ChatResponseCache cache = new ChatResponseCache(new ChatResponseCacheProperties(), registry,
+                new VectorQueryService(null, null, new EmbeddingProperties(), null));
+        ChatStreamRunner runner = new ChatStreamRunner(agentService, properties, scheduler, metrics, admission, cache);
+        handler = new ChatWebSocketHandler(agentService, new AllowAll(), properties, runner, metrics, admission, cache);
+        handler.afterConnectionEstablished(session);
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Only cancellation ends a stream in these tests
+        properties.setFirstEventTimeoutMs(0);
+        properties.setIdleTimeoutMs(0);
+        properties.setToolCallTimeoutMs(0);
+        properties.setMaxDurationMs(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private void receive(String json) throws Exception {
+        handler.handleTextMessage(session, new TextMessage(json));
+    }
+
+    private static String chat(String streamId) {
+        return "{\"type\":\"chat\",\"stream_id\":\"" + streamId + "\",\"session_id\":\"s-" + streamId
+                + "\",\"message\":\"Hello\"}";
+    }
+
+    /**
+     * First sent envelope matching the predicate (writes are asynchronous)
+     */
+    private JsonNode awaitMessage(Predicate<JsonNode> match) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            for (String payload : session.sent) {
+                JsonNode envelope = OBJECT_MAPPER.readTree(payload);
+                if (match.test(envelope)) {
+                    return envelope;
+                }
+            }
+            Thread.sleep(5);
+        }
+        fail("No matching message in " + session.sent);
+        return null;
+    }
+
+    private static Predicate<JsonNode> error(String code) {
+        return envelope -> code.equals(envelope.path("event").path("code").asText());
+    }
+
+    @Test
+    void testInvalidJsonIsRejected() throws Exception {
+        connect(0);
+
+        receive("{not json");
+
+        JsonNode envelope = awaitMessage(error("BAD_REQUEST"));
+        assertTrue(envelope.path("stream_id").isNull());
+        assertEquals("Invalid JSON", envelope.path("event").path("message").asText());
+    }
+
+    @Test
+    void testMissingStreamIdIsRejected() throws Exception {
+        connect(0);
+
+        receive("{\"type\":\"chat\",\"message\":\"Hello\"}");
+
+        JsonNode envelope = awaitMessage(error("BAD_REQUEST"));
+        assertEquals("stream_id is required", envelope.path("event").path("message").asText());
+    }
+
+    @Test
+    void testDuplicateStreamIdIsRejected() throws Exception {
+        connect(1);
+        receive(chat("q1"));
+        assertTrue(agentService.started.await(5, TimeUnit.SECONDS));
+
+        receive(chat("q1"));
+
+        JsonNode envelope = awaitMessage(error("DUPLICATE_STREAM"));
+        assertEquals("q1", envelope.path("stream_id").asText());
+        awaitMessage(e -> "session_start".equals(e.path("event").path("type").asText())
+                && "q1".equals(e.path("stream_id").asText()));
+    }
+
+    @Test
+    void testCancelStopsAgentRun() throws Exception {
+        connect(1);
+        receive(chat("q1"));
+        assertTrue(agentService.started.await(5, TimeUnit.SECONDS));
+
+        receive("{\"type\":\"cancel\",\"stream_id\":\"q1\"}");
+
+        assertTrue(agentService.disposed.await(5, TimeUnit.SECONDS));
+        // The slot is free again once the worker finished
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            receive(chat("q1"));
+            if (session.sent.stream().noneMatch(p -> p.contains("DUPLICATE_STREAM"))) {
+                return;
+            }
+            session.sent.clear();
+            Thread.sleep(20);
+        }
+        fail("stream_id q1 still in use after cancel");
+    }
+
+    @Test
+    void testMaxStreamsPerConnection() throws Exception {
+        properties.setWsMaxStreams(1);
+        connect(1);
+        receive(chat("q1"));
+        assertTrue(agentService.started.await(5, TimeUnit.SECONDS));
+
+        receive(chat("q2"));
+
+        JsonNode envelope = awaitMessage(error("TOO_MANY_STREAMS"));
+        assertEquals("q2", envelope.path("stream_id").asText());
+    }
+
+    @Test
+    void testCloseCancelsAllStreams() throws Exception {
+        connect(2);
+        receive(chat("q1"));
+        receive(chat("q2"));
+        assertTrue(agentService.started.await(5, TimeUnit.SECONDS));
+
+        handler.afterConnectionClosed(session, CloseStatus.GOING_AWAY);
+
+        assertTrue(agentService.disposed.await(5, TimeUnit.SECONDS), "both agent runs disposed");
+    }
+}
@@ -0,0 +1,116 @@
+package com.portfolio.controller;
+
+import com.portfolio.model.SyncMetrics;
+import com.portfolio.service.ProfileSyncService;
+import com.portfolio.service.SyncJobService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the sync job endpoints of RagSyncController
+ */
+class RagSyncControllerTest {
+
+    private static final String KEY = "secret";
+
+    private static class FakeProfileSync extends ProfileSyncService {
+        FakeProfileSync() {
+            super(null, null, null, null);
+        }
+
+        @Override
+        public boolean validateSyncKey(String providedKey) {
+            return KEY.equals(providedKey);
+        }
+
+        @Override
+        public String loadProfileFromResources() {
+            return "{}";
+        }
+
+        @Override
+        public int syncProfile(String profileJson, SyncMetrics metrics) {
+            return 3;
+        }
+    }
+
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private final SyncJobService syncJobService = new SyncJobService(new FakeProfileSync(), scheduled::add);
+    private final RagSyncController controller = new RagSyncController(new FakeProfileSync(), syncJobService);
+
+    private void runScheduled() {
+        List<Runnable> pending = new ArrayList<>(scheduled);
+        scheduled.clear();
+        pending.forEach(Runnable::run);
+    }
+
+    @Test
+    void testInvalidKeyIsUnauthorized() {
+        assertEquals(HttpStatus.UNAUTHORIZED, controller.submitSync(null, null).getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, controller.submitSync("wrong", null).getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, controller.getSyncJob("wrong", "id").getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, controller.listSyncJobs(null).getStatusCode());
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    void testSubmitReturnsAcceptedWithStatusUrl() {
+        ResponseEntity<Map<String, Object>> response = controller.submitSync(KEY, null);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        String jobId = (String) response.getBody().get("job_id");
+        assertNotNull(jobId);
+        assertEquals("queued", response.getBody().get("status"));
+        assertEquals("/rag/sync/" + jobId, response.getBody().get("status_url"));
+    }
+
+    @Test
+    void testSubmitWhileRunningConflicts() {
+        String running = (String) controller.submitSync(KEY, null).getBody().get("job_id");
+
+        ResponseEntity<Map<String, Object>> response = controller.submitSync(KEY, null);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(running, response.getBody().get("job_id"));
+    }
+
+    @Test
+    void testPollJobStatus() {
+        String jobId = (String) controller.submitSync(KEY, null).getBody().get("job_id");
+        runScheduled();
+
+        ResponseEntity<Map<String, Object>> response = controller.getSyncJob(KEY, jobId);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("succeeded", response.getBody().get("status"));
+        assertNotNull(response.getBody().get("metrics"));
+    }
+
+    @Test
+    void testUnknownJobIsNotFound() {
+        ResponseEntity<Map<String, Object>> response = controller.getSyncJob(KEY, "missing");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("missing", response.getBody().get("job_id"));
+    }
+
+    @Test
+    void testListJobsNewestFirst() {
+        String first = (String) controller.submitSync(KEY, null).getBody().get("job_id");
+        runScheduled();
+        String second = (String) controller.submitSync(KEY, null).getBody().get("job_id");
+
+        List<?> jobs = (List<?>) controller.listSyncJobs(KEY).getBody().get("jobs");
+
+        assertEquals(2, jobs.size());
+        assertEquals(second, ((Map<?, ?>) jobs.get(0)).get("job_id"));
+        assertEquals(first, ((Map<?, ?>) jobs.get(1)).get("job_id"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.portfolio.service;
+
+import com.google.adk.events.Event;
+import com.google.adk.runner.Runner;
+import com.google.adk.sessions.BaseSessionService;
+import com.google.adk.sessions.Session;
+import com.google.genai.types.Content;
+import com.google.genai.types.Part;
+import com.portfolio.config.SessionStoreProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AgentService session bounds
+ * Turns are appended without running the agent, so no model is called
+ */
+class AgentServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private AgentService service(int maxSessions) {
+        SessionStoreProperties properties = new SessionStoreProperties();
+        properties.setMaxSessions(maxSessions);
+        AgentService service = new AgentService(properties, null, registry);
+        service.init();
+        return service;
+    }
+
+    private static boolean stored(AgentService service, String sessionId) {
+        BaseSessionService store = (BaseSessionService) ReflectionTestUtils.getField(service, "sessionStore");
+        Runner runner = (Runner) ReflectionTestUtils.getField(service, "runner");
+        return store.getSession(runner.appName(), sessionId, sessionId, Optional.empty()).blockingGet() != null;
+    }
+
+    private double evicted(String cause) {
+        Counter counter = registry.find("chat.sessions.evicted").tag("cause", cause).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    @Test
+    void testEvictedSessionIsDeletedFromStore() throws Exception {
+        AgentService service = service(1);
+
+        service.appendTurn("s1", "Hello", "Hi there");
+        assertTrue(stored(service, "s1"));
+        service.appendTurn("s2", "Hello", "Hi there");
+
+        // Size eviction and the removal listener run asynchronously
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (evicted("size") < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, evicted("size"));
+        // Either entry may be the one evicted; it must not stay in the store
+        boolean s1 = stored(service, "s1");
+        boolean s2 = stored(service, "s2");
+        assertTrue(s1 ^ s2, "exactly one session left in the store");
+        assertEquals(s1, service.hasSession("s1"));
+        assertEquals(s2, service.hasSession("s2"));
+    }
+
+    @Test
+    void testReplayedTurnKeepsEventsStoredByRunner() {
+        AgentService service = service(10);
+        service.appendTurn("s1", "Hello", "Hi there");
+        BaseSessionService store = (BaseSessionService) ReflectionTestUtils.getField(service, "sessionStore");
+        Runner runner = (Runner) ReflectionTestUtils.getField(service, "runner");
+        // An agent turn appended through the runner's own copy of the session
+        Session current = store.getSession(runner.appName(), "s1", "s1", Optional.empty()).blockingGet();
+        store.appendEvent(current, Event.builder()
+                .id(Event.generateEventId())
+                .invocationId("agent-turn")
+                .author("user")
+                .content(Content.fromParts(Part.fromText("Tell me more")))
+                .build()).blockingGet();
+
+        service.appendTurn("s1", "And then?", "That is all");
+
+        Session stored = store.getSession(runner.appName(), "s1", "s1", Optional.empty()).blockingGet();
+        assertEquals(5, stored.events().size());
+    }
+
+    @Test
+    void testSessionWithinBoundsIsKept() {
+        AgentService service = service(10);
+
+        service.appendTurn("s1", "Hello", "Hi there");
+
+        assertTrue(service.hasSession("s1"));
+        assertTrue(stored(service, "s1"));
+        assertEquals(0, evicted("size"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.portfolio.service;
+
+import com.google.adk.events.Event;
+import com.google.adk.sessions.InMemorySessionService;
+import com.google.adk.sessions.Session;
+import com.google.genai.types.Content;
+import com.google.genai.types.Part;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CompactingSessionService over the ADK InMemorySessionService
+ */
+class CompactingSessionServiceTest {
+
+    private static final String APP = "router";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final InMemorySessionService store = new InMemorySessionService();
+    private final CompactingSessionService service =
+            new CompactingSessionService(store, new HistoryCompactor(500, 1, 100), registry);
+
+    private static Event event(String author, String role, Part part) {
+        return Event.builder()
+                .id(Event.generateEventId())
+                .invocationId("inv")
+                .author(author)
+                .content(Content.builder().role(role).parts(List.of(part)).build())
+                .build();
+    }
+
+    private Session sessionWithTurns(int turns) {
+        Session session = store.createSession(APP, "s1", null, "s1").blockingGet();
+        for (int i = 0; i < turns; i++) {
+            store.appendEvent(session, event("user", "user", Part.fromText("Question number " + i + "?"))).blockingGet();
+            store.appendEvent(session, event("tech_lead", "user",
+                    Part.fromFunctionResponse("readRepoFile", Map.of("result", "x".repeat(4000))))).blockingGet();
+            store.appendEvent(session, event("tech_lead", "model", Part.fromText("Answer " + i))).blockingGet();
+        }
+        return session;
+    }
+
+    private List<Event> stored() {
+        return store.getSession(APP, "s1", "s1", Optional.empty()).blockingGet().events();
+    }
+
+    @Test
+    void testStoredHistoryStaysCompleteAfterCompactedTurn() {
+        sessionWithTurns(4);
+        List<Event> before = stored();
+
+        Session turn = service.getSession(APP, "s1", "s1", Optional.empty()).blockingGet();
+        assertTrue(turn.events().size() < before.size(), "runner sees a compacted history");
+        assertEquals(1, registry.get("chat.history.compacted").counter().count());
+
+        Event answer = event("tech_lead", "model", Part.fromText("New answer"));
+        service.appendEvent(turn, answer).blockingGet();
+
+        List<Event> after = stored();
+        assertEquals(before.size() + 1, after.size());
+        assertEquals(before.stream().map(Event::id).toList(), after.subList(0, before.size()).stream().map(Event::id).toList());
+        assertEquals(answer.id(), after.get(after.size() - 1).id());
+        assertEquals(answer.id(), turn.events().get(turn.events().size() - 1).id());
+    }
+
+    @Test
+    void testHistoryWithinBudgetIsPassedThrough() {
+        sessionWithTurns(0);
+        store.appendEvent(store.getSession(APP, "s1", "s1", Optional.empty()).blockingGet(),
+                event("user", "user", Part.fromText("Hello"))).blockingGet();
+
+        Session turn = service.getSession(APP, "s1", "s1", Optional.empty()).blockingGet();
+
+        assertEquals(1, turn.events().size());
+        assertEquals(0, registry.get("chat.history.compacted").counter().count());
+    }
+}
@@ -0,0 +1,80 @@
+package com.portfolio.service;
+
+import com.portfolio.service.EmbeddingRateLimiter.Priority;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for EmbeddingRateLimiter token bucket
+ * Uses a manual clock so no test sleeps
+ */
+class EmbeddingRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(0);
+
+    @Test
+    void testBurstCapacityThenEmpty() {
+        EmbeddingRateLimiter limiter = new EmbeddingRateLimiter(60, 3, 0, clock::get);
+
+        assertTrue(limiter.tryAcquire(Priority.INTERACTIVE));
+        assertTrue(limiter.tryAcquire(Priority.INTERACTIVE));
+        assertTrue(limiter.tryAcquire(Priority.INTERACTIVE));
+        assertFalse(limiter.tryAcquire(Priority.INTERACTIVE));
+    }
+
+    @Test
+    void testRefillAtConfiguredRate() {
+        EmbeddingRateLimiter limiter = new EmbeddingRateLimiter(60, 1, 0, clock::get);
+
+        assertTrue(limiter.tryAcquire(Priority.INTERACTIVE));
+        assertFalse(limiter.tryAcquire(Priority.INTERACTIVE));
+
+        // 60 req/min = one token per second
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertFalse(limiter.tryAcquire(Priority.INTERACTIVE));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+        assertTrue(limiter.tryAcquire(Priority.INTERACTIVE));
+    }
+
+    @Test
+    void testBackgroundLeavesInteractiveReserve() {
+        EmbeddingRateLimiter limiter = new EmbeddingRateLimiter(60, 4, 2, clock::get);
+
+        assertTrue(limiter.tryAcquire(Priority.BACKGROUND));
+        assertTrue(limiter.tryAcquire(Priority.BACKGROUND));
+        // Remaining 2 tokens are reserved
+        assertFalse(limiter.tryAcquire(Priority.BACKGROUND));
+        assertTrue(limiter.tryAcquire(Priority.INTERACTIVE));
+        assertTrue(limiter.tryAcquire(Priority.INTERACTIVE));
+        assertFalse(limiter.tryAcquire(Priority.INTERACTIVE));
+    }
+
+    @Test
+    void testPauseBlocksAllPriorities() {
+        EmbeddingRateLimiter limiter = new EmbeddingRateLimiter(60, 5, 0, clock::get);
+
+        limiter.pause(2000);
+        assertFalse(limiter.tryAcquire(Priority.INTERACTIVE));
+        assertFalse(limiter.tryAcquire(Priority.BACKGROUND));
+
+        // No tokens accrue during the pause
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(2000));
+        assertFalse(limiter.tryAcquire(Priority.INTERACTIVE));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1001));
+        assertTrue(limiter.tryAcquire(Priority.INTERACTIVE));
+    }
+
+    @Test
+    void testParseRetryAfterSeconds() {
+        assertEquals(Optional.of(3000L), EmbeddingClient.parseRetryAfter("3"));
+        assertEquals(Optional.of(0L), EmbeddingClient.parseRetryAfter("-1"));
+        assertEquals(Optional.empty(), EmbeddingClient.parseRetryAfter(null));
+        assertEquals(Optional.empty(), EmbeddingClient.parseRetryAfter("soon"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.portfolio.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the binary EmbeddingSnapshot format
+ */
+class EmbeddingSnapshotTest {
+
+    private static final String PROFILE = "{\"about\":{\"name\":\"Yi Wang\"}}";
+
+    @Test
+    void testWriteReadRoundTrip() throws IOException {
+        EmbeddingSnapshot original = snapshot();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        original.write(out);
+        EmbeddingSnapshot restored = EmbeddingSnapshot.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals("gemini-embedding-001", restored.model());
+        assertEquals(3, restored.dimension());
+        assertEquals(2, restored.entries().size());
+        assertTrue(restored.matchesProfile(PROFILE));
+        assertFalse(restored.matchesProfile(PROFILE + " "));
+
+        EmbeddingSnapshot.Entry entry = restored.entries().get(1);
+        assertEquals("projects/portfolio.md", entry.path());
+        assertEquals(1, entry.chunkIndex());
+        assertEquals(900, entry.startPos());
+        assertEquals(1850, entry.endPos());
+        assertEquals("Project text ✓", entry.text());
+        assertArrayEquals(new float[]{-1.5f, 0f, 3.25f}, entry.vector());
+    }
+
+    @Test
+    void testFloatsAreLittleEndian() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        snapshot().write(out);
+        byte[] bytes = out.toByteArray();
+
+        // Last vector element 3.25f = 0x40500000, stored little-endian
+        int n = bytes.length;
+        assertEquals(0x00, bytes[n - 4] & 0xFF);
+        assertEquals(0x00, bytes[n - 3] & 0xFF);
+        assertEquals(0x50, bytes[n - 2] & 0xFF);
+        assertEquals(0x40, bytes[n - 1] & 0xFF);
+    }
+
+    @Test
+    void testLookupRequiresMatchingTextHash() {
+        EmbeddingSnapshot snapshot = snapshot();
+
+        assertArrayEquals(new float[]{0.1f, 0.2f, 0.3f},
+                snapshot.lookup("personal/education.md", 0, "Education text"));
+        assertNull(snapshot.lookup("personal/education.md", 0, "Edited education text"));
+        assertNull(snapshot.lookup("personal/education.md", 1, "Education text"));
+    }
+
+    @Test
+    void testRejectsTruncatedInput() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        snapshot().write(out);
+        byte[] bytes = out.toByteArray();
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 5);
+
+        assertThrows(IOException.class, () -> EmbeddingSnapshot.read(new ByteArrayInputStream(truncated)));
+    }
+
+    private EmbeddingSnapshot snapshot() {
+        return new EmbeddingSnapshot("gemini-embedding-001", 3, EmbeddingSnapshot.sha256(PROFILE), List.of(
+                new EmbeddingSnapshot.Entry("personal/education.md", 0, 0, 14,
+                        EmbeddingSnapshot.sha256("Education text"), "Education text", new float[]{0.1f, 0.2f, 0.3f}),
+                new EmbeddingSnapshot.Entry("projects/portfolio.md", 1, 900, 1850,
+                        EmbeddingSnapshot.sha256("Project text ✓"), "Project text ✓", new float[]{-1.5f, 0f, 3.25f})
+        ));
+    }
+}
@@ -0,0 +1,155 @@
+package com.portfolio.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GitHubDocsIndexService
+ * github_index_state is kept in memory by a fake JdbcTemplate
+ */
+class GitHubDocsIndexServiceTest {
+
+    private static class FakeGitHub implements GitHubDocsIndexService.GitHubApi {
+        final List<Map> repos = new ArrayList<>();
+
+        void push(String name, String pushedAt) {
+            repos.removeIf(r -> name.equals(r.get("name")));
+            repos.add(Map.of("name", name, "pushed_at", pushedAt, "fork", false));
+        }
+
+        @Override
+        public List<Map> listRepos() {
+            return repos;
+        }
+
+        @Override
+        public Map fetch(String repo, String path) {
+            if (path != null) {
+                return null;
+            }
+            String content = Base64.getEncoder().encodeToString(("About " + repo).getBytes());
+            return Map.of("path", "README.md", "type", "file", "content", content);
+        }
+    }
+
+    private static class FakeProfileSync extends ProfileSyncService {
+        final List<String> replaced = new ArrayList<>();
+        final List<String> deleted = new ArrayList<>();
+        IOException failure;
+
+        FakeProfileSync() {
+            super(null, null, null, null);
+        }
+
+        @Override
+        public int replaceDocuments(String pathPrefix, Map<String, String> documents) throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            replaced.add(pathPrefix);
+            return documents.size();
+        }
+
+        @Override
+        public int deleteDocuments(String pathPrefix) {
+            deleted.add(pathPrefix);
+            return 1;
+        }
+    }
+
+    /**
+     * Only the github_index_state statements the service issues
+     */
+    private static class FakeJdbcTemplate extends JdbcTemplate {
+        final Map<String, String> state = new HashMap<>();
+
+        @Override
+        public List<Map<String, Object>> queryForList(String sql) {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            state.forEach((repo, pushedAt) -> rows.add(Map.of("repo", repo, "pushed_at", pushedAt)));
+            return rows;
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            if (sql.startsWith("INSERT INTO github_index_state")) {
+                state.put((String) args[0], (String) args[1]);
+            } else if (sql.startsWith("DELETE FROM github_index_state")) {
+                state.remove((String) args[0]);
+            }
+            return 1;
+        }
+    }
+
+    private final FakeGitHub github = new FakeGitHub();
+    private final FakeProfileSync profileSync = new FakeProfileSync();
+    private final FakeJdbcTemplate jdbcTemplate = new FakeJdbcTemplate();
+    private final GitHubDocsIndexService service = new GitHubDocsIndexService(profileSync, jdbcTemplate, github);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "docPaths", List.of("docs/README.md"));
+        ReflectionTestUtils.setField(service, "maxDocChars", 20000);
+    }
+
+    @Test
+    void testUnchangedReposAreSkipped() throws Exception {
+        github.push("alpha", "2024-01-01T00:00:00Z");
+        github.push("beta", "2024-01-02T00:00:00Z");
+        assertEquals(2, service.refresh());
+
+        github.push("beta", "2024-02-01T00:00:00Z");
+        profileSync.replaced.clear();
+
+        assertEquals(1, service.refresh());
+        assertEquals(List.of("github/beta/"), profileSync.replaced);
+        assertEquals("2024-02-01T00:00:00Z", jdbcTemplate.state.get("beta"));
+    }
+
+    @Test
+    void testFailedRepoIsRetriedNextRun() throws Exception {
+        github.push("alpha", "2024-01-01T00:00:00Z");
+        profileSync.failure = new IOException("1 of 3 chunks under github/alpha/ failed to embed");
+
+        assertEquals(0, service.refresh());
+        assertFalse(jdbcTemplate.state.containsKey("alpha"), "no state for a repo that was not indexed");
+
+        profileSync.failure = null;
+        assertEquals(1, service.refresh());
+        assertEquals(List.of("github/alpha/"), profileSync.replaced);
+        assertEquals("2024-01-01T00:00:00Z", jdbcTemplate.state.get("alpha"));
+    }
+
+    @Test
+    void testDeletedReposAreRemoved() throws Exception {
+        github.push("alpha", "2024-01-01T00:00:00Z");
+        github.push("beta", "2024-01-02T00:00:00Z");
+        service.refresh();
+
+        github.repos.removeIf(r -> "alpha".equals(r.get("name")));
+        service.refresh();
+
+        assertEquals(List.of("github/alpha/"), profileSync.deleted);
+        assertEquals(Set.of("beta"), jdbcTemplate.state.keySet());
+    }
+
+    @Test
+    void testNextPageFromLinkHeader() {
+        String link = "<https://api.github.com/user/1/repos?per_page=100&page=2>; rel=\"next\", "
+                + "<https://api.github.com/user/1/repos?per_page=100&page=3>; rel=\"last\"";
+        assertEquals("https://api.github.com/user/1/repos?per_page=100&page=2", GitHubDocsIndexService.nextPage(link));
+
+        String last = "<https://api.github.com/user/1/repos?per_page=100&page=1>; rel=\"prev\", "
+                + "<https://api.github.com/user/1/repos?per_page=100&page=1>; rel=\"first\"";
+        assertNull(GitHubDocsIndexService.nextPage(last));
+        assertNull(GitHubDocsIndexService.nextPage(null));
+    }
+}
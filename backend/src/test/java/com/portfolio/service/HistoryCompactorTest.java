@@ -0,0 +1,109 @@
+package com.portfolio.service;
+
+import com.google.adk.events.Event;
+import com.google.genai.types.Content;
+import com.google.genai.types.Part;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HistoryCompactor
+ */
+class HistoryCompactorTest {
+
+    private static Event event(String author, String role, Part part) {
+        return Event.builder()
+                .id(Event.generateEventId())
+                .invocationId("inv")
+                .author(author)
+                .content(Content.builder().role(role).parts(List.of(part)).build())
+                .build();
+    }
+
+    /**
+     * question -> tool call -> tool result of resultChars -> answer
+     */
+    private static List<Event> turn(String question, int resultChars) {
+        return List.of(
+                event("user", "user", Part.fromText(question)),
+                event("tech_lead", "model", Part.fromFunctionCall("readRepoFile", Map.of("path", "README.md"))),
+                event("tech_lead", "user", Part.fromFunctionResponse("readRepoFile", Map.of("result", "x".repeat(resultChars)))),
+                event("tech_lead", "model", Part.fromText("Here is what the README says.")));
+    }
+
+    private static List<Event> history(int turns, int resultChars) {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < turns; i++) {
+            events.addAll(turn("Question number " + i + "?", resultChars));
+        }
+        return events;
+    }
+
+    private static String firstText(List<Event> events) {
+        return events.get(0).content().orElseThrow().text();
+    }
+
+    @Test
+    void testWithinBudgetIsUnchanged() {
+        List<Event> events = history(3, 400);
+        HistoryCompactor.Result result = new HistoryCompactor(100_000, 2, 100).compact(events);
+
+        assertSame(events, result.events());
+        assertFalse(result.compacted());
+        assertEquals(result.tokensBefore(), result.tokensAfter());
+    }
+
+    @Test
+    void testOldToolResultsAreCutFirst() {
+        List<Event> events = history(4, 8000);
+        // Budget fits four turns once the two older tool results are cut
+        HistoryCompactor compactor = new HistoryCompactor(4500, 2, 100);
+        HistoryCompactor.Result result = compactor.compact(events);
+
+        assertTrue(result.compacted());
+        assertEquals(events.size(), result.events().size(), "no turn dropped");
+        assertTrue(result.tokensAfter() <= 4500);
+        String oldResult = result.events().get(2).content().orElseThrow().parts().orElseThrow().get(0)
+                .functionResponse().orElseThrow().response().orElseThrow().toString();
+        assertTrue(oldResult.contains("truncated from"));
+        // The last two turns are untouched
+        assertEquals(events.subList(8, 16), result.events().subList(8, 16));
+    }
+
+    @Test
+    void testOldestTurnsAreSummarizedWhenCuttingIsNotEnough() {
+        List<Event> events = history(6, 2000);
+        HistoryCompactor.Result result = new HistoryCompactor(1200, 2, 1000).compact(events);
+
+        assertTrue(result.compacted());
+        assertTrue(result.tokensAfter() <= 1200, "after: " + result.tokensAfter());
+        String summary = firstText(result.events());
+        assertTrue(summary.startsWith("[Earlier conversation:"));
+        assertTrue(summary.contains("Question number 0?"));
+        assertFalse(summary.contains("Question number 5?"));
+        // Kept events start at a turn boundary and end with the recent turns
+        assertEquals("Question number 5?", result.events().get(result.events().size() - 4).content().orElseThrow().text());
+    }
+
+    @Test
+    void testRecentTurnsAreNeverCompacted() {
+        List<Event> events = history(2, 20_000);
+        HistoryCompactor.Result result = new HistoryCompactor(100, 2, 100).compact(events);
+
+        assertSame(events, result.events());
+        assertFalse(result.compacted());
+    }
+
+    @Test
+    void testZeroBudgetDisablesCompaction() {
+        List<Event> events = history(10, 20_000);
+        HistoryCompactor.Result result = new HistoryCompactor(0, 2, 100).compact(events);
+
+        assertSame(events, result.events());
+    }
+}
@@ -0,0 +1,229 @@
+package com.portfolio.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.adk.events.Event;
+import com.google.adk.events.EventActions;
+import com.google.adk.sessions.Session;
+import com.google.genai.types.Content;
+import com.google.genai.types.Part;
+import com.portfolio.config.SessionStoreProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PostgresSessionService
+ * chat_sessions and chat_session_events are kept in memory by a fake
+ * JdbcTemplate shared by two service instances
+ */
+class PostgresSessionServiceTest {
+
+    private static final String APP = "router";
+
+    private static class Row {
+        String appName;
+        String userId;
+        String state = "{}";
+        final List<String> events = new ArrayList<>();
+    }
+
+    /**
+     * Only the statements the service issues; APPEND_SQL keeps its
+     * expected event_count condition
+     */
+    private static class FakeJdbcTemplate extends JdbcTemplate {
+        final Map<String, Row> rows = new HashMap<>();
+        int appendConflicts;
+        // Another instance appends right before each of ours
+        boolean busy;
+
+        @Override
+        public int update(String sql, Object... args) {
+            if (sql.startsWith("INSERT INTO chat_sessions")) {
+                if (rows.containsKey((String) args[0])) {
+                    return 0;
+                }
+                Row row = new Row();
+                row.appName = (String) args[1];
+                row.userId = (String) args[2];
+                row.state = (String) args[3];
+                rows.put((String) args[0], row);
+                return 1;
+            }
+            if (sql.startsWith("DELETE FROM chat_sessions")) {
+                return rows.remove((String) args[0]) != null ? 1 : 0;
+            }
+            throw new UnsupportedOperationException(sql);
+        }
+
+        @Override
+        public List<Map<String, Object>> queryForList(String sql, Object... args) {
+            Row row = rows.get((String) args[0]);
+            if (row == null) {
+                return List.of();
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put("app_name", row.appName);
+            result.put("user_id", row.userId);
+            result.put("state", row.state);
+            result.put("event_count", row.events.size());
+            result.put("updated_at", new Timestamp(System.currentTimeMillis()));
+            return List.of(result);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            if (!sql.contains("INSERT INTO chat_session_events")) {
+                throw new UnsupportedOperationException(sql);
+            }
+            Row row = rows.get((String) args[1]);
+            if (busy && row != null) {
+                row.events.add((String) args[4]);
+            }
+            if (row == null || row.events.size() != (Integer) args[2]) {
+                appendConflicts++;
+                return List.of();
+            }
+            row.state = (String) args[0];
+            row.events.add((String) args[4]);
+            return (List<T>) List.of(row.events.size());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            Row row = rows.get((String) args[0]);
+            int afterSeq = (Integer) args[1];
+            List<Event> events = new ArrayList<>();
+            for (String json : row.events.subList(afterSeq, row.events.size())) {
+                events.add(Event.fromJson(json));
+            }
+            return (List<T>) events;
+        }
+
+        /**
+         * What another instance appending to the session leaves behind
+         */
+        void foreignAppend(String sessionId, Event event, String state) {
+            Row row = rows.get(sessionId);
+            row.events.add(event.toJson());
+            row.state = state;
+        }
+    }
+
+    private final FakeJdbcTemplate jdbcTemplate = new FakeJdbcTemplate();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PostgresSessionService service =
+            new PostgresSessionService(jdbcTemplate, new SessionStoreProperties(), registry);
+
+    private static Event event(String text, Map<String, Object> stateDelta) {
+        return Event.builder()
+                .id(Event.generateEventId())
+                .invocationId("inv-" + text)
+                .author("user")
+                .content(Content.builder().role("user").parts(List.of(Part.fromText(text))).build())
+                .actions(EventActions.builder().stateDelta(new ConcurrentHashMap<>(stateDelta)).build())
+                .build();
+    }
+
+    private static List<String> texts(Session session) {
+        return session.events().stream()
+                .map(e -> e.content().flatMap(Content::parts).get().get(0).text().get())
+                .toList();
+    }
+
+    private Session get(PostgresSessionService sessions, String sessionId) {
+        return sessions.getSession(APP, sessionId, sessionId, Optional.empty()).blockingGet();
+    }
+
+    private double lookups(String result) {
+        return registry.get("chat.sessions.store.lookups").tag("result", result).counter().count();
+    }
+
+    private Map<?, ?> storedState(String sessionId) throws Exception {
+        return new ObjectMapper().readValue(jdbcTemplate.rows.get(sessionId).state, Map.class);
+    }
+
+    @Test
+    void testAppendsAreNumberedInOrder() {
+        Session copy = service.createSession(APP, "s1", null, "s1").blockingGet();
+
+        service.appendEvent(copy, event("one", Map.of())).blockingGet();
+        service.appendEvent(copy, event("two", Map.of("topic", "java"))).blockingGet();
+
+        assertEquals(2, jdbcTemplate.rows.get("s1").events.size());
+        assertEquals(0, jdbcTemplate.appendConflicts);
+        Session loaded = get(service, "s1");
+        assertEquals(List.of("one", "two"), texts(loaded));
+        assertEquals("java", loaded.state().get("topic"));
+        assertEquals(1, lookups("hit"), "cached session was kept up to date");
+    }
+
+    @Test
+    void testForeignAppendIsLoadedOnRefresh() {
+        Session copy = service.createSession(APP, "s1", null, "s1").blockingGet();
+        service.appendEvent(copy, event("one", Map.of())).blockingGet();
+
+        jdbcTemplate.foreignAppend("s1", event("two", Map.of()), "{\"topic\":\"rust\"}");
+
+        Session loaded = get(service, "s1");
+        assertEquals(List.of("one", "two"), texts(loaded));
+        assertEquals("rust", loaded.state().get("topic"));
+        assertEquals(1, lookups("refresh"));
+        assertEquals(0, lookups("miss"));
+    }
+
+    @Test
+    void testStaleCopyDoesNotOverwriteStoredState() throws Exception {
+        Session copy = service.createSession(APP, "s1", null, "s1").blockingGet();
+        jdbcTemplate.foreignAppend("s1", event("foreign", Map.of()), "{\"a\":1}");
+
+        service.appendEvent(copy, event("local", Map.of("b", 2))).blockingGet();
+
+        assertEquals(1, jdbcTemplate.appendConflicts);
+        assertEquals(Map.of("a", 1, "b", 2), storedState("s1"));
+        assertEquals(List.of("foreign", "local"), texts(get(service, "s1")));
+    }
+
+    @Test
+    void testAppendGivesUpWhenSessionKeepsChanging() {
+        Session copy = service.createSession(APP, "s1", null, "s1").blockingGet();
+        jdbcTemplate.busy = true;
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> service.appendEvent(copy, event("local", Map.of())).blockingGet());
+
+        assertEquals(4, jdbcTemplate.appendConflicts, "first attempt plus three retries");
+        jdbcTemplate.busy = false;
+        service.appendEvent(get(service, "s1"), event("later", Map.of())).blockingGet();
+        assertEquals(5, jdbcTemplate.rows.get("s1").events.size());
+    }
+
+    @Test
+    void testMissThenHitThenRefresh() {
+        Session copy = service.createSession(APP, "s1", null, "s1").blockingGet();
+        service.appendEvent(copy, event("one", Map.of())).blockingGet();
+        PostgresSessionService otherInstance =
+                new PostgresSessionService(jdbcTemplate, new SessionStoreProperties(), registry);
+
+        assertEquals(List.of("one"), texts(get(otherInstance, "s1")));
+        assertEquals(1, lookups("miss"));
+
+        get(otherInstance, "s1");
+        assertEquals(1, lookups("hit"));
+
+        service.appendEvent(get(service, "s1"), event("two", Map.of())).blockingGet();
+        assertEquals(List.of("one", "two"), texts(get(otherInstance, "s1")));
+        assertEquals(1, lookups("refresh"));
+        assertEquals(1, lookups("miss"));
+    }
+}
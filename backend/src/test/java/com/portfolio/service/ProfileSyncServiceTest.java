@@ -0,0 +1,160 @@
+package com.portfolio.service;
+
+import com.portfolio.config.EmbeddingProperties;
+import com.portfolio.model.SyncMetrics;
+import com.portfolio.service.EmbeddingRateLimiter.Priority;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProfileSyncService transaction scope
+ * Fakes record whether each embed and store call ran inside a transaction
+ */
+class ProfileSyncServiceTest {
+
+    private static final String PROFILE = """
+            {"about": {"name": "Test User", "role": "Engineer", "location": "Earth",
+                       "experience": "5", "tagline": "Builds things", "bio": "Writes code."},
+             "education": [{"degree": "BSc", "school": "Uni", "period": "2015-2019"}]}
+            """;
+
+    private static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+        int begun;
+        int committed;
+        int rolledBack;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            begun++;
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            committed++;
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rolledBack++;
+        }
+    }
+
+    private static class FakeEmbeddingClient extends EmbeddingClient {
+        final List<Boolean> inTransaction = new ArrayList<>();
+        String failOn;
+
+        FakeEmbeddingClient() {
+            super("test-key", new EmbeddingProperties());
+        }
+
+        @Override
+        public float[] embed(String text, Priority priority) throws IOException {
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            if (failOn != null && text.contains(failOn)) {
+                throw new IOException("quota exceeded");
+            }
+            return new float[]{1f, 2f};
+        }
+    }
+
+    private static class FakeJdbcTemplate extends JdbcTemplate {
+        final List<Boolean> inTransaction = new ArrayList<>();
+        int storedRows;
+        int deletes;
+        DataAccessException storeFailure;
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            if (storeFailure != null) {
+                throw storeFailure;
+            }
+            storedRows += batchArgs.size();
+            return new int[batchArgs.size()];
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            deletes++;
+            return 0;
+        }
+
+        @Override
+        public int update(PreparedStatementCreator psc) {
+            deletes++;
+            return 0;
+        }
+    }
+
+    private final RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+    private final FakeEmbeddingClient embeddingClient = new FakeEmbeddingClient();
+    private final FakeJdbcTemplate jdbcTemplate = new FakeJdbcTemplate();
+    private final List<Object> events = new ArrayList<>();
+    private final ProfileSyncService service =
+            new ProfileSyncService(embeddingClient, jdbcTemplate, events::add, transactionManager);
+
+    @Test
+    void testEmbeddingRunsOutsideTransaction() throws Exception {
+        int stored = service.syncProfile(PROFILE, new SyncMetrics());
+
+        assertTrue(stored > 0);
+        assertFalse(embeddingClient.inTransaction.isEmpty());
+        assertFalse(embeddingClient.inTransaction.contains(true), "no connection held while embedding");
+        assertEquals(List.of(true), jdbcTemplate.inTransaction, "store runs in one transaction");
+        assertEquals(1, transactionManager.begun);
+        assertEquals(1, transactionManager.committed);
+        assertEquals(stored, jdbcTemplate.storedRows);
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    void testStoreFailureRollsBackAndPropagates() {
+        jdbcTemplate.storeFailure = new DataAccessResourceFailureException("connection reset");
+
+        assertThrows(DataAccessException.class, () -> service.syncProfile(PROFILE, new SyncMetrics()));
+        assertEquals(1, transactionManager.rolledBack);
+        assertEquals(0, transactionManager.committed);
+        assertTrue(events.isEmpty(), "no sync event for content that was not stored");
+    }
+
+    @Test
+    void testReplaceDocumentsStoresAndPrunesInOneTransaction() throws Exception {
+        int stored = service.replaceDocuments("github/alpha/", Map.of("github/alpha/README.md", "# Alpha\n\nA project."));
+
+        assertEquals(stored, jdbcTemplate.storedRows);
+        assertEquals(2, jdbcTemplate.deletes);
+        assertEquals(1, transactionManager.committed);
+        assertFalse(embeddingClient.inTransaction.contains(true));
+    }
+
+    @Test
+    void testReplaceDocumentsPartialEmbedThrowsAndKeepsContent() {
+        embeddingClient.failOn = "Beta";
+
+        assertThrows(IOException.class, () -> service.replaceDocuments("github/alpha/", Map.of(
+                "github/alpha/README.md", "# Alpha",
+                "github/alpha/docs/README.md", "# Beta")));
+        assertEquals(0, jdbcTemplate.storedRows);
+        assertEquals(0, jdbcTemplate.deletes, "previous chunks are not pruned");
+        assertEquals(0, transactionManager.begun);
+    }
+}
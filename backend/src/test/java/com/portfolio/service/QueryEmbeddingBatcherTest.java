@@ -0,0 +1,103 @@
+package com.portfolio.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for QueryEmbeddingBatcher
+ * Uses a fake embedder that encodes each text's length as its vector
+ */
+class QueryEmbeddingBatcherTest {
+
+    private final List<List<String>> calls = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> recordedSizes = Collections.synchronizedList(new ArrayList<>());
+
+    private List<float[]> fakeEmbed(List<String> texts) {
+        calls.add(List.copyOf(texts));
+        return texts.stream().map(t -> new float[]{t.length()}).toList();
+    }
+
+    @Test
+    void testQueriesInsideWindowShareOneCall() throws Exception {
+        QueryEmbeddingBatcher batcher = new QueryEmbeddingBatcher(this::fakeEmbed, 200, 16, recordedSizes::add);
+        try {
+            CompletableFuture<float[]> a = batcher.submit("a");
+            CompletableFuture<float[]> bb = batcher.submit("bb");
+            CompletableFuture<float[]> ccc = batcher.submit("ccc");
+
+            assertArrayEquals(new float[]{1}, a.get(5, TimeUnit.SECONDS));
+            assertArrayEquals(new float[]{2}, bb.get(5, TimeUnit.SECONDS));
+            assertArrayEquals(new float[]{3}, ccc.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.size());
+            assertEquals(List.of("a", "bb", "ccc"), calls.get(0));
+            assertEquals(List.of(3), recordedSizes);
+        } finally {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    void testFullBatchIsSentBeforeWindowCloses() throws Exception {
+        // Window far longer than the test timeout: only the size cap can flush
+        QueryEmbeddingBatcher batcher = new QueryEmbeddingBatcher(this::fakeEmbed, 60_000, 2, recordedSizes::add);
+        try {
+            CompletableFuture<float[]> first = batcher.submit("x");
+            CompletableFuture<float[]> second = batcher.submit("yy");
+
+            assertArrayEquals(new float[]{1}, first.get(5, TimeUnit.SECONDS));
+            assertArrayEquals(new float[]{2}, second.get(5, TimeUnit.SECONDS));
+            assertEquals(List.of(2), recordedSizes);
+        } finally {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    void testDuplicateTextsEmbeddedOnce() throws Exception {
+        QueryEmbeddingBatcher batcher = new QueryEmbeddingBatcher(this::fakeEmbed, 200, 16, recordedSizes::add);
+        try {
+            CompletableFuture<float[]> first = batcher.submit("same");
+            CompletableFuture<float[]> second = batcher.submit("same");
+
+            assertArrayEquals(new float[]{4}, first.get(5, TimeUnit.SECONDS));
+            assertArrayEquals(new float[]{4}, second.get(5, TimeUnit.SECONDS));
+            assertEquals(List.of("same"), calls.get(0));
+            assertEquals(List.of(2), recordedSizes);
+        } finally {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    void testBatchFailureFailsEveryCaller() {
+        QueryEmbeddingBatcher batcher = new QueryEmbeddingBatcher(
+                texts -> { throw new IOException("quota exhausted"); }, 200, 16, recordedSizes::add);
+        try {
+            CompletableFuture<float[]> first = batcher.submit("a");
+            CompletableFuture<float[]> second = batcher.submit("b");
+
+            ExecutionException error = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertEquals("quota exhausted", error.getCause().getMessage());
+            assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        } finally {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    void testSubmitAfterShutdownFailsFast() {
+        QueryEmbeddingBatcher batcher = new QueryEmbeddingBatcher(this::fakeEmbed, 5, 16, recordedSizes::add);
+        batcher.shutdown();
+
+        assertThrows(ExecutionException.class, () -> batcher.submit("late").get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,138 @@
+package com.portfolio.service;
+
+import com.portfolio.model.SyncJob;
+import com.portfolio.model.SyncMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SyncJobService
+ * Jobs run on a manual executor so each test decides when they execute
+ */
+class SyncJobServiceTest {
+
+    /**
+     * Records the synced profile instead of embedding it
+     */
+    private static class FakeProfileSync extends ProfileSyncService {
+        final List<String> synced = new ArrayList<>();
+        Exception failure;
+
+        FakeProfileSync() {
+            super(null, null, null, null);
+        }
+
+        @Override
+        public String loadProfileFromResources() {
+            return "{\"source\":\"classpath\"}";
+        }
+
+        @Override
+        public int syncProfile(String profileJson, SyncMetrics metrics) throws Exception {
+            if (failure != null) {
+                throw failure;
+            }
+            synced.add(profileJson);
+            return 7;
+        }
+    }
+
+    private static class ManualExecutor implements Executor {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            List<Runnable> pending = new ArrayList<>(tasks);
+            tasks.clear();
+            pending.forEach(Runnable::run);
+        }
+    }
+
+    private final FakeProfileSync profileSync = new FakeProfileSync();
+    private final ManualExecutor executor = new ManualExecutor();
+    private final SyncJobService service = new SyncJobService(profileSync, executor);
+
+    @Test
+    void testSubmittedJobRunsWithRequestBody() {
+        SyncJob job = service.submit("{\"about\":{}}").orElseThrow();
+        assertEquals(SyncJob.Status.QUEUED, job.getStatus());
+        assertEquals(Optional.of(job), service.getActiveJob());
+
+        executor.runAll();
+
+        assertEquals(SyncJob.Status.SUCCEEDED, job.getStatus());
+        assertEquals(List.of("{\"about\":{}}"), profileSync.synced);
+        assertTrue(service.getActiveJob().isEmpty());
+        assertEquals(Optional.of(job), service.getJob(job.getId()));
+    }
+
+    @Test
+    void testBlankBodySyncsClasspathProfile() {
+        service.submit("  ").orElseThrow();
+        executor.runAll();
+
+        assertEquals(List.of("{\"source\":\"classpath\"}"), profileSync.synced);
+    }
+
+    @Test
+    void testSecondSubmitIsRejectedWhileRunning() {
+        SyncJob first = service.submit(null).orElseThrow();
+
+        assertTrue(service.submit(null).isEmpty());
+        assertEquals(Optional.of(first), service.getActiveJob());
+
+        executor.runAll();
+        assertTrue(service.submit(null).isPresent(), "slot is free once the job finished");
+    }
+
+    @Test
+    void testFailedSyncMarksJobFailedAndFreesSlot() {
+        profileSync.failure = new IllegalStateException("embedding quota exhausted");
+        SyncJob job = service.submit(null).orElseThrow();
+
+        executor.runAll();
+
+        assertEquals(SyncJob.Status.FAILED, job.getStatus());
+        assertEquals("embedding quota exhausted", job.toMap().get("error"));
+        assertTrue(service.getActiveJob().isEmpty());
+    }
+
+    @Test
+    void testRejectedScheduleMarksJobFailed() {
+        SyncJobService rejecting = new SyncJobService(profileSync, task -> {
+            throw new RejectedExecutionException("queue full");
+        });
+
+        SyncJob job = rejecting.submit(null).orElseThrow();
+
+        assertEquals(SyncJob.Status.FAILED, job.getStatus());
+        assertTrue(rejecting.getActiveJob().isEmpty());
+        assertTrue(profileSync.synced.isEmpty());
+    }
+
+    @Test
+    void testRecentJobsNewestFirstAndBounded() {
+        List<SyncJob> submitted = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            submitted.add(service.submit(null).orElseThrow());
+            executor.runAll();
+        }
+
+        List<SyncJob> recent = service.recentJobs();
+        assertEquals(20, recent.size());
+        assertEquals(submitted.get(24), recent.get(0));
+        assertEquals(submitted.get(5), recent.get(19));
+        assertTrue(service.getJob(submitted.get(0).getId()).isEmpty(), "oldest jobs are dropped");
+    }
+}
@@ -0,0 +1,47 @@
+package com.portfolio.service;
+
+import com.portfolio.config.EmbeddingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for VectorQueryService query embedding
+ */
+class VectorQueryServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final EmbeddingProperties properties = new EmbeddingProperties();
+
+    private final QueryEmbeddingBatcher batcher = new QueryEmbeddingBatcher(texts -> {
+        release.await();
+        return texts.stream().map(t -> new float[]{t.length()}).toList();
+    }, 0, 16, size -> {});
+
+    private final VectorQueryService service = new VectorQueryService(null, batcher, properties, null);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        batcher.shutdown();
+    }
+
+    @Test
+    void testBatchedQueryReturnsVector() {
+        release.countDown();
+
+        assertArrayEquals(new float[]{5}, service.embedQuery("hello"));
+    }
+
+    @Test
+    void testStuckBatchTimesOutAsMiss() {
+        properties.setQueryTimeoutMs(50);
+
+        long start = System.nanoTime();
+        assertNull(service.embedQuery("hello"));
+        assertTrue(System.nanoTime() - start < 5_000_000_000L, "embedQuery waited past its timeout");
+    }
+}
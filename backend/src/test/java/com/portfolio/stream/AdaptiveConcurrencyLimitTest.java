@@ -0,0 +1,93 @@
+package com.portfolio.stream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AdaptiveConcurrencyLimit
+ */
+class AdaptiveConcurrencyLimitTest {
+
+    private static void warmUp(AdaptiveConcurrencyLimit limit, long ttftMs, long totalMs, int inFlight) {
+        for (int i = 0; i < AdaptiveConcurrencyLimit.WARMUP_SAMPLES; i++) {
+            limit.onSample(ttftMs, totalMs, inFlight);
+        }
+    }
+
+    @Test
+    void testWarmupKeepsInitialLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 2, 32, 2.0, 0.8);
+
+        warmUp(limit, 500, 5_000, 8);
+
+        assertEquals(8, limit.limit());
+    }
+
+    @Test
+    void testGrowsWhileHealthyAndSaturated() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 2, 32, 2.0, 0.8);
+        warmUp(limit, 500, 5_000, 8);
+
+        for (int i = 0; i < 8; i++) {
+            limit.onSample(500, 5_000, 8);
+        }
+
+        assertEquals(9, limit.limit());
+    }
+
+    @Test
+    void testDoesNotGrowWhenUnderused() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 2, 32, 2.0, 0.8);
+        warmUp(limit, 500, 5_000, 1);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(500, 5_000, 1);
+        }
+
+        assertEquals(8, limit.limit());
+    }
+
+    @Test
+    void testShrinksOnceWhenTtftDegrades() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 32, 2.0, 0.8);
+        warmUp(limit, 500, 5_000, 10);
+
+        // Short average needs a few slow samples to cross 2x the baseline
+        int samples = 0;
+        while (limit.limit() == 10 && samples < 20) {
+            limit.onSample(5_000, 5_000, 10);
+            samples++;
+        }
+        assertEquals(8, limit.limit());
+
+        // Cooldown: the next samples of the same round do not cut again
+        for (int i = 0; i < 7; i++) {
+            limit.onSample(5_000, 5_000, 8);
+        }
+        assertEquals(8, limit.limit());
+    }
+
+    @Test
+    void testStaysWithinBounds() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 2, 5, 2.0, 0.5);
+        warmUp(limit, 100, 1_000, 4);
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(100, 1_000, 10);
+        }
+        assertEquals(5, limit.limit());
+
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(100_000, 1_000_000, 10);
+        }
+        assertEquals(2, limit.limit());
+    }
+
+    @Test
+    void testBoundsIncludeInitialLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 2, 32, 2.0, 0.8);
+
+        assertEquals(1, limit.limit());
+    }
+}
@@ -0,0 +1,130 @@
+package com.portfolio.stream;
+
+import com.google.adk.events.Event;
+import com.google.genai.types.Content;
+import com.google.genai.types.Part;
+import com.portfolio.model.StreamEvents;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AgentEventTranslator
+ */
+class AgentEventTranslatorTest {
+
+    private final AgentEventTranslator translator = new AgentEventTranslator();
+
+    private static Event event(List<Part> parts, boolean partial, boolean turnComplete) {
+        return Event.builder()
+                .id(Event.generateEventId())
+                .invocationId("inv")
+                .author("tech_lead")
+                .content(Content.builder().role("model").parts(parts).build())
+                .partial(partial)
+                .turnComplete(turnComplete)
+                .build();
+    }
+
+    private static Event text(String text, boolean partial) {
+        return event(List.of(Part.fromText(text)), partial, false);
+    }
+
+    private static List<String> types(List<StreamEvents.StreamEvent> events) {
+        return events.stream().map(StreamEvents.StreamEvent::getType).toList();
+    }
+
+    @Test
+    void testThinkingThenResponsePhases() throws Exception {
+        assertEquals(List.of("thinking_start", "thinking_delta"), types(translator.translate(text("Let me", true))));
+        assertEquals(List.of("thinking_delta"), types(translator.translate(text("Let me check", true))));
+
+        List<StreamEvents.StreamEvent> response = translator.translate(text("I build backends.", false));
+        assertEquals(List.of("thinking_end", "response_start", "response_delta"), types(response));
+        assertEquals("I build backends.", ((StreamEvents.ResponseDeltaEvent) response.get(2)).getContent());
+
+        assertEquals(List.of("response_delta"), types(translator.translate(text("I build backends. In Java.", false))));
+        assertEquals(List.of("response_end"), types(translator.translate(event(List.of(), false, true))));
+        assertEquals("tech_lead", translator.agent());
+    }
+
+    @Test
+    void testSameToolResultsMatchCallsInOrder() throws Exception {
+        List<StreamEvents.StreamEvent> calls = translator.translate(event(List.of(
+                Part.fromFunctionCall("searchKnowledge", Map.of("query", "java")),
+                Part.fromFunctionCall("getContactCard", Map.of()),
+                Part.fromFunctionCall("searchKnowledge", Map.of("query", "rust"))), false, false));
+        assertEquals(List.of("tool_call_start", "tool_call_start", "tool_call_start"), types(calls));
+
+        List<StreamEvents.StreamEvent> first = translator.translate(event(List.of(
+                Part.fromFunctionResponse("searchKnowledge", Map.of("result", "java chunk"))), false, false));
+        List<StreamEvents.StreamEvent> second = translator.translate(event(List.of(
+                Part.fromFunctionResponse("searchKnowledge", Map.of("result", "rust chunk")),
+                Part.fromFunctionResponse("getContactCard", Map.of("result", "card"))), false, false));
+
+        StreamEvents.ToolCallEndEvent java = (StreamEvents.ToolCallEndEvent) first.get(0);
+        StreamEvents.ToolCallEndEvent rust = (StreamEvents.ToolCallEndEvent) second.get(0);
+        StreamEvents.ToolCallEndEvent card = (StreamEvents.ToolCallEndEvent) second.get(1);
+        assertEquals("tool_1", java.getToolId());
+        assertTrue(java.getResult().contains("java chunk"));
+        assertEquals("tool_3", rust.getToolId());
+        assertTrue(rust.getResult().contains("rust chunk"));
+        assertEquals("tool_2", card.getToolId());
+    }
+
+    @Test
+    void testUnmatchedToolResultIsSkipped() throws Exception {
+        translator.translate(event(List.of(Part.fromFunctionCall("searchKnowledge", Map.of())), false, false));
+        Part result = Part.fromFunctionResponse("searchKnowledge", Map.of("result", "chunk"));
+        assertEquals(1, translator.translate(event(List.of(result), false, false)).size());
+
+        assertEquals(List.of(), translator.translate(event(List.of(result), false, false)));
+        assertEquals(List.of(), translator.translate(event(List.of(
+                Part.fromFunctionResponse("getContactCard", Map.of())), false, false)));
+    }
+
+    @Test
+    void testToolCallEndsThinkingOnlyAfterContent() throws Exception {
+        translator.translate(text("Searching", true));
+
+        List<StreamEvents.StreamEvent> calls = translator.translate(event(List.of(
+                Part.fromFunctionCall("searchKnowledge", Map.of())), false, false));
+
+        assertEquals(List.of("thinking_end", "tool_call_start"), types(calls));
+    }
+
+    @Test
+    void testFinishClosesOpenPhases() throws Exception {
+        translator.translate(text("Let me", true));
+        assertEquals(List.of("thinking_end", "complete"), types(translator.finish()));
+
+        AgentEventTranslator answering = new AgentEventTranslator();
+        answering.translate(text("Hello", false));
+        assertEquals(List.of("response_end", "complete"), types(answering.finish()));
+
+        AgentEventTranslator completed = new AgentEventTranslator();
+        completed.translate(event(List.of(Part.fromText("Hello")), false, true));
+        assertEquals(List.of("complete"), types(completed.finish()));
+    }
+
+    @Test
+    void testOutputCharsAndFirstOutput() throws Exception {
+        assertEquals(0, translator.outputChars());
+        assertEquals(0, translator.firstOutputNanos());
+        assertEquals("unknown", translator.agent());
+
+        long before = System.nanoTime();
+        translator.translate(text("Let me", true));
+        long first = translator.firstOutputNanos();
+        assertTrue(first >= before);
+
+        translator.translate(text("Let me check", true));
+        translator.translate(text("Done.", false));
+
+        assertEquals("Let me check".length() + "Done.".length(), translator.outputChars());
+        assertEquals(first, translator.firstOutputNanos(), "set by the first delta only");
+    }
+}
@@ -0,0 +1,165 @@
+package com.portfolio.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BufferedClient
+ */
+class BufferedClientTest {
+
+    /**
+     * Connection whose writes block until released
+     */
+    private static class SlowClient implements ResumableStream.Client {
+        final List<String> writes = new CopyOnWriteArrayList<>();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch firstWrite = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile boolean completedNormally;
+        volatile Throwable error;
+
+        @Override
+        public void sendFrame(byte[] frame) throws IOException {
+            firstWrite.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            writes.add(new String(frame, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void complete() {
+            completedNormally = true;
+            done.countDown();
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            error = ex;
+            done.countDown();
+        }
+    }
+
+    private static byte[] frame(String data) {
+        return ("data:" + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testSendDoesNotBlockOnSlowWrite() throws Exception {
+        SlowClient slow = new SlowClient();
+        BufferedClient client = new BufferedClient(slow, 1 << 20, true, 60_000, () -> {});
+
+        long start = System.nanoTime();
+        client.sendFrame(frame("a"));
+        client.sendFrame(frame("b"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        slow.release.countDown();
+        client.complete();
+        assertTrue(slow.done.await(5, TimeUnit.SECONDS));
+        assertTrue(slow.completedNormally);
+        assertEquals("data:a\n\ndata:b\n\n", String.join("", slow.writes));
+    }
+
+    @Test
+    void testQueuedFramesCoalesceIntoOneWrite() throws Exception {
+        SlowClient slow = new SlowClient();
+        BufferedClient client = new BufferedClient(slow, 1 << 20, true, 60_000, () -> {});
+
+        client.sendFrame(frame("a"));
+        assertTrue(slow.firstWrite.await(5, TimeUnit.SECONDS));
+        client.sendFrame(frame("b"));
+        client.sendFrame(frame("c"));
+        slow.release.countDown();
+        client.complete();
+        assertTrue(slow.done.await(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("data:a\n\n", "data:b\n\ndata:c\n\n"), slow.writes);
+    }
+
+    @Test
+    void testWithoutCoalescingFramesAreWrittenOneByOne() throws Exception {
+        SlowClient slow = new SlowClient();
+        BufferedClient client = new BufferedClient(slow, 1 << 20, false, 60_000, () -> {});
+
+        client.sendFrame(frame("a"));
+        assertTrue(slow.firstWrite.await(5, TimeUnit.SECONDS));
+        client.sendFrame(frame("b"));
+        client.sendFrame(frame("c"));
+        slow.release.countDown();
+        client.complete();
+        assertTrue(slow.done.await(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("data:a\n\n", "data:b\n\n", "data:c\n\n"), slow.writes);
+    }
+
+    @Test
+    void testClientOverQueueLimitIsDropped() throws Exception {
+        SlowClient slow = new SlowClient();
+        AtomicInteger dropped = new AtomicInteger();
+        BufferedClient client = new BufferedClient(slow, 32, true, 60_000, dropped::incrementAndGet);
+
+        client.sendFrame(frame("first"));
+        assertTrue(slow.firstWrite.await(5, TimeUnit.SECONDS));
+        client.sendFrame(frame("0123456789"));
+        assertThrows(IOException.class, () -> client.sendFrame(frame("0123456789")));
+        assertTrue(client.isClosed());
+        assertEquals(0, client.queuedBytes());
+        assertEquals(1, dropped.get());
+
+        // Later frames are refused, the connection is closed once the write returns
+        assertThrows(IOException.class, () -> client.sendFrame(frame("x")));
+        slow.release.countDown();
+        assertTrue(slow.done.await(5, TimeUnit.SECONDS));
+        assertNotNull(slow.error);
+        assertEquals(List.of("data:first\n\n"), slow.writes);
+    }
+
+    @Test
+    void testStalledWriteDropsClient() throws Exception {
+        SlowClient slow = new SlowClient();
+        AtomicInteger dropped = new AtomicInteger();
+        BufferedClient client = new BufferedClient(slow, 1 << 20, true, 20, dropped::incrementAndGet);
+
+        client.sendFrame(frame("a"));
+        assertTrue(slow.firstWrite.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertThrows(IOException.class, () -> client.sendFrame(frame("b")));
+        assertEquals(1, dropped.get());
+        slow.release.countDown();
+    }
+
+    @Test
+    void testDroppedClientIsDetachedFromStream() throws Exception {
+        SlowClient slow = new SlowClient();
+        BufferedClient client = new BufferedClient(slow, 64, true, 60_000, () -> {});
+        AtomicInteger abandoned = new AtomicInteger();
+        ResumableStream stream = new ResumableStream("s1", 16, 1 << 20, 0,
+                Executors.newSingleThreadScheduledExecutor(),
+                abandoned::incrementAndGet, () -> {});
+        stream.attach(client);
+
+        stream.write(frame("first"));
+        assertTrue(slow.firstWrite.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 8; i++) {
+            stream.write(frame("0123456789"));
+        }
+        // Sole client dropped: the stream treats it as a disconnect
+        Thread.sleep(100);
+        assertEquals(1, abandoned.get());
+        slow.release.countDown();
+    }
+}
@@ -0,0 +1,112 @@
+package com.portfolio.stream;
+
+import com.portfolio.config.ChatStreamProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChatAdmissionController
+ */
+class ChatAdmissionControllerTest {
+
+    private ChatAdmissionController controller(int maxConcurrent, int queueCapacity, long queueTimeoutMs) {
+        ChatStreamProperties properties = new ChatStreamProperties();
+        properties.setMaxConcurrent(maxConcurrent);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setQueueTimeoutMs(queueTimeoutMs);
+        return new ChatAdmissionController(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testAdmitsUpToLimit() throws Exception {
+        ChatAdmissionController controller = controller(2, 0, 0);
+
+        assertNotNull(controller.acquire());
+        assertNotNull(controller.acquire());
+        assertNull(controller.acquire());
+        assertEquals(2, controller.active());
+        assertEquals(1, controller.rejected());
+    }
+
+    @Test
+    void testReleaseFreesSlotOnce() throws Exception {
+        ChatAdmissionController controller = controller(1, 0, 0);
+
+        ChatAdmissionController.Permit permit = controller.acquire();
+        permit.release();
+        permit.release();
+
+        assertEquals(0, controller.active());
+        assertNotNull(controller.acquire());
+        assertNull(controller.acquire());
+    }
+
+    @Test
+    void testQueuedRequestGetsReleasedSlot() throws Exception {
+        ChatAdmissionController controller = controller(1, 1, 5_000);
+        ChatAdmissionController.Permit first = controller.acquire();
+
+        CompletableFuture<ChatAdmissionController.Permit> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return controller.acquire();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (controller.queued() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, controller.queued());
+
+        first.release();
+        assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(0, controller.queued());
+        assertEquals(1, controller.active());
+    }
+
+    @Test
+    void testFullQueueRejectsImmediately() throws Exception {
+        ChatAdmissionController controller = controller(1, 0, 5_000);
+        controller.acquire();
+
+        long start = System.nanoTime();
+        assertNull(controller.acquire());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void testQueueTimeoutRejects() throws Exception {
+        ChatAdmissionController controller = controller(1, 1, 50);
+        controller.acquire();
+
+        assertNull(controller.acquire());
+        assertEquals(0, controller.queued());
+        assertEquals(1, controller.rejected());
+    }
+
+    @Test
+    void testSlowStreamsLowerLimit() throws Exception {
+        ChatAdmissionController controller = controller(4, 0, 0);
+        for (int i = 0; i < 4; i++) {
+            controller.acquire();
+        }
+        for (int i = 0; i < AdaptiveConcurrencyLimit.WARMUP_SAMPLES; i++) {
+            controller.recordLatency(200, 2_000);
+        }
+        assertEquals(4, controller.limit());
+
+        for (int i = 0; i < 20; i++) {
+            controller.recordLatency(10_000, 60_000);
+        }
+
+        assertTrue(controller.limit() < 4);
+        assertNull(controller.acquire());
+    }
+}
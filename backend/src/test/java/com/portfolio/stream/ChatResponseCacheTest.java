@@ -0,0 +1,230 @@
+package com.portfolio.stream;
+
+import com.portfolio.config.ChatResponseCacheProperties;
+import com.portfolio.model.ProfileSyncedEvent;
+import com.portfolio.model.StreamEvents;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChatResponseCache
+ */
+class ChatResponseCacheTest {
+
+    private static final Map<String, float[]> VECTORS = Map.of(
+            "where did you study", new float[]{1.0f, 0.1f, 0.0f},
+            "what is your education", new float[]{0.95f, 0.15f, 0.0f},
+            "what projects have you built", new float[]{0.0f, 0.2f, 1.0f});
+
+    private final AtomicInteger embedCalls = new AtomicInteger();
+
+    private static ChatResponseCacheProperties semantic() {
+        ChatResponseCacheProperties properties = new ChatResponseCacheProperties();
+        properties.setSemanticEnabled(true);
+        return properties;
+    }
+
+    private ChatResponseCache cache(ChatResponseCacheProperties properties) {
+        return new ChatResponseCache(properties, new SimpleMeterRegistry(), question -> {
+            embedCalls.incrementAndGet();
+            return VECTORS.get(question);
+        });
+    }
+
+    private static void recordAnswer(ChatResponseCache cache, String message, String answer) {
+        ChatResponseCache.Recording recording = cache.record(message);
+        recording.add(new StreamEvents.SessionStartEvent("s1"));
+        recording.add(new StreamEvents.ResponseStartEvent());
+        recording.add(new StreamEvents.ResponseDeltaEvent(answer));
+        recording.add(new StreamEvents.ResponseEndEvent());
+        recording.add(new StreamEvents.CompleteEvent());
+        recording.commit();
+    }
+
+    @Test
+    void testReplaysRecordedStreamWithoutSessionStart() {
+        ChatResponseCache cache = cache(new ChatResponseCacheProperties());
+        assertNull(cache.lookup("What projects has Yi built?"));
+
+        recordAnswer(cache, "What projects has Yi built?", "Several.");
+        assertNull(cache.lookupSimilar(cache.record("Anything else?")));
+        List<StreamEvents.StreamEvent> events = cache.lookup("  what projects  has yi built ");
+
+        assertNotNull(events);
+        assertEquals(4, events.size());
+        assertInstanceOf(StreamEvents.ResponseStartEvent.class, events.get(0));
+        assertEquals("Several.", ChatResponseCache.responseText(events));
+        assertEquals(0.5, cache.hitRatio(), 1e-9);
+    }
+
+    @Test
+    void testErrorDiscardsRecording() {
+        ChatResponseCache cache = cache(new ChatResponseCacheProperties());
+
+        ChatResponseCache.Recording recording = cache.record("hello");
+        recording.add(new StreamEvents.ResponseDeltaEvent("partial"));
+        recording.add(new StreamEvents.ErrorEvent("boom", "STREAM_ERROR"));
+        recording.commit();
+
+        assertNull(cache.lookup("hello"));
+    }
+
+    @Test
+    void testOversizedResponseNotRecorded() {
+        ChatResponseCacheProperties properties = new ChatResponseCacheProperties();
+        properties.setMaxEntryBytes(1_000);
+        ChatResponseCache cache = cache(properties);
+
+        recordAnswer(cache, "long", "x".repeat(1_000));
+
+        assertNull(cache.lookup("long"));
+    }
+
+    @Test
+    void testProfileSyncInvalidatesEntriesAndInFlightRecordings() {
+        ChatResponseCache cache = cache(new ChatResponseCacheProperties());
+        recordAnswer(cache, "before", "old answer");
+        ChatResponseCache.Recording inFlight = cache.record("during");
+        inFlight.add(new StreamEvents.ResponseDeltaEvent("old answer"));
+
+        cache.onProfileSynced(new ProfileSyncedEvent("profile", 10));
+        inFlight.commit();
+
+        assertNull(cache.lookup("before"));
+        assertNull(cache.lookup("during"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testDisabledCacheNeverRecords() {
+        ChatResponseCacheProperties properties = new ChatResponseCacheProperties();
+        properties.setEnabled(false);
+        ChatResponseCache cache = cache(properties);
+
+        assertNull(cache.record("hello"));
+        assertNull(cache.lookup("hello"));
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals("who is yi", ChatResponseCache.normalize("  Who   is\tYi?! "));
+        assertEquals("", ChatResponseCache.normalize(null));
+    }
+
+    @Test
+    void testParaphraseServedBySemanticLayer() {
+        ChatResponseCache cache = cache(semantic());
+        recordAnswer(cache, "Where did you study?", "At university.");
+
+        assertNull(cache.lookup("What is your education?"));
+        List<StreamEvents.StreamEvent> events = cache.lookupSimilar(cache.record("What is your education?"));
+
+        assertNotNull(events);
+        assertEquals("At university.", ChatResponseCache.responseText(events));
+    }
+
+    @Test
+    void testDissimilarQuestionMisses() {
+        ChatResponseCache cache = cache(semantic());
+        recordAnswer(cache, "Where did you study?", "At university.");
+
+        assertNull(cache.lookupSimilar(cache.record("What projects have you built?")));
+    }
+
+    @Test
+    void testEmptyCacheSkipsEmbeddingUntilCommit() {
+        ChatResponseCache cache = cache(semantic());
+
+        ChatResponseCache.Recording recording = cache.record("Where did you study?");
+        assertNull(cache.lookupSimilar(recording));
+        assertEquals(0, embedCalls.get());
+
+        recording.add(new StreamEvents.ResponseDeltaEvent("At university."));
+        recording.commit();
+        assertEquals(1, embedCalls.get());
+    }
+
+    @Test
+    void testSlowEmbeddingFallsThroughToMiss() throws Exception {
+        ChatResponseCacheProperties properties = semantic();
+        properties.setSemanticTimeoutMs(50);
+        CountDownLatch release = new CountDownLatch(1);
+        ChatResponseCache cache = new ChatResponseCache(properties, new SimpleMeterRegistry(), question -> {
+            if (question.equals("what is your education")) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return VECTORS.get(question);
+        });
+        recordAnswer(cache, "Where did you study?", "At university.");
+
+        ChatResponseCache.Recording recording = cache.record("What is your education?");
+        long start = System.nanoTime();
+        assertNull(cache.lookupSimilar(recording));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "lookup waited past its timeout");
+
+        // The agent answered; the embedding is ready by commit and stored with the answer
+        release.countDown();
+        recording.add(new StreamEvents.ResponseDeltaEvent("Computer science."));
+        recording.commit();
+        assertNotNull(cache.lookup("What is your education?"));
+    }
+
+    @Test
+    void testCommitDoesNotWaitForStuckEmbedding() {
+        ChatResponseCacheProperties properties = semantic();
+        properties.setSemanticTimeoutMs(50);
+        CountDownLatch release = new CountDownLatch(1);
+        ChatResponseCache cache = new ChatResponseCache(properties, new SimpleMeterRegistry(), question -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return VECTORS.get(question);
+        });
+
+        try {
+            long start = System.nanoTime();
+            recordAnswer(cache, "Where did you study?", "At university.");
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "commit waited past the timeout");
+
+            // Stored for exact lookups, without a vector for paraphrases
+            assertNotNull(cache.lookup("Where did you study?"));
+            assertNull(cache.lookupSimilar(cache.record("What is your education?")));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testSemanticLayerOffByDefault() {
+        ChatResponseCache cache = cache(new ChatResponseCacheProperties());
+        recordAnswer(cache, "Where did you study?", "At university.");
+
+        assertNull(cache.lookupSimilar(cache.record("What is your education?")));
+        assertEquals(0, embedCalls.get());
+    }
+
+    @Test
+    void testSemanticLayerDisabled() {
+        ChatResponseCacheProperties properties = new ChatResponseCacheProperties();
+        properties.setSemanticEnabled(false);
+        ChatResponseCache cache = cache(properties);
+        recordAnswer(cache, "Where did you study?", "At university.");
+
+        assertNull(cache.lookupSimilar(cache.record("What is your education?")));
+        assertEquals(0, embedCalls.get());
+    }
+}
@@ -0,0 +1,48 @@
+package com.portfolio.stream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChatStreamMetrics token-saved estimation
+ */
+class ChatStreamMetricsTest {
+
+    private final ChatStreamMetrics metrics = new ChatStreamMetrics(new SimpleMeterRegistry());
+
+    @Test
+    void testNoHistoryEstimatesNothingSaved() {
+        assertEquals(0, metrics.streamCancelled(100));
+    }
+
+    @Test
+    void testSavedIsAverageMinusEmitted() {
+        metrics.streamCompleted(400);   // 100 tokens
+
+        assertEquals(75, metrics.streamCancelled(100));
+    }
+
+    @Test
+    void testCancelledLateSavesNothing() {
+        metrics.streamCompleted(400);
+
+        assertEquals(0, metrics.streamCancelled(4000));
+    }
+
+    @Test
+    void testAverageMovesTowardsRecentStreams() {
+        metrics.streamCompleted(400);
+        metrics.streamCompleted(4400);  // 100 + 0.1 * (1100 - 100) = 200 tokens
+
+        assertEquals(200, metrics.streamCancelled(0));
+    }
+
+    @Test
+    void testEstimateTokens() {
+        assertEquals(0, ChatStreamMetrics.estimateTokens(0));
+        assertEquals(1, ChatStreamMetrics.estimateTokens(1));
+        assertEquals(25, ChatStreamMetrics.estimateTokens(100));
+    }
+}
@@ -0,0 +1,175 @@
+package com.portfolio.stream;
+
+import com.portfolio.model.StreamEvents;
+import com.portfolio.stream.DeltaCoalescer.Phase;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DeltaCoalescer
+ * Frames are recorded as "type:content" strings
+ */
+class DeltaCoalescerTest {
+
+    private final List<String> frames = Collections.synchronizedList(new ArrayList<>());
+
+    private void record(StreamEvents.StreamEvent event) {
+        String content = "";
+        if (event instanceof StreamEvents.ThinkingDeltaEvent delta) {
+            content = delta.getContent();
+        } else if (event instanceof StreamEvents.ResponseDeltaEvent delta) {
+            content = delta.getContent();
+        }
+        frames.add(event.getType() + ":" + content);
+    }
+
+    @Test
+    void testDeltasMergedUntilNonDeltaEvent() throws Exception {
+        DeltaCoalescer coalescer = new DeltaCoalescer(this::record, 60_000, 1024, null);
+
+        coalescer.delta(Phase.RESPONSE, "Hel");
+        coalescer.delta(Phase.RESPONSE, "lo");
+        coalescer.delta(Phase.RESPONSE, " world");
+        assertTrue(frames.isEmpty());
+
+        coalescer.send(new StreamEvents.ResponseEndEvent());
+        assertEquals(List.of("response_delta:Hello world", "response_end:"), frames);
+    }
+
+    @Test
+    void testPhaseChangeFlushes() throws Exception {
+        DeltaCoalescer coalescer = new DeltaCoalescer(this::record, 60_000, 1024, null);
+
+        coalescer.delta(Phase.THINKING, "plan");
+        coalescer.delta(Phase.RESPONSE, "answer");
+        coalescer.flush();
+
+        assertEquals(List.of("thinking_delta:plan", "response_delta:answer"), frames);
+    }
+
+    @Test
+    void testByteThresholdFlushes() throws Exception {
+        DeltaCoalescer coalescer = new DeltaCoalescer(this::record, 60_000, 8, null);
+
+        coalescer.delta(Phase.RESPONSE, "1234");
+        assertTrue(frames.isEmpty());
+        coalescer.delta(Phase.RESPONSE, "5678");
+
+        assertEquals(List.of("response_delta:12345678"), frames);
+    }
+
+    @Test
+    void testZeroIntervalPassesThrough() throws Exception {
+        DeltaCoalescer coalescer = new DeltaCoalescer(this::record, 0, 1024, null);
+
+        coalescer.delta(Phase.RESPONSE, "a");
+        coalescer.delta(Phase.RESPONSE, "b");
+
+        assertEquals(List.of("response_delta:a", "response_delta:b"), frames);
+    }
+
+    @Test
+    void testScheduledFlushWithoutFurtherEvents() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            DeltaCoalescer coalescer = new DeltaCoalescer(this::record, 20, 1024, scheduler);
+            coalescer.delta(Phase.THINKING, "idle");
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (frames.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(List.of("thinking_delta:idle"), frames);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void testBlockedSinkDoesNotStallScheduler() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> writerThread = new AtomicReference<>();
+        try {
+            DeltaCoalescer coalescer = new DeltaCoalescer(event -> {
+                writerThread.set(Thread.currentThread());
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                record(event);
+            }, 20, 1024, scheduler);
+            coalescer.delta(Phase.RESPONSE, "slow");
+
+            // The scheduler still runs other tasks while the deadline write is blocked
+            ScheduledFuture<String> other = scheduler.schedule(() -> "ran", 100, TimeUnit.MILLISECONDS);
+            assertEquals("ran", other.get(5, TimeUnit.SECONDS));
+
+            release.countDown();
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (frames.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(List.of("response_delta:slow"), frames);
+            assertTrue(writerThread.get().isVirtual());
+        } finally {
+            release.countDown();
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void testDueBufferIsFlushedByStreamThread() throws Exception {
+        List<Runnable> handedOff = Collections.synchronizedList(new ArrayList<>());
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            DeltaCoalescer coalescer = new DeltaCoalescer(this::record, 20, 1024, scheduler, handedOff::add);
+            coalescer.delta(Phase.RESPONSE, "a");
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (handedOff.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(frames.isEmpty(), "deadline only marks the buffer due");
+
+            coalescer.delta(Phase.RESPONSE, "b");
+            assertEquals(List.of("response_delta:ab"), frames);
+
+            List.copyOf(handedOff).forEach(Runnable::run);
+            assertEquals(List.of("response_delta:ab"), frames, "stale hand-off sends nothing");
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCloseDropsBufferedText() throws Exception {
+        DeltaCoalescer coalescer = new DeltaCoalescer(this::record, 60_000, 1024, null);
+
+        coalescer.delta(Phase.RESPONSE, "lost");
+        coalescer.close();
+        coalescer.send(new StreamEvents.CompleteEvent());
+
+        assertTrue(frames.isEmpty());
+    }
+
+    @Test
+    void testUtf8Length() {
+        assertEquals(5, DeltaCoalescer.utf8Length("hello"));
+        assertEquals(2, DeltaCoalescer.utf8Length("é"));
+        assertEquals(3, DeltaCoalescer.utf8Length("中"));
+        assertEquals(4, DeltaCoalescer.utf8Length("😀"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.portfolio.stream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DeltaTracker
+ */
+class DeltaTrackerTest {
+
+    @Test
+    void testFirstSnapshotIsEmittedWhole() {
+        DeltaTracker tracker = new DeltaTracker();
+
+        assertEquals("Hello", tracker.next("Hello"));
+        assertEquals(5, tracker.emittedLength());
+    }
+
+    @Test
+    void testCumulativeSnapshotsEmitSuffix() {
+        DeltaTracker tracker = new DeltaTracker();
+
+        assertEquals("Hello", tracker.next("Hello"));
+        assertEquals(", world", tracker.next("Hello, world"));
+        assertEquals("!", tracker.next("Hello, world!"));
+        assertEquals("", tracker.next("Hello, world!"));
+    }
+
+    @Test
+    void testNonCumulativeChunksEmittedAsIs() {
+        DeltaTracker tracker = new DeltaTracker();
+
+        assertEquals("Hel", tracker.next("Hel"));
+        assertEquals("lo", tracker.next("lo"));
+        assertEquals("p me", tracker.next("p me"));
+    }
+
+    @Test
+    void testRewriteEmitsPastCommonPrefix() {
+        DeltaTracker tracker = new DeltaTracker();
+
+        tracker.next("The answer is 41");
+        assertEquals("2", tracker.next("The answer is 42"));
+        assertEquals(16, tracker.emittedLength());
+    }
+
+    @Test
+    void testRewriteInsideLongSnapshotIsNotTreatedAsAppend() {
+        DeltaTracker tracker = new DeltaTracker();
+        String head = "h".repeat(100);
+        String tail = "t".repeat(100);
+
+        tracker.next(head + "middle one" + tail);
+        // Same head and tail, different middle, extra suffix
+        String rewritten = head + "middle two" + tail + " more";
+
+        assertEquals("two" + tail + " more", tracker.next(rewritten));
+        assertEquals(rewritten.length(), tracker.emittedLength());
+    }
+
+    @Test
+    void testLongCumulativeStream() {
+        DeltaTracker tracker = new DeltaTracker();
+        StringBuilder full = new StringBuilder();
+        StringBuilder emitted = new StringBuilder();
+
+        for (int i = 0; i < 2000; i++) {
+            full.append("token").append(i).append(' ');
+            emitted.append(tracker.next(full.toString()));
+        }
+
+        assertEquals(full.toString(), emitted.toString());
+    }
+
+    @Test
+    void testEmptyAndNullIgnored() {
+        DeltaTracker tracker = new DeltaTracker();
+
+        assertEquals("", tracker.next(null));
+        assertEquals("", tracker.next(""));
+        assertEquals(0, tracker.emittedLength());
+    }
+
+    @Test
+    void testReset() {
+        DeltaTracker tracker = new DeltaTracker();
+        tracker.next("first answer");
+        tracker.reset();
+
+        assertEquals("first", tracker.next("first"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.portfolio.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GzipFrameClient
+ */
+class GzipFrameClientTest {
+
+    private static class RecordingClient implements ResumableStream.Client {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int writes;
+        boolean completed;
+
+        @Override
+        public void sendFrame(byte[] frame) {
+            body.writeBytes(frame);
+            writes++;
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completed = true;
+        }
+    }
+
+    private static byte[] frame(String data) {
+        return ("event:response_delta\ndata:{\"type\":\"response_delta\",\"content\":\"" + data + "\"}\n\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testBodyIsOneGzipStream() throws IOException {
+        RecordingClient connection = new RecordingClient();
+        long[] totals = new long[2];
+        GzipFrameClient client = new GzipFrameClient(connection, 1, (raw, out, nanos) -> {
+            totals[0] += raw;
+            totals[1] += out;
+        });
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            byte[] frame = frame("chunk " + i + " of a longer answer");
+            expected.append(new String(frame, StandardCharsets.UTF_8));
+            client.sendFrame(frame);
+        }
+        client.complete();
+
+        assertTrue(connection.completed);
+        byte[] body = connection.body.toByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals(expected.toString(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(expected.length(), totals[0]);
+        assertTrue(totals[1] < totals[0] / 2, "repeated frame structure should compress well");
+    }
+
+    @Test
+    void testEachFrameIsDecodableOnArrival() throws Exception {
+        RecordingClient connection = new RecordingClient();
+        GzipFrameClient client = new GzipFrameClient(connection, 1, (raw, out, nanos) -> {});
+
+        byte[] frame = frame("hello");
+        client.sendFrame(frame);
+
+        // Skip the 10-byte gzip header; the sync-flushed deflate data decodes
+        // to the whole frame without the rest of the stream
+        byte[] written = connection.body.toByteArray();
+        Inflater inflater = new Inflater(true);
+        inflater.setInput(written, 10, written.length - 10);
+        byte[] decoded = new byte[frame.length * 2];
+        int length = inflater.inflate(decoded);
+        assertEquals(new String(frame, StandardCharsets.UTF_8), new String(decoded, 0, length, StandardCharsets.UTF_8));
+        assertEquals(1, connection.writes);
+    }
+
+    @Test
+    void testSendAfterCompleteFails() {
+        RecordingClient connection = new RecordingClient();
+        GzipFrameClient client = new GzipFrameClient(connection, 1, (raw, out, nanos) -> {});
+        client.complete();
+        assertThrows(IOException.class, () -> client.sendFrame(frame("late")));
+    }
+
+    @Test
+    void testAcceptEncodingNegotiation() {
+        assertTrue(GzipFrameClient.accepts("gzip, deflate, br"));
+        assertTrue(GzipFrameClient.accepts("br;q=1.0, gzip;q=0.8"));
+        assertTrue(GzipFrameClient.accepts("*"));
+        assertFalse(GzipFrameClient.accepts("gzip;q=0"));
+        assertFalse(GzipFrameClient.accepts("identity"));
+        assertFalse(GzipFrameClient.accepts("br"));
+        assertFalse(GzipFrameClient.accepts(null));
+    }
+}
@@ -0,0 +1,99 @@
+package com.portfolio.stream;
+
+import com.portfolio.config.ChatStreamProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ResumableStreamRegistry
+ */
+class ResumableStreamRegistryTest {
+
+    private final ResumableStreamRegistry registry = new ResumableStreamRegistry(
+            new ChatStreamProperties(), Executors.newSingleThreadScheduledExecutor(), new SimpleMeterRegistry());
+
+    private static class FakeClient implements ResumableStream.Client {
+        final List<String> frames = new ArrayList<>();
+        boolean completed;
+
+        @Override
+        public void sendFrame(byte[] frame) throws IOException {
+            frames.add(new String(frame, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completed = true;
+        }
+    }
+
+    private static byte[] frame(String data) {
+        return ("data:" + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testFollowerJoinsSharedRun() {
+        ResumableStream stream = registry.open("leader", () -> {});
+        stream.attach(new FakeClient());
+        stream.write(frame("leader-start"));
+        stream.write(frame("delta"));
+        registry.share("who is yi", stream);
+
+        FakeClient follower = new FakeClient();
+        assertSame(stream, registry.join("who is yi", "follower", follower, frame("follower-start")));
+        stream.write(frame("more"));
+
+        assertEquals(List.of("data:follower-start\n\n", "id:2\ndata:delta\n\n", "id:3\ndata:more\n\n"), follower.frames);
+        assertEquals(Set.of("follower"), registry.unshare("who is yi", stream));
+        assertNull(registry.join("who is yi", "late", new FakeClient(), frame("late-start")));
+    }
+
+    @Test
+    void testFollowerCanResumeUnderOwnSession() {
+        ResumableStream stream = registry.open("leader", () -> {});
+        stream.write(frame("leader-start"));
+        registry.share("q", stream);
+        registry.join("q", "follower", new FakeClient(), frame("follower-start"));
+        stream.write(frame("a"));
+
+        FakeClient reconnected = new FakeClient();
+        assertSame(stream, registry.resume("follower", 1, reconnected));
+        assertEquals(List.of("id:2\ndata:a\n\n"), reconnected.frames);
+    }
+
+    @Test
+    void testFinishedRunIsNotJoined() {
+        ResumableStream stream = registry.open("leader", () -> {});
+        stream.write(frame("leader-start"));
+        registry.share("q", stream);
+        stream.complete();
+
+        assertNull(registry.join("q", "follower", new FakeClient(), frame("follower-start")));
+    }
+
+    @Test
+    void testUnshareIgnoresOtherStream() {
+        ResumableStream first = registry.open("a", () -> {});
+        ResumableStream second = registry.open("b", () -> {});
+        registry.share("q", first);
+        registry.share("q", second);
+
+        assertEquals(Set.of(), registry.unshare("q", second));
+        assertEquals(Set.of(), registry.unshare("q", first));
+        assertNull(registry.join("q", "c", new FakeClient(), frame("c-start")));
+    }
+}
@@ -0,0 +1,154 @@
+package com.portfolio.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ResumableStream
+ */
+class ResumableStreamTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private static class FakeClient implements ResumableStream.Client {
+        final List<String> frames = new ArrayList<>();
+        boolean completed;
+        boolean broken;
+
+        @Override
+        public void sendFrame(byte[] frame) throws IOException {
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            frames.add(new String(frame, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completed = true;
+        }
+    }
+
+    private static byte[] frame(String data) {
+        return ("data:" + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private ResumableStream stream(int maxFrames, long graceMs, Runnable onAbandoned, Runnable onExpired) {
+        return new ResumableStream("s1", maxFrames, 1 << 20, graceMs, scheduler, onAbandoned, onExpired);
+    }
+
+    @Test
+    void testFramesAreNumbered() {
+        ResumableStream stream = stream(16, 1_000, () -> {}, () -> {});
+        FakeClient client = new FakeClient();
+        stream.attach(client);
+
+        stream.write(frame("a"));
+        stream.write(frame("b"));
+
+        assertEquals(List.of("id:1\ndata:a\n\n", "id:2\ndata:b\n\n"), client.frames);
+        assertEquals(2, stream.lastEventId());
+    }
+
+    @Test
+    void testResumeReplaysMissedFramesThenFollowsLive() {
+        AtomicInteger abandoned = new AtomicInteger();
+        ResumableStream stream = stream(16, 60_000, abandoned::incrementAndGet, () -> {});
+        FakeClient first = new FakeClient();
+        stream.attach(first);
+        stream.write(frame("a"));
+
+        first.broken = true;
+        stream.write(frame("b"));
+        stream.write(frame("c"));
+
+        FakeClient second = new FakeClient();
+        assertTrue(stream.resume(second, 1));
+        stream.write(frame("d"));
+        stream.complete();
+
+        assertEquals(List.of("id:2\ndata:b\n\n", "id:3\ndata:c\n\n", "id:4\ndata:d\n\n"), second.frames);
+        assertTrue(second.completed);
+        assertEquals(0, abandoned.get());
+    }
+
+    @Test
+    void testResumeFailsWhenFramesWereDropped() {
+        ResumableStream stream = stream(2, 60_000, () -> {}, () -> {});
+        for (int i = 0; i < 5; i++) {
+            stream.write(frame("x" + i));
+        }
+
+        assertFalse(stream.resume(new FakeClient(), 1));
+        assertFalse(stream.resume(new FakeClient(), 9));
+        assertTrue(stream.resume(new FakeClient(), 3));
+    }
+
+    @Test
+    void testFinishedStreamServesTail() {
+        ResumableStream stream = stream(16, 60_000, () -> {}, () -> {});
+        FakeClient first = new FakeClient();
+        stream.attach(first);
+        stream.write(frame("a"));
+        stream.detach(first);
+        stream.write(frame("b"));
+        stream.complete();
+
+        FakeClient second = new FakeClient();
+        assertTrue(stream.resume(second, 1));
+
+        assertEquals(List.of("id:2\ndata:b\n\n"), second.frames);
+        assertTrue(second.completed);
+    }
+
+    @Test
+    void testAbandonedAfterGracePeriod() throws Exception {
+        CountDownLatch expired = new CountDownLatch(1);
+        AtomicInteger abandoned = new AtomicInteger();
+        ResumableStream stream = stream(16, 20, abandoned::incrementAndGet, expired::countDown);
+        FakeClient client = new FakeClient();
+        stream.attach(client);
+        stream.write(frame("a"));
+
+        stream.detach(client);
+
+        assertTrue(expired.await(5, TimeUnit.SECONDS));
+        assertEquals(1, abandoned.get());
+        assertTrue(stream.isFinished());
+        assertFalse(stream.resume(new FakeClient(), 1));
+    }
+
+    @Test
+    void testRunContinuesWhileAnyClientRemains() throws Exception {
+        AtomicInteger abandoned = new AtomicInteger();
+        ResumableStream stream = stream(16, 20, abandoned::incrementAndGet, () -> {});
+        FakeClient leader = new FakeClient();
+        FakeClient follower = new FakeClient();
+        stream.attach(leader);
+        stream.write(frame("start"));
+        assertTrue(stream.resume(follower, 1, frame("own-start")));
+
+        stream.detach(leader);
+        stream.write(frame("b"));
+        Thread.sleep(100);
+
+        assertEquals(0, abandoned.get());
+        assertEquals(List.of("data:own-start\n\n", "id:2\ndata:b\n\n"), follower.frames);
+    }
+}
@@ -0,0 +1,71 @@
+package com.portfolio.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.model.StreamEvents;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SseEventEncoder
+ * Every frame must match what ObjectMapper + SseEmitter produced before
+ */
+class SseEventEncoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SseEventEncoder encoder = new SseEventEncoder();
+
+    private String expected(StreamEvents.StreamEvent event) throws Exception {
+        return "event:" + event.getType() + "\ndata:" + objectMapper.writeValueAsString(event) + "\n\n";
+    }
+
+    private String encoded(StreamEvents.StreamEvent event) throws Exception {
+        return new String(encoder.encode(event), StandardCharsets.UTF_8);
+    }
+
+    private void assertSameAsJackson(StreamEvents.StreamEvent event) throws Exception {
+        assertEquals(expected(event), encoded(event));
+    }
+
+    @Test
+    void testConstantEvents() throws Exception {
+        assertSameAsJackson(new StreamEvents.ThinkingStartEvent());
+        assertSameAsJackson(new StreamEvents.ThinkingEndEvent());
+        assertSameAsJackson(new StreamEvents.ResponseStartEvent());
+        assertSameAsJackson(new StreamEvents.ResponseEndEvent());
+        assertSameAsJackson(new StreamEvents.CompleteEvent());
+    }
+
+    @Test
+    void testConstantFramesAreShared() throws Exception {
+        assertSame(encoder.encode(new StreamEvents.CompleteEvent()),
+                encoder.encode(new StreamEvents.CompleteEvent()));
+    }
+
+    @Test
+    void testDeltaEscaping() throws Exception {
+        assertSameAsJackson(new StreamEvents.ResponseDeltaEvent("plain text"));
+        assertSameAsJackson(new StreamEvents.ResponseDeltaEvent("quote \" backslash \\ slash /"));
+        assertSameAsJackson(new StreamEvents.ThinkingDeltaEvent("line\nbreak\r\ttab\b\f"));
+        assertSameAsJackson(new StreamEvents.ThinkingDeltaEvent("ctrl \u0001 \u001f"));
+        assertSameAsJackson(new StreamEvents.ResponseDeltaEvent("café 中文 😀"));
+    }
+
+    @Test
+    void testLargeDeltaGrowsBuffer() throws Exception {
+        String content = "x\"".repeat(100_000);
+        assertSameAsJackson(new StreamEvents.ResponseDeltaEvent(content));
+        // Buffer is reused for the next, smaller frame
+        assertSameAsJackson(new StreamEvents.ResponseDeltaEvent("small"));
+    }
+
+    @Test
+    void testOtherEventsUseJackson() throws Exception {
+        assertSameAsJackson(new StreamEvents.SessionStartEvent("session-1"));
+        assertSameAsJackson(new StreamEvents.ToolCallStartEvent("tool_1", "queryProjects", "{query=java}"));
+        assertSameAsJackson(new StreamEvents.ToolCallEndEvent("tool_1", "queryProjects", "ok", true));
+        assertSameAsJackson(new StreamEvents.ErrorEvent("boom", "STREAM_ERROR"));
+    }
+}
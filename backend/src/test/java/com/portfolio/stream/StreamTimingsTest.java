@@ -0,0 +1,65 @@
+package com.portfolio.stream;
+
+import com.portfolio.model.StreamEvents;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StreamTimings
+ */
+class StreamTimingsTest {
+
+    @Test
+    void testPhaseTimesAreFirstOccurrences() {
+        StreamTimings timings = new StreamTimings(1_000);
+
+        timings.onFrame(new StreamEvents.SessionStartEvent("s1"), 40, 1_010);
+        timings.onFrame(new StreamEvents.ThinkingDeltaEvent("a"), 50, 1_100);
+        timings.onFrame(new StreamEvents.ThinkingDeltaEvent("b"), 50, 1_200);
+        timings.onFrame(new StreamEvents.ResponseDeltaEvent("c"), 60, 1_500);
+        timings.onFrame(new StreamEvents.ResponseDeltaEvent("d"), 60, 1_600);
+
+        assertEquals(10, timings.sessionStartNanos());
+        assertEquals(100, timings.firstThinkingNanos());
+        assertEquals(500, timings.firstResponseNanos());
+        assertEquals(5, timings.events());
+        assertEquals(260, timings.bytes());
+        assertEquals(700, timings.durationNanos(1_700));
+    }
+
+    @Test
+    void testMissingPhasesReportNegative() {
+        StreamTimings timings = new StreamTimings(0);
+
+        timings.onFrame(new StreamEvents.SessionStartEvent("s1"), 40, 5);
+
+        assertEquals(-1, timings.firstThinkingNanos());
+        assertEquals(-1, timings.firstResponseNanos());
+    }
+
+    @Test
+    void testToolDurationsMatchedById() {
+        StreamTimings timings = new StreamTimings(0);
+
+        timings.onFrame(new StreamEvents.ToolCallStartEvent("tool_1", "queryProfile", "{}"), 80, 100);
+        timings.onFrame(new StreamEvents.ToolCallStartEvent("tool_2", "queryProfile", "{}"), 80, 150);
+        timings.onFrame(new StreamEvents.ToolCallEndEvent("tool_2", "queryProfile", "ok", true), 80, 400);
+        timings.onFrame(new StreamEvents.ToolCallEndEvent("tool_1", "queryProfile", "ok", true), 80, 900);
+        timings.onFrame(new StreamEvents.ToolCallEndEvent("tool_9", "unknown", "ok", true), 80, 950);
+
+        assertEquals(List.of(
+                new StreamTimings.ToolTiming("queryProfile", 250),
+                new StreamTimings.ToolTiming("queryProfile", 800)), timings.tools());
+    }
+
+    @Test
+    void testFinishOnlyOnce() {
+        StreamTimings timings = new StreamTimings(0);
+
+        assertTrue(timings.finish());
+        assertFalse(timings.finish());
+    }
+}
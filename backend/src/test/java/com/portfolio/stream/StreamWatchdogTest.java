@@ -0,0 +1,112 @@
+package com.portfolio.stream;
+
+import com.portfolio.model.StreamEvents;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StreamWatchdog
+ */
+class StreamWatchdogTest {
+
+    private static final long MS = 1_000_000L;
+
+    private static StreamWatchdog watchdog() {
+        // first event 1s, idle 500ms, tool call 2s, total 10s
+        return new StreamWatchdog(1_000, 500, 2_000, 10_000, 0);
+    }
+
+    @Test
+    void testFirstEventDeadline() {
+        StreamWatchdog watchdog = watchdog();
+        watchdog.onFrame(new StreamEvents.SessionStartEvent("s1"), 10 * MS);
+
+        assertNull(watchdog.check(900 * MS));
+        assertEquals(StreamWatchdog.FIRST_EVENT_TIMEOUT, watchdog.check(1_100 * MS).code());
+    }
+
+    @Test
+    void testIdleGapAfterOutput() {
+        StreamWatchdog watchdog = watchdog();
+        watchdog.onFrame(new StreamEvents.ResponseDeltaEvent("Hi"), 800 * MS);
+
+        assertNull(watchdog.check(1_200 * MS));
+        assertEquals(StreamWatchdog.IDLE_TIMEOUT, watchdog.check(1_400 * MS).code());
+
+        watchdog.onFrame(new StreamEvents.ResponseDeltaEvent(" there"), 1_350 * MS);
+        assertNull(watchdog.check(1_400 * MS));
+    }
+
+    @Test
+    void testSilentToolCallHasItsOwnDeadline() {
+        StreamWatchdog watchdog = watchdog();
+        watchdog.onFrame(new StreamEvents.ToolCallStartEvent("t1", "search", "{}"), 100 * MS);
+
+        // Past the idle gap but within the tool deadline
+        assertNull(watchdog.check(1_500 * MS));
+        assertEquals(StreamWatchdog.TOOL_TIMEOUT, watchdog.check(2_200 * MS).code());
+
+        watchdog.onFrame(new StreamEvents.ToolCallEndEvent("t1", "search", "ok", true), 2_000 * MS);
+        assertNull(watchdog.check(2_200 * MS));
+        assertEquals(StreamWatchdog.IDLE_TIMEOUT, watchdog.check(2_600 * MS).code());
+    }
+
+    @Test
+    void testTotalDurationDeadline() {
+        StreamWatchdog watchdog = watchdog();
+        for (long t = 100; t <= 10_100; t += 100) {
+            watchdog.onFrame(new StreamEvents.ResponseDeltaEvent("x"), t * MS);
+        }
+        assertEquals(StreamWatchdog.STREAM_TIMEOUT, watchdog.check(10_100 * MS).code());
+    }
+
+    @Test
+    void testZeroDisablesDeadline() {
+        StreamWatchdog watchdog = new StreamWatchdog(0, 0, 0, 0, 0);
+        assertNull(watchdog.check(TimeUnit.HOURS.toNanos(1)));
+    }
+
+    @Test
+    void testViolationReportedOnceOffScheduler() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            StreamWatchdog watchdog = new StreamWatchdog(100, 0, 0, 0, System.nanoTime());
+            AtomicReference<StreamWatchdog.Violation> reported = new AtomicReference<>();
+            AtomicReference<Thread> handlerThread = new AtomicReference<>();
+            CountDownLatch fired = new CountDownLatch(1);
+            watchdog.start(scheduler, violation -> {
+                reported.set(violation);
+                handlerThread.set(Thread.currentThread());
+                fired.countDown();
+            });
+
+            assertTrue(fired.await(5, TimeUnit.SECONDS));
+            assertEquals(StreamWatchdog.FIRST_EVENT_TIMEOUT, reported.get().code());
+            assertTrue(handlerThread.get().isVirtual(), "handler must not run on the scheduler thread");
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void testStoppedWatchdogDoesNotFire() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            StreamWatchdog watchdog = new StreamWatchdog(100, 0, 0, 0, System.nanoTime());
+            CountDownLatch fired = new CountDownLatch(1);
+            watchdog.start(scheduler, violation -> fired.countDown());
+            watchdog.stop();
+
+            assertFalse(fired.await(300, TimeUnit.MILLISECONDS));
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+}